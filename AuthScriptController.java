@@ -1,16 +1,24 @@
 package com.example.k8sui.controller;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.example.k8sui.service.AuthScriptService;
 
 @RestController
 public class AuthScriptController {
 
+    // a little longer than any script may run (k8s.login.script.timeoutSec)
+    private static final long EMITTER_TIMEOUT_MS = 10 * 60 * 1000L;
+
     private final AuthScriptService authScriptService;
 
     public AuthScriptController(AuthScriptService authScriptService) {
@@ -18,13 +26,27 @@ public class AuthScriptController {
     }
 
     /**
-     * Runs the login script for the given namespace and waits for it to complete.
+     * Runs the login script for the given namespace and answers when it completes. The request
+     * is handled asynchronously, so no servlet thread waits for the script. A login that is still
+     * valid is answered right away unless force=true.
      * POST /api/run-login-script?namespace=default
      */
     @PostMapping("/api/run-login-script")
-    public ResponseEntity<?> runLoginScript(@RequestParam String namespace) {
+    public CompletableFuture<ResponseEntity<?>> runLoginScript(@RequestParam String namespace,
+                                                               @RequestParam(defaultValue = "false") boolean force) {
+        AuthScriptService.Job job;
         try {
-            AuthScriptService.ScriptResult r = authScriptService.runLoginScriptForNamespace(namespace);
+            job = authScriptService.start(namespace, force);
+        } catch (IllegalArgumentException iae) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", iae.getMessage())));
+        } catch (AuthScriptService.AuthScriptException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(503).body(Map.of("error", e.getMessage())));
+        }
+        return job.result().handle((r, ex) -> {
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                return ResponseEntity.status(500).body(Map.of("error", String.valueOf(cause.getMessage())));
+            }
             Map<String, Object> body = new HashMap<>();
             body.put("exitCode", r.exitCode);
             body.put("stdout", r.stdout);
@@ -32,10 +54,81 @@ public class AuthScriptController {
             // 0 -> success
             if (r.exitCode == 0) return ResponseEntity.ok(body);
             return ResponseEntity.status(500).body(body);
+        });
+    }
+
+    /**
+     * Starts the login script as a job (or joins the one already running for the namespace)
+     * and returns its status right away; follow it with /stream or poll /api/login-jobs/{id}.
+     * POST /api/login-jobs?namespace=default
+     */
+    @PostMapping("/api/login-jobs")
+    public ResponseEntity<?> startJob(@RequestParam String namespace,
+                                      @RequestParam(defaultValue = "false") boolean force) {
+        try {
+            return ResponseEntity.accepted().body(authScriptService.start(namespace, force).toStatus());
         } catch (IllegalArgumentException iae) {
             return ResponseEntity.badRequest().body(Map.of("error", iae.getMessage()));
         } catch (AuthScriptService.AuthScriptException e) {
-            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+            return ResponseEntity.status(503).body(Map.of("error", e.getMessage()));
         }
     }
+
+    /** Namespaces whose login is reused, with expiry times (epoch millis). */
+    @GetMapping("/api/login-sessions")
+    public ResponseEntity<?> sessions() {
+        return ResponseEntity.ok(authScriptService.getSessions());
+    }
+
+    /** Forget a namespace's login so the next request runs the script again. */
+    @DeleteMapping("/api/login-sessions/{namespace}")
+    public ResponseEntity<?> invalidateSession(@PathVariable String namespace) {
+        boolean removed = authScriptService.invalidateSession(namespace);
+        return ResponseEntity.ok(Map.of("namespace", namespace, "invalidated", removed));
+    }
+
+    /** State, exit code and output so far of a job. */
+    @GetMapping("/api/login-jobs/{id}")
+    public ResponseEntity<?> jobStatus(@PathVariable String id) {
+        AuthScriptService.Job job = authScriptService.getJob(id);
+        if (job == null) return ResponseEntity.status(404).body(Map.of("error", "Job not found"));
+        return ResponseEntity.ok(job.toStatus());
+    }
+
+    /**
+     * Output of a job as server-sent events: the lines so far, then each new one as it is
+     * printed ("line" events: {stream, text}), and a final "done" event with the job status.
+     */
+    @GetMapping(value = "/api/login-jobs/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String id) {
+        AuthScriptService.Job job = authScriptService.getJob(id);
+        if (job == null) return ResponseEntity.notFound().build();
+
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        AuthScriptService.JobListener listener = new AuthScriptService.JobListener() {
+            @Override
+            public void line(AuthScriptService.OutputLine line) {
+                try {
+                    emitter.send(SseEmitter.event().name("line").data(line));
+                } catch (IOException | IllegalStateException e) {
+                    // client went away; the job keeps running
+                    job.unsubscribe(this);
+                }
+            }
+
+            @Override
+            public void done(AuthScriptService.Job finished) {
+                try {
+                    emitter.send(SseEmitter.event().name("done").data(finished.toStatus()));
+                    emitter.complete();
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+        };
+        emitter.onCompletion(() -> job.unsubscribe(listener));
+        emitter.onTimeout(() -> job.unsubscribe(listener));
+        job.subscribe(listener);
+        return ResponseEntity.ok(emitter);
+    }
 }
@@ -3,13 +3,39 @@ package com.example.k8sui.service; // adjust to your package
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
+
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Runs the cluster login script as background jobs.
+ *
+ * Scripts run on one shared pool of k8s.login.script.maxConcurrent workers with a bounded queue;
+ * a second start for a namespace whose script is still queued or running joins that job instead
+ * of spawning another process. Output lines are kept on the job (up to maxOutputLines) and pushed
+ * to listeners as they are read, so callers can follow them (SSE) or just poll the job status.
+ * Listeners are called on their own notifier thread, so a slow one holds up neither the script's
+ * output nor other listeners. Finished jobs stay visible for k8s.login.script.jobRetentionMin minutes.
+ *
+ * On timeout the script and its child processes are killed. Output is read on separate threads;
+ * once the script has exited it is read for at most a short grace period, because a background
+ * child (e.g. a credential helper) may keep the pipes open long after.
+ *
+ * A successful run is reused as the namespace's session until it expires, so another start
+ * returns that job without spawning the script again. The script can report the expiry on
+ * stdout as K8S_SESSION_EXPIRES_AT=&lt;ISO-8601 instant or epoch seconds&gt; or
+ * K8S_SESSION_TTL=&lt;seconds&gt;; otherwise k8s.login.script.sessionTtlSec applies (0 = never
+ * reuse). Sessions are renewed refreshSkewSec before they expire, and a failed run drops them.
+ */
 @Service
 public class AuthScriptService {
 
@@ -19,20 +45,126 @@ public class AuthScriptService {
     // Timeout in seconds for script execution
     private final Duration timeout;
 
+    private final int maxOutputLines;
+    private final Duration jobRetention;
+
     // Very small whitelist for namespace names to avoid injection
     private static final Pattern SAFE_NAMESPACE = Pattern.compile("^[a-z0-9]([a-z0-9-_.]*[a-z0-9])?$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SESSION_EXPIRY = Pattern.compile("^\\s*K8S_SESSION_(EXPIRES_AT|TTL)=(\\S+)\\s*$");
+    // how long output is still read after the script exited
+    private static final Duration PIPE_GRACE = Duration.ofSeconds(2);
+
+    // how long a successful login is reused when the script does not say
+    private final Duration sessionTtl;
+    private final Duration refreshSkew;
+
+    // script runs; stdout and stderr are read on the pumps pool (a pump can outlive its job while a
+    // background child holds the pipe, hence unbounded), listeners are called on the notifier pool
+    private final ThreadPoolExecutor runners;
+    private final ExecutorService pumps;
+    private final ExecutorService notifier;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // namespace -> job still queued or running
+    private final Map<String, Job> active = new ConcurrentHashMap<>();
+    // namespace -> last successful job, until its session expires
+    private final Map<String, Job> sessions = new ConcurrentHashMap<>();
 
     public AuthScriptService(@Value("${k8s.login.script.path:/usr/local/bin/login-to-cluster.sh}") String loginScriptPath,
-                             @Value("${k8s.login.script.timeoutSec:30}") int timeoutSec) {
+                             @Value("${k8s.login.script.timeoutSec:30}") int timeoutSec,
+                             @Value("${k8s.login.script.maxConcurrent:4}") int maxConcurrent,
+                             @Value("${k8s.login.script.queueSize:16}") int queueSize,
+                             @Value("${k8s.login.script.maxOutputLines:2000}") int maxOutputLines,
+                             @Value("${k8s.login.script.jobRetentionMin:10}") int jobRetentionMin,
+                             @Value("${k8s.login.script.sessionTtlSec:600}") int sessionTtlSec,
+                             @Value("${k8s.login.script.refreshSkewSec:30}") int refreshSkewSec) {
         this.loginScriptPath = loginScriptPath;
         this.timeout = Duration.ofSeconds(Math.max(5, timeoutSec));
+        this.maxOutputLines = Math.max(1, maxOutputLines);
+        this.jobRetention = Duration.ofMinutes(Math.max(1, jobRetentionMin));
+        this.sessionTtl = Duration.ofSeconds(Math.max(0, sessionTtlSec));
+        this.refreshSkew = Duration.ofSeconds(Math.max(0, refreshSkewSec));
+        int workers = Math.max(1, maxConcurrent);
+        this.runners = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), daemon("login-script"));
+        this.runners.allowCoreThreadTimeOut(true);
+        this.pumps = Executors.newCachedThreadPool(daemon("login-script-output"));
+        this.notifier = Executors.newCachedThreadPool(daemon("login-script-events"));
     }
 
-    public ScriptResult runLoginScriptForNamespace(String namespace) throws AuthScriptException {
+    @PreDestroy
+    public void stop() {
+        runners.shutdownNow();
+        pumps.shutdownNow();
+        notifier.shutdownNow();
+    }
+
+    public Job start(String namespace) throws AuthScriptException {
+        return start(namespace, false);
+    }
+
+    /**
+     * Start the login script for a namespace, or return the job already queued or running for it.
+     * Unless force is set, a successful job whose session has not expired is returned as is.
+     * Throws AuthScriptException when the queue is full.
+     */
+    public Job start(String namespace, boolean force) throws AuthScriptException {
         validateNamespace(namespace);
+        pruneFinished();
+        Job job;
+        synchronized (active) {
+            Job running = active.get(namespace);
+            if (running != null) return running;
+            Job session = sessions.get(namespace);
+            if (session != null && !force && isFresh(session)) return session;
+            job = new Job(UUID.randomUUID().toString(), namespace, notifier);
+            try {
+                runners.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                throw new AuthScriptException("Too many login scripts queued; try again shortly");
+            }
+            active.put(namespace, job);
+            jobs.put(job.id, job);
+        }
+        return job;
+    }
+
+    /** A job by id, or null if unknown or expired. */
+    public Job getJob(String id) {
+        return jobs.get(id);
+    }
 
+    /** Namespaces with a reusable login, and when each expires (epoch millis). */
+    public Map<String, Long> getSessions() {
+        Map<String, Long> out = new TreeMap<>();
+        sessions.forEach((ns, job) -> {
+            if (isFresh(job)) out.put(ns, job.sessionExpiresAt);
+        });
+        return out;
+    }
+
+    /** Forget a namespace's login, so the next start runs the script again. */
+    public boolean invalidateSession(String namespace) {
+        return sessions.remove(namespace) != null;
+    }
+
+    /** Runs the login script for the given namespace and waits for it to complete. */
+    public ScriptResult runLoginScriptForNamespace(String namespace) throws AuthScriptException {
+        try {
+            return start(namespace).result().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthScriptException("Interrupted while waiting for login script", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AuthScriptException) throw (AuthScriptException) cause;
+            throw new AuthScriptException("Login script failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private void run(Job job) {
         // Build command: pass namespace as an argument (not via shell expansion)
-        List<String> cmd = Arrays.asList(loginScriptPath, namespace);
+        List<String> cmd = Arrays.asList(loginScriptPath, job.namespace);
 
         ProcessBuilder pb = new ProcessBuilder(cmd);
         pb.redirectErrorStream(false); // capture stdout and stderr separately
@@ -41,64 +173,296 @@ public class AuthScriptService {
         try {
             process = pb.start();
         } catch (IOException e) {
-            throw new AuthScriptException("Failed to start login script: " + e.getMessage(), e);
+            finish(job, JobState.FAILED, null, new AuthScriptException("Failed to start login script: " + e.getMessage(), e));
+            return;
         }
+        job.running();
 
-        ExecutorService ex = Executors.newFixedThreadPool(2);
-        Future<String> stdoutF = ex.submit(() -> streamToString(process.getInputStream()));
-        Future<String> stderrF = ex.submit(() -> streamToString(process.getErrorStream()));
-
-        boolean finished;
+        Future<?> stdout = pumps.submit(() -> pump(process.getInputStream(), job, "stdout"));
+        Future<?> stderr = pumps.submit(() -> pump(process.getErrorStream(), job, "stderr"));
         try {
-            finished = process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                job.timedOut = true;
+                killTree(process);
+            }
+            awaitOutput(process, stdout, stderr);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            killQuietly(process);
-            ex.shutdownNow();
-            throw new AuthScriptException("Interrupted while waiting for login script", e);
+            killTree(process);
+            finish(job, JobState.FAILED, null, new AuthScriptException("Interrupted while waiting for login script", e));
+            return;
         }
 
-        if (!finished) {
-            killQuietly(process);
-            ex.shutdownNow();
-            throw new AuthScriptException("Login script timed out after " + timeout.toSeconds() + "s");
+        if (job.timedOut) {
+            finish(job, JobState.TIMED_OUT, null, new AuthScriptException("Login script timed out after " + timeout.toSeconds() + "s"));
+            return;
         }
-
         int exit = process.exitValue();
-        String stdout = "";
-        String stderr = "";
-        try {
-            stdout = stdoutF.get(200, TimeUnit.MILLISECONDS);
-        } catch (Exception ignored) {}
-        try {
-            stderr = stderrF.get(200, TimeUnit.MILLISECONDS);
-        } catch (Exception ignored) {}
+        finish(job, exit == 0 ? JobState.SUCCEEDED : JobState.FAILED, exit, null);
+    }
 
-        ex.shutdown();
+    private void finish(Job job, JobState state, Integer exitCode, AuthScriptException error) {
+        if (state == JobState.SUCCEEDED) job.sessionExpiresAt = sessionExpiry(job);
+        synchronized (active) {
+            active.remove(job.namespace, job);
+            if (state == JobState.SUCCEEDED && job.sessionExpiresAt != null) {
+                sessions.put(job.namespace, job);
+            } else {
+                sessions.remove(job.namespace);
+            }
+        }
+        job.finish(state, exitCode, error);
+    }
 
-        return new ScriptResult(exit, stdout, stderr);
+    private boolean isFresh(Job session) {
+        Long expiresAt = session.sessionExpiresAt;
+        return expiresAt != null && System.currentTimeMillis() < expiresAt - refreshSkew.toMillis();
     }
 
-    private static String streamToString(InputStream is) {
+    // expiry reported by the script (last marker wins), else the configured TTL; null = don't reuse
+    private Long sessionExpiry(Job job) {
+        Long reported = null;
+        for (OutputLine l : job.outputLines()) {
+            if (!"stdout".equals(l.stream())) continue;
+            Matcher m = SESSION_EXPIRY.matcher(l.text());
+            if (!m.matches()) continue;
+            try {
+                if ("TTL".equals(m.group(1))) {
+                    reported = System.currentTimeMillis() + Long.parseLong(m.group(2)) * 1000L;
+                } else if (m.group(2).chars().allMatch(Character::isDigit)) {
+                    reported = Long.parseLong(m.group(2)) * 1000L;
+                } else {
+                    reported = Instant.parse(m.group(2)).toEpochMilli();
+                }
+            } catch (NumberFormatException | DateTimeParseException e) {
+                // ignore a malformed marker
+            }
+        }
+        if (reported != null) return reported;
+        return sessionTtl.isZero() ? null : System.currentTimeMillis() + sessionTtl.toMillis();
+    }
+
+    private void pump(InputStream is, Job job, String stream) {
         try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-            StringBuilder sb = new StringBuilder();
             String line;
-            while ((line = br.readLine()) != null) sb.append(line).append('\n');
-            return sb.toString();
+            while ((line = br.readLine()) != null) job.append(stream, line, maxOutputLines);
         } catch (IOException e) {
-            return "";
+            // process killed or exited: nothing more to read
         }
     }
 
-    private static void killQuietly(Process p) {
+    // the rest of the output, for at most PIPE_GRACE; then stop reading pipes a child still holds
+    private static void awaitOutput(Process process, Future<?>... readers) throws InterruptedException {
+        long deadline = System.nanoTime() + PIPE_GRACE.toNanos();
+        for (Future<?> f : readers) {
+            try {
+                f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                f.cancel(true);
+            } catch (ExecutionException | CancellationException ignored) {
+                // nothing more to read
+            }
+        }
+        closeQuietly(process.getInputStream());
+        closeQuietly(process.getErrorStream());
+    }
+
+    private void pruneFinished() {
+        long cutoff = System.currentTimeMillis() - jobRetention.toMillis();
+        sessions.values().removeIf(j -> !isFresh(j));
+        jobs.values().removeIf(j -> j.finishedAt != null && j.finishedAt < cutoff && sessions.get(j.namespace) != j);
+    }
+
+    // children first: once the script is gone they are no longer its descendants
+    private static void killTree(Process p) {
+        try { p.descendants().forEach(ProcessHandle::destroyForcibly); } catch (Exception ignored) {}
         try { p.destroyForcibly(); } catch (Exception ignored) {}
     }
 
+    private static void closeQuietly(Closeable c) {
+        try { c.close(); } catch (IOException ignored) {}
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
     private void validateNamespace(String ns) {
         if (ns == null || ns.isEmpty()) throw new IllegalArgumentException("namespace required");
         if (!SAFE_NAMESPACE.matcher(ns).matches()) throw new IllegalArgumentException("invalid namespace: " + ns);
     }
 
+    public enum JobState { QUEUED, RUNNING, SUCCEEDED, FAILED, TIMED_OUT }
+
+    /** One output line; stream is "stdout" or "stderr". */
+    public record OutputLine(String stream, String text) {}
+
+    /**
+     * Receives a job's output as it is read, then its end. Called in order on a notifier thread,
+     * never with the job locked.
+     */
+    public interface JobListener {
+        void line(OutputLine line);
+        void done(Job job);
+    }
+
+    /** One run of the login script. */
+    public static class Job {
+        public final String id;
+        public final String namespace;
+        public final long createdAt = System.currentTimeMillis();
+
+        private final List<OutputLine> output = new ArrayList<>();
+        private final List<Subscriber> listeners = new ArrayList<>();
+        private final Executor notifier;
+        private final CompletableFuture<ScriptResult> result = new CompletableFuture<>();
+        private volatile JobState state = JobState.QUEUED;
+        private volatile Long startedAt;
+        private volatile Long finishedAt;
+        private volatile Integer exitCode;
+        private volatile String error;
+        private volatile boolean timedOut;
+        private volatile Long sessionExpiresAt;
+        private int droppedLines;
+
+        Job(String id, String namespace, Executor notifier) {
+            this.id = id;
+            this.namespace = namespace;
+            this.notifier = notifier;
+        }
+
+        /** Completes with the result once the script exits, or exceptionally with an AuthScriptException. */
+        public CompletableFuture<ScriptResult> result() {
+            return result;
+        }
+
+        public JobState getState() { return state; }
+
+        /**
+         * Replay the output so far to the listener, then keep it informed. If the job has already
+         * finished, done() is called right away and the listener is not kept.
+         */
+        public synchronized void subscribe(JobListener listener) {
+            Subscriber s = new Subscriber(listener, notifier);
+            List<OutputLine> replay = new ArrayList<>(output);
+            s.post(l -> replay.forEach(l::line));
+            if (finishedAt != null) {
+                s.post(l -> l.done(this));
+            } else {
+                listeners.add(s);
+            }
+        }
+
+        public synchronized void unsubscribe(JobListener listener) {
+            listeners.removeIf(s -> s.listener == listener);
+        }
+
+        /** Id, namespace, state, timing, exit code and the output so far, for the status endpoint. */
+        public synchronized Map<String, Object> toStatus() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", id);
+            m.put("namespace", namespace);
+            m.put("state", state);
+            m.put("createdAt", createdAt);
+            m.put("startedAt", startedAt);
+            m.put("finishedAt", finishedAt);
+            m.put("exitCode", exitCode);
+            m.put("error", error);
+            m.put("sessionExpiresAt", sessionExpiresAt);
+            m.put("stdout", joined("stdout"));
+            m.put("stderr", joined("stderr"));
+            if (droppedLines > 0) m.put("droppedLines", droppedLines);
+            return m;
+        }
+
+        synchronized List<OutputLine> outputLines() {
+            return new ArrayList<>(output);
+        }
+
+        synchronized void running() {
+            state = JobState.RUNNING;
+            startedAt = System.currentTimeMillis();
+        }
+
+        synchronized void append(String stream, String text, int maxLines) {
+            // read from a pipe a background child kept open after the job ended
+            if (finishedAt != null) return;
+            OutputLine line = new OutputLine(stream, text);
+            if (output.size() < maxLines) output.add(line); else droppedLines++;
+            for (Subscriber s : listeners) s.post(l -> l.line(line));
+        }
+
+        void finish(JobState finalState, Integer exit, AuthScriptException failure) {
+            ScriptResult r;
+            synchronized (this) {
+                state = finalState;
+                finishedAt = System.currentTimeMillis();
+                exitCode = exit;
+                error = failure != null ? failure.getMessage() : null;
+                r = failure == null ? new ScriptResult(exit, joined("stdout"), joined("stderr")) : null;
+                for (Subscriber s : listeners) s.post(l -> l.done(this));
+                listeners.clear();
+            }
+            if (failure != null) result.completeExceptionally(failure); else result.complete(r);
+        }
+
+        private String joined(String stream) {
+            StringBuilder sb = new StringBuilder();
+            for (OutputLine l : output) {
+                if (l.stream().equals(stream)) sb.append(l.text()).append('\n');
+            }
+            return sb.toString();
+        }
+    }
+
+    /** Hands events to one listener in order, on the notifier pool. */
+    private static final class Subscriber {
+        final JobListener listener;
+        private final Executor notifier;
+        private final ArrayDeque<Consumer<JobListener>> pending = new ArrayDeque<>();
+        private boolean draining;
+
+        Subscriber(JobListener listener, Executor notifier) {
+            this.listener = listener;
+            this.notifier = notifier;
+        }
+
+        void post(Consumer<JobListener> event) {
+            synchronized (this) {
+                pending.add(event);
+                if (draining) return;
+                draining = true;
+            }
+            try {
+                notifier.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Consumer<JobListener> next;
+                synchronized (this) {
+                    next = pending.poll();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    next.accept(listener);
+                } catch (RuntimeException e) {
+                    // the listener's own problem; keep delivering in order
+                }
+            }
+        }
+    }
+
     public static class ScriptResult {
         public final int exitCode;
         public final String stdout;
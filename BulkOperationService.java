@@ -0,0 +1,182 @@
+package com.example.k8sui.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Service;
+
+import com.example.k8sui.config.K8sProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bulk pod restarts and deployment scaling.
+ *
+ * Mutations run on a shared pool of k8s.bulkParallelism threads and are started no faster than
+ * k8s.bulkRatePerSecond, so one large request cannot flood the apiserver. Each item is a single
+ * API call, a pod DELETE or a JSON merge patch of spec.replicas (no pre-GET, see
+ * K8sService#applyScale), and its result is written as one NDJSON line as soon as it completes,
+ * followed by a final {"done":true,...} line with the totals.
+ */
+@Service
+public class BulkOperationService {
+
+	private final K8sProperties props;
+	private final ExecutorService pool;
+	private final RateLimiter limiter;
+	private final ObjectMapper mapper;
+
+	public BulkOperationService(K8sProperties props, ObjectMapper mapper) {
+		this.props = props;
+		this.mapper = mapper;
+		this.pool = Executors.newFixedThreadPool(Math.max(1, props.getBulkParallelism()), r -> {
+			Thread t = new Thread(r, "bulk-op");
+			t.setDaemon(true);
+			return t;
+		});
+		this.limiter = new RateLimiter(props.getBulkRatePerSecond());
+	}
+
+	@PreDestroy
+	public void stop() {
+		pool.shutdownNow();
+	}
+
+	/** Pod names to restart: the given names, or every pod matching the selector. */
+	public List<String> resolvePods(K8sService k8sService, String namespace, List<String> names, String selector) {
+		if (names != null && !names.isEmpty()) return names;
+		Map<String, String> labels = K8sService.parseLabelSelector(selector);
+		if (labels.isEmpty()) throw new IllegalArgumentException("names or selector required");
+		List<String> out = new ArrayList<>();
+		k8sService.listPodsByLabels(namespace, labels).forEach(p -> out.add(p.getMetadata().getName()));
+		return out;
+	}
+
+	/** Deployment names to scale: the given names, or every deployment matching the selector. */
+	public List<String> resolveDeployments(K8sService k8sService, String namespace, List<String> names, String selector) {
+		if (names != null && !names.isEmpty()) return names;
+		Map<String, String> labels = K8sService.parseLabelSelector(selector);
+		if (labels.isEmpty()) throw new IllegalArgumentException("names or selector required");
+		List<String> out = new ArrayList<>();
+		k8sService.listDeploymentsByLabels(namespace, labels).forEach(d -> out.add(d.getMetadata().getName()));
+		return out;
+	}
+
+	public void restartPods(K8sService k8sService, String namespace, List<String> pods, OutputStream out) throws IOException {
+		List<Callable<Map<String, Object>>> tasks = new ArrayList<>();
+		for (String name : pods) {
+			tasks.add(() -> item(name, "restarting", () -> k8sService.deletePod(namespace, name)));
+		}
+		run(tasks, out);
+	}
+
+	/** replicas maps each deployment name to its target replica count. */
+	public void scaleDeployments(K8sService k8sService, String namespace, Map<String, Integer> replicas, OutputStream out) throws IOException {
+		List<Callable<Map<String, Object>>> tasks = new ArrayList<>();
+		replicas.forEach((name, count) ->
+				tasks.add(() -> item(name, "scaled", () -> k8sService.applyScale(namespace, name, count))));
+		run(tasks, out);
+	}
+
+	private void run(List<Callable<Map<String, Object>>> tasks, OutputStream out) throws IOException {
+		CompletionService<Map<String, Object>> cs = new ExecutorCompletionService<>(pool);
+		List<Future<Map<String, Object>>> futures = new ArrayList<>();
+		for (Callable<Map<String, Object>> t : tasks) {
+			futures.add(cs.submit(() -> {
+				limiter.acquire();
+				return t.call();
+			}));
+		}
+
+		int ok = 0;
+		int failed = 0;
+		try {
+			for (int i = 0; i < futures.size(); i++) {
+				Map<String, Object> result;
+				try {
+					result = cs.take().get();
+				} catch (ExecutionException e) {
+					result = Map.of("ok", false, "status", "error", "error", String.valueOf(e.getCause()));
+				}
+				if (Boolean.TRUE.equals(result.get("ok"))) ok++; else failed++;
+				writeLine(out, result);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			// client went away: don't start what hasn't started yet
+			futures.forEach(f -> f.cancel(false));
+			throw e;
+		}
+
+		Map<String, Object> done = new LinkedHashMap<>();
+		done.put("done", true);
+		done.put("succeeded", ok);
+		done.put("failed", failed);
+		writeLine(out, done);
+	}
+
+	private static Map<String, Object> item(String name, String okStatus, MutationCall call) {
+		long start = System.nanoTime();
+		Map<String, Object> r = new LinkedHashMap<>();
+		r.put("name", name);
+		try {
+			boolean found = call.run();
+			r.put("ok", found);
+			r.put("status", found ? okStatus : "not found");
+		} catch (Exception e) {
+			r.put("ok", false);
+			r.put("status", "error");
+			r.put("error", e.getMessage());
+		}
+		r.put("millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return r;
+	}
+
+	private void writeLine(OutputStream out, Map<String, Object> line) throws IOException {
+		out.write(mapper.writeValueAsBytes(line));
+		out.write('\n');
+		out.flush();
+	}
+
+	@FunctionalInterface
+	private interface MutationCall {
+		boolean run() throws Exception;
+	}
+
+	/** Spaces call starts evenly, at most permitsPerSecond per second across all bulk requests. */
+	private static final class RateLimiter {
+		private final long intervalNanos;
+		private long next = System.nanoTime();
+
+		RateLimiter(int permitsPerSecond) {
+			this.intervalNanos = permitsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / permitsPerSecond : 0;
+		}
+
+		void acquire() throws InterruptedException {
+			if (intervalNanos == 0) return;
+			long wait;
+			synchronized (this) {
+				long now = System.nanoTime();
+				if (next < now) next = now;
+				wait = next - now;
+				next += intervalNanos;
+			}
+			if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+}
@@ -0,0 +1,379 @@
+package com.example.k8sui.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.k8sui.config.K8sProperties;
+import com.example.k8sui.config.KubernetesClientConfig;
+
+import io.fabric8.kubernetes.api.model.NamedContext;
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Every cluster the dashboard can talk to, selected with ?cluster=&lt;name&gt; on /api/*.
+ *
+ * "default" is the cluster configured by k8s.mode (the KubernetesClient bean); the others come
+ * from k8s.clusters.* and, with k8s.kubeconfigContexts, from every kubeconfig context. A
+ * non-default cluster gets its own client, informer cache, summary tracker, API metrics and
+ * namespace cache, all created on first use and closed again after k8s.clusterIdleMinutes
+ * without a request, unless something long-running still holds it (see {@link #hold}).
+ *
+ * A cluster is connected outside of any map lock: the first caller publishes a future, connects
+ * and completes it, and concurrent callers wait on that future.
+ */
+@Service
+public class ClusterRegistry {
+
+	public static final String DEFAULT_CLUSTER = "default";
+
+	private static final Logger log = LoggerFactory.getLogger(ClusterRegistry.class);
+
+	private final KubernetesClientConfig clientConfig;
+	private final K8sProperties props;
+	private final MeterRegistry meterRegistry;
+	private final K8sService defaultService;
+
+	// known clusters other than "default", in configuration order
+	private final Map<String, Supplier<Config>> configs = new LinkedHashMap<>();
+	private final Map<String, CompletableFuture<Cluster>> live = new ConcurrentHashMap<>();
+	private final List<BiConsumer<String, K8sService>> listeners = new CopyOnWriteArrayList<>();
+	// kubeconfig current context in auto mode: the same cluster as "default"
+	private String defaultAlias;
+
+	private ScheduledExecutorService reaper;
+	private ExecutorService fanOut;
+
+	public ClusterRegistry(KubernetesClientConfig clientConfig, K8sProperties props, MeterRegistry meterRegistry,
+			K8sService defaultService) {
+		this.clientConfig = clientConfig;
+		this.props = props;
+		this.meterRegistry = meterRegistry;
+		this.defaultService = defaultService;
+	}
+
+	@PostConstruct
+	public void start() {
+		props.getClusters().forEach((name, c) -> configs.put(name, () -> clientConfig.configFor(c)));
+		if (props.isKubeconfigContexts()) {
+			try {
+				Config kubeconfig = Config.autoConfigure(null);
+				if (!"manual".equalsIgnoreCase(props.getMode()) && kubeconfig.getCurrentContext() != null) {
+					defaultAlias = kubeconfig.getCurrentContext().getName();
+				}
+				for (NamedContext ctx : kubeconfig.getContexts()) {
+					String name = ctx.getName();
+					if (name.equals(defaultAlias) || DEFAULT_CLUSTER.equals(name)) continue;
+					configs.putIfAbsent(name, () -> clientConfig.configForContext(name));
+				}
+			} catch (Exception e) {
+				log.warn("Could not read kubeconfig contexts: {}", e.getMessage());
+			}
+		}
+
+		reaper = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "cluster-reaper"));
+		reaper.scheduleWithFixedDelay(this::closeIdle, 1, 1, TimeUnit.MINUTES);
+		fanOut = Executors.newCachedThreadPool(r -> daemon(r, "cluster-fanout"));
+		log.info("Clusters: {} plus {}", DEFAULT_CLUSTER, configs.keySet());
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (reaper != null) reaper.shutdownNow();
+		if (fanOut != null) fanOut.shutdownNow();
+		for (String name : new ArrayList<>(live.keySet())) close(name);
+	}
+
+	/** Every cluster name, "default" first. */
+	public List<String> getClusterNames() {
+		List<String> out = new ArrayList<>();
+		out.add(DEFAULT_CLUSTER);
+		out.addAll(configs.keySet());
+		return out;
+	}
+
+	/**
+	 * Service for a cluster (null/blank for "default"), connecting on first use.
+	 * Throws {@link UnknownClusterException} for names that are not configured.
+	 */
+	public K8sService service(String cluster) {
+		if (isDefault(cluster)) return defaultService;
+		return acquire(cluster, false).service;
+	}
+
+	/**
+	 * Like {@link #service}, and the cluster is not closed as idle until the hold is closed. For
+	 * responses that outlive the request that started them: followed or merged logs, bulk
+	 * operations, SSE streams.
+	 */
+	public Hold hold(String cluster) {
+		if (isDefault(cluster)) return new Hold(defaultService, null);
+		Cluster c = acquire(cluster, true);
+		return new Hold(c.service, c);
+	}
+
+	/**
+	 * Called with every cluster's service as it connects, and right away for "default" and
+	 * the clusters already connected (e.g. to add informer event handlers).
+	 */
+	public void addListener(BiConsumer<String, K8sService> listener) {
+		// same lock as the notification in connect(): each listener sees each cluster exactly once
+		synchronized (listeners) {
+			listeners.add(listener);
+			listener.accept(DEFAULT_CLUSTER, defaultService);
+			live.forEach((name, f) -> {
+				Cluster c = f.getNow(null);
+				if (c != null) listener.accept(name, c.service);
+			});
+		}
+	}
+
+	/** Name, connection state and idle time of every cluster. */
+	public List<Map<String, Object>> getStatus() {
+		List<Map<String, Object>> out = new ArrayList<>();
+		long now = System.currentTimeMillis();
+		for (String name : getClusterNames()) {
+			Cluster c = connected(name);
+			Map<String, Object> m = new LinkedHashMap<>();
+			m.put("name", name);
+			m.put("connected", isDefault(name) || c != null);
+			if (c != null) m.put("idleSeconds", (now - c.lastUsedAt) / 1000);
+			out.add(m);
+		}
+		return out;
+	}
+
+	/**
+	 * Summary of every cluster, queried in parallel. Clusters that are not connected are reported
+	 * as {"connected": false} instead of being connected just for this, unless connect is set. A
+	 * cluster that fails or does not answer within k8s.clusterSummaryTimeoutMillis gets an "error"
+	 * entry instead of holding up the rest, and its query is cancelled.
+	 */
+	public Map<String, Object> getSummaries(String namespace, boolean connect) {
+		long timeout = Math.max(1, props.getClusterSummaryTimeoutMillis());
+		Map<String, Future<Object>> futures = new LinkedHashMap<>();
+		Map<String, Object> out = new LinkedHashMap<>();
+		for (String name : getClusterNames()) {
+			if (!connect && !isDefault(name) && connected(name) == null) {
+				out.put(name, Map.of("connected", false));
+				continue;
+			}
+			out.put(name, null);
+			futures.put(name, fanOut.submit(() -> (Object) service(name).getSummary(namespace)));
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		futures.forEach((name, f) -> {
+			try {
+				out.put(name, Map.of("summary", f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)));
+			} catch (TimeoutException e) {
+				f.cancel(true);
+				out.put(name, Map.of("error", "timed out after " + timeout + " ms"));
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause() != null ? e.getCause() : e;
+				out.put(name, Map.of("error", String.valueOf(cause.getMessage())));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				f.cancel(true);
+				out.put(name, Map.of("error", "interrupted"));
+			}
+		});
+		return out;
+	}
+
+	private boolean isDefault(String cluster) {
+		return cluster == null || cluster.isBlank() || DEFAULT_CLUSTER.equals(cluster) || cluster.equals(defaultAlias);
+	}
+
+	// the connected cluster, or null while it is not (or still connecting)
+	private Cluster connected(String name) {
+		CompletableFuture<Cluster> f = live.get(name);
+		return f != null ? f.getNow(null) : null;
+	}
+
+	private Cluster acquire(String cluster, boolean hold) {
+		Supplier<Config> config = configs.get(cluster);
+		if (config == null) throw new UnknownClusterException(cluster);
+		while (true) {
+			Cluster c = connect(cluster, config);
+			synchronized (c) {
+				if (!c.closed) {
+					if (hold) c.holds++;
+					c.lastUsedAt = System.currentTimeMillis();
+					return c;
+				}
+			}
+			// closed as idle in the meantime; connect again
+		}
+	}
+
+	private Cluster connect(String name, Supplier<Config> config) {
+		CompletableFuture<Cluster> f = live.get(name);
+		if (f == null) {
+			CompletableFuture<Cluster> mine = new CompletableFuture<>();
+			f = live.putIfAbsent(name, mine);
+			if (f == null) {
+				Cluster c;
+				try {
+					c = open(name, config.get());
+				} catch (RuntimeException e) {
+					live.remove(name, mine);
+					mine.completeExceptionally(e);
+					throw e;
+				}
+				synchronized (listeners) {
+					mine.complete(c);
+					for (BiConsumer<String, K8sService> l : listeners) l.accept(name, c.service);
+				}
+				return c;
+			}
+		}
+		try {
+			return f.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+	}
+
+	private Cluster open(String name, Config config) {
+		KubernetesClient client = clientConfig.newClient(config);
+		K8sInformerCache cache = null;
+		K8sApiMetrics metrics = null;
+		try {
+			cache = new K8sInformerCache(client, props);
+			cache.start();
+			SummaryTracker tracker = new SummaryTracker(cache);
+			tracker.register();
+			metrics = new K8sApiMetrics(meterRegistry, props, name);
+			NamespaceAccess namespaces = new NamespaceAccess(client, cache, metrics, props);
+			Cluster c = new Cluster(new K8sService(client, cache, tracker, metrics, namespaces), client, cache, metrics);
+			log.info("Connected to cluster {} ({})", name, config.getMasterUrl());
+			return c;
+		} catch (RuntimeException e) {
+			// nobody else has these yet: stop what was started and close the client before failing
+			try {
+				if (cache != null) cache.stop();
+				if (metrics != null) metrics.close();
+			} catch (RuntimeException suppressed) {
+				e.addSuppressed(suppressed);
+			} finally {
+				client.close();
+			}
+			throw e;
+		}
+	}
+
+	private void closeIdle() {
+		long idleMs = TimeUnit.MINUTES.toMillis(Math.max(1, props.getClusterIdleMinutes()));
+		long now = System.currentTimeMillis();
+		live.forEach((name, f) -> {
+			Cluster c = f.getNow(null);
+			if (c == null) return;
+			synchronized (c) {
+				if (c.holds > 0 || now - c.lastUsedAt <= idleMs) return;
+				c.closed = true;
+			}
+			live.remove(name, f);
+			shutdown(name, c);
+		});
+	}
+
+	private void close(String name) {
+		CompletableFuture<Cluster> f = live.remove(name);
+		Cluster c = f != null ? f.getNow(null) : null;
+		if (c == null) return;
+		synchronized (c) {
+			c.closed = true;
+		}
+		shutdown(name, c);
+	}
+
+	private static void shutdown(String name, Cluster c) {
+		try {
+			c.cache.stop();
+			c.metrics.close();
+			c.client.close();
+			log.info("Closed idle cluster {}", name);
+		} catch (Exception e) {
+			log.warn("Error closing cluster {}: {}", name, e.getMessage());
+		}
+	}
+
+	private static Thread daemon(Runnable r, String name) {
+		Thread t = new Thread(r, name);
+		t.setDaemon(true);
+		return t;
+	}
+
+	private static final class Cluster {
+		final K8sService service;
+		final KubernetesClient client;
+		final K8sInformerCache cache;
+		final K8sApiMetrics metrics;
+		volatile long lastUsedAt = System.currentTimeMillis();
+		// guarded by this
+		int holds;
+		boolean closed;
+
+		Cluster(K8sService service, KubernetesClient client, K8sInformerCache cache, K8sApiMetrics metrics) {
+			this.service = service;
+			this.client = client;
+			this.cache = cache;
+			this.metrics = metrics;
+		}
+	}
+
+	/** A cluster kept open for a long-running response; close it when the response ends (idempotent). */
+	public static final class Hold implements AutoCloseable {
+		private final K8sService service;
+		private final Cluster cluster;
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		Hold(K8sService service, Cluster cluster) {
+			this.service = service;
+			this.cluster = cluster;
+		}
+
+		public K8sService service() {
+			return service;
+		}
+
+		@Override
+		public void close() {
+			if (cluster == null || !released.compareAndSet(false, true)) return;
+			synchronized (cluster) {
+				cluster.holds--;
+				cluster.lastUsedAt = System.currentTimeMillis();
+			}
+		}
+	}
+
+	/** The ?cluster= name is not configured. */
+	public static class UnknownClusterException extends RuntimeException {
+		public UnknownClusterException(String cluster) {
+			super("Unknown cluster: " + cluster);
+		}
+	}
+}
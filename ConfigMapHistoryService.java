@@ -0,0 +1,370 @@
+package com.example.k8sui.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.k8sui.config.K8sProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Revision history of ConfigMaps edited from the dashboard.
+ *
+ * Each save records the content it replaced as a revision. All revisions of a ConfigMap live in
+ * one companion ConfigMap, "&lt;name&gt;.k8s-ui-history", labelled k8s-ui/history=true, with one key
+ * per revision (r-000001, r-000002, ...). A revision stores only the keys that changed since the
+ * one before it; every k8s.configMapHistorySnapshotEvery revisions, or when that would be
+ * smaller, it stores the full data instead, so reading any revision replays at most that many
+ * diffs. Revisions beyond k8s.configMapHistoryMaxRevisions, older than
+ * k8s.configMapHistoryMaxAgeDays, or past the ConfigMap size budget are pruned oldest first,
+ * and the oldest revision kept is always rewritten as a full snapshot. The history is owned by
+ * its ConfigMap (ownerReference), so deleting the ConfigMap garbage-collects it.
+ *
+ * Recording happens on a background thread from the object the save already read, so a save
+ * costs no extra API call. Writes use the history's resourceVersion and retry on conflict. If
+ * recording fails, the reason is returned with the history ({@link #lastError}) until the next
+ * revision is recorded.
+ */
+@Service
+public class ConfigMapHistoryService {
+
+	public static final String HISTORY_SUFFIX = ".k8s-ui-history";
+	public static final String HISTORY_LABEL = "k8s-ui/history";
+	public static final String HISTORY_OF_ANNOTATION = "k8s-ui/history-of";
+
+	private static final Logger log = LoggerFactory.getLogger(ConfigMapHistoryService.class);
+	private static final String KEY_PREFIX = "r-";
+	// ConfigMaps are capped at 1 MiB; leave room for metadata
+	private static final int MAX_HISTORY_BYTES = 900 * 1024;
+	private static final int MAX_WRITE_ATTEMPTS = 3;
+
+	private final K8sProperties props;
+	private final ObjectMapper mapper;
+	private final Map<ErrorKey, String> errors = new ConcurrentHashMap<>();
+	// one writer keeps read-modify-write of a history object in order within this JVM
+	private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "configmap-history");
+		t.setDaemon(true);
+		return t;
+	});
+
+	public ConfigMapHistoryService(K8sProperties props, ObjectMapper mapper) {
+		this.props = props;
+		this.mapper = mapper;
+	}
+
+	@PreDestroy
+	public void stop() {
+		writer.shutdown();
+	}
+
+	/** Queue the content a save just replaced as a new revision. */
+	public void record(K8sService k8s, ConfigMap previous) {
+		if (previous == null || previous.getMetadata() == null) return;
+		String ns = previous.getMetadata().getNamespace();
+		String name = previous.getMetadata().getName();
+		String rv = previous.getMetadata().getResourceVersion();
+		String uid = previous.getMetadata().getUid();
+		Map<String, String> data = previous.getData() != null ? new HashMap<>(previous.getData()) : Map.of();
+		ErrorKey key = new ErrorKey(k8s, ns, name);
+		writer.execute(() -> {
+			try {
+				append(k8s, ns, name, uid, data, rv);
+				errors.remove(key);
+			} catch (Exception e) {
+				// kept printable: it is returned in a response header
+				errors.put(key, (Instant.now() + ": " + e.getMessage()).replaceAll("[^\\x20-\\x7E]", "?"));
+				log.error("Could not record history of ConfigMap {}/{}: {}", ns, name, e.getMessage());
+			}
+		});
+	}
+
+	/** Why the last revision of a ConfigMap could not be recorded, or null if it was. */
+	public String lastError(K8sService k8s, String namespace, String name) {
+		return errors.get(new ErrorKey(k8s, namespace, name));
+	}
+
+	/** Revisions, oldest first: revision, savedAt, resourceVersion and how many keys it changed. */
+	public List<Map<String, Object>> list(K8sService k8s, String namespace, String name) {
+		List<Revision> revs = read(k8s.findConfigMap(namespace, historyName(name)));
+		List<Map<String, Object>> out = new ArrayList<>();
+		Map<String, String> prev = null;
+		Map<String, String> cur = null;
+		for (Revision r : revs) {
+			cur = apply(cur, r);
+			Map<String, Object> m = new LinkedHashMap<>();
+			m.put("revision", r.rev());
+			m.put("savedAt", r.savedAt());
+			m.put("resourceVersion", r.resourceVersion());
+			m.put("keys", cur.size());
+			m.put("changedKeys", prev == null ? cur.size() : countChanges(prev, cur));
+			out.add(m);
+			prev = cur;
+		}
+		return out;
+	}
+
+	/** Data of one revision, or null if it does not exist (or was pruned). */
+	public Map<String, String> revision(K8sService k8s, String namespace, String name, int revision) {
+		return materialize(read(k8s.findConfigMap(namespace, historyName(name))), revision);
+	}
+
+	/**
+	 * Difference from one revision to another; to=null compares with the live ConfigMap.
+	 * Returns added {key: value}, removed {key: old value} and changed {key: {from, to}}, or null
+	 * if a revision or the ConfigMap does not exist.
+	 */
+	public Map<String, Object> diff(K8sService k8s, String namespace, String name, int from, Integer to) {
+		List<Revision> revs = read(k8s.findConfigMap(namespace, historyName(name)));
+		Map<String, String> a = materialize(revs, from);
+		Map<String, String> b;
+		if (to == null) {
+			ConfigMap live = k8s.findConfigMap(namespace, name);
+			b = live == null ? null : (live.getData() != null ? live.getData() : Map.of());
+		} else {
+			b = materialize(revs, to);
+		}
+		if (a == null || b == null) return null;
+		return diff(a, b);
+	}
+
+	/**
+	 * Put a revision's data back into the ConfigMap. The content it replaces becomes a revision
+	 * of its own, so a restore can be undone. Returns false if the revision does not exist.
+	 */
+	public boolean restore(K8sService k8s, String namespace, String name, int revision) {
+		Map<String, String> data = revision(k8s, namespace, name, revision);
+		if (data == null) return false;
+		return k8s.replaceConfigMapFull(namespace, name, data, null, prev -> record(k8s, prev));
+	}
+
+	public static String historyName(String name) {
+		return name + HISTORY_SUFFIX;
+	}
+
+	private void append(K8sService k8s, String ns, String name, String uid, Map<String, String> data, String rv)
+			throws JsonProcessingException {
+		for (int attempt = 1; ; attempt++) {
+			ConfigMap hist = k8s.findConfigMap(ns, historyName(name));
+			List<Revision> revs = read(hist);
+			Map<String, String> last = revs.isEmpty() ? null : materialize(revs, revs.get(revs.size() - 1).rev());
+			if (data.equals(last)) return;
+
+			int next = revs.isEmpty() ? 1 : revs.get(revs.size() - 1).rev() + 1;
+			revs.add(revision(next, data, rv, last, sinceSnapshot(revs)));
+			Map<String, String> encoded = prune(revs);
+
+			try {
+				if (hist == null) {
+					k8s.createConfigMap(ns, newHistory(ns, name, uid, encoded));
+				} else {
+					hist.setData(encoded);
+					setOwner(hist.getMetadata(), name, uid);
+					k8s.updateConfigMap(ns, hist);
+				}
+				return;
+			} catch (KubernetesClientException e) {
+				// 409: written by someone else since we read it; 404: deleted meanwhile
+				if ((e.getCode() != 409 && e.getCode() != 404) || attempt >= MAX_WRITE_ATTEMPTS) throw e;
+			}
+		}
+	}
+
+	private Revision revision(int rev, Map<String, String> data, String rv, Map<String, String> last, int sinceSnapshot) {
+		String savedAt = Instant.now().toString();
+		if (last == null || sinceSnapshot + 1 >= Math.max(1, props.getConfigMapHistorySnapshotEvery())) {
+			return Revision.full(rev, savedAt, rv, data);
+		}
+		Map<String, String> set = new TreeMap<>();
+		List<String> removed = new ArrayList<>();
+		data.forEach((k, v) -> { if (!v.equals(last.get(k))) set.put(k, v); });
+		last.keySet().forEach(k -> { if (!data.containsKey(k)) removed.add(k); });
+		int diffSize = size(set) + removed.stream().mapToInt(ConfigMapHistoryService::utf8Length).sum();
+		if (diffSize >= size(data)) return Revision.full(rev, savedAt, rv, data);
+		return new Revision(rev, savedAt, rv, null, set, removed.isEmpty() ? null : removed);
+	}
+
+	// drop the oldest revisions past the retention limits, then encode as ConfigMap data
+	Map<String, String> prune(List<Revision> revs) throws JsonProcessingException {
+		int max = Math.max(1, props.getConfigMapHistoryMaxRevisions());
+		Instant cutoff = props.getConfigMapHistoryMaxAgeDays() > 0
+				? Instant.now().minus(Duration.ofDays(props.getConfigMapHistoryMaxAgeDays()))
+				: null;
+		int drop = Math.max(0, revs.size() - max);
+		while (drop < revs.size() - 1 && cutoff != null && Instant.parse(revs.get(drop).savedAt()).isBefore(cutoff)) {
+			drop++;
+		}
+		rebase(revs, drop);
+
+		Map<String, String> encoded = encode(revs);
+		while (revs.size() > 1 && size(encoded) > MAX_HISTORY_BYTES) {
+			rebase(revs, 1);
+			encoded = encode(revs);
+		}
+		if (size(encoded) > MAX_HISTORY_BYTES) {
+			throw new IllegalStateException("revision is too large for the history (" + size(encoded) + " bytes, at most " + MAX_HISTORY_BYTES + ")");
+		}
+		return encoded;
+	}
+
+	// remove the first n revisions, turning the new first one into a full snapshot
+	private static void rebase(List<Revision> revs, int n) {
+		if (n <= 0) return;
+		Map<String, String> base = materialize(revs, revs.get(n).rev());
+		Revision first = revs.get(n);
+		revs.subList(0, n + 1).clear();
+		revs.add(0, Revision.full(first.rev(), first.savedAt(), first.resourceVersion(), base));
+	}
+
+	private Map<String, String> encode(List<Revision> revs) throws JsonProcessingException {
+		Map<String, String> out = new TreeMap<>();
+		for (Revision r : revs) out.put(String.format("%s%06d", KEY_PREFIX, r.rev()), mapper.writeValueAsString(r));
+		return out;
+	}
+
+	private List<Revision> read(ConfigMap hist) {
+		List<Revision> out = new ArrayList<>();
+		if (hist == null || hist.getData() == null) return out;
+		for (Map.Entry<String, String> e : new TreeMap<>(hist.getData()).entrySet()) {
+			if (!e.getKey().startsWith(KEY_PREFIX)) continue;
+			try {
+				out.add(mapper.readValue(e.getValue(), Revision.class));
+			} catch (JsonProcessingException ex) {
+				log.warn("Skipping unreadable history entry {} of {}: {}", e.getKey(), hist.getMetadata().getName(), ex.getMessage());
+			}
+		}
+		return out;
+	}
+
+	// data of a revision: replay diffs from the nearest full snapshot at or before it
+	private static Map<String, String> materialize(List<Revision> revs, int rev) {
+		int idx = -1;
+		for (int i = 0; i < revs.size(); i++) {
+			if (revs.get(i).rev() == rev) { idx = i; break; }
+		}
+		if (idx < 0) return null;
+		int start = idx;
+		while (start > 0 && revs.get(start).full() == null) start--;
+		Map<String, String> data = null;
+		for (int i = start; i <= idx; i++) data = apply(data, revs.get(i));
+		return data;
+	}
+
+	private static Map<String, String> apply(Map<String, String> data, Revision r) {
+		if (r.full() != null) return new TreeMap<>(r.full());
+		Map<String, String> out = data != null ? new TreeMap<>(data) : new TreeMap<>();
+		if (r.set() != null) out.putAll(r.set());
+		if (r.removed() != null) r.removed().forEach(out::remove);
+		return out;
+	}
+
+	private static int sinceSnapshot(List<Revision> revs) {
+		int n = 0;
+		for (int i = revs.size() - 1; i >= 0 && revs.get(i).full() == null; i--) n++;
+		return n;
+	}
+
+	private static Map<String, Object> diff(Map<String, String> a, Map<String, String> b) {
+		Map<String, String> added = new TreeMap<>();
+		Map<String, String> removed = new TreeMap<>();
+		Map<String, Map<String, String>> changed = new TreeMap<>();
+		b.forEach((k, v) -> {
+			String old = a.get(k);
+			if (old == null) added.put(k, v);
+			else if (!old.equals(v)) changed.put(k, Map.of("from", old, "to", v));
+		});
+		a.forEach((k, v) -> { if (!b.containsKey(k)) removed.put(k, v); });
+		Map<String, Object> out = new LinkedHashMap<>();
+		out.put("added", added);
+		out.put("removed", removed);
+		out.put("changed", changed);
+		return out;
+	}
+
+	private static int countChanges(Map<String, String> a, Map<String, String> b) {
+		int n = 0;
+		for (Map.Entry<String, String> e : b.entrySet()) {
+			if (!e.getValue().equals(a.get(e.getKey()))) n++;
+		}
+		for (String k : a.keySet()) {
+			if (!b.containsKey(k)) n++;
+		}
+		return n;
+	}
+
+	// stored size: UTF-8 bytes of keys and values, which is what the 1 MiB object limit counts
+	static int size(Map<String, String> data) {
+		int n = 0;
+		for (Map.Entry<String, String> e : data.entrySet()) n += utf8Length(e.getKey()) + utf8Length(e.getValue());
+		return n;
+	}
+
+	static int utf8Length(String s) {
+		int n = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c < 0x80) n += 1;
+			else if (c < 0x800) n += 2;
+			else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) { n += 4; i++; }
+			else n += 3;
+		}
+		return n;
+	}
+
+	private static ConfigMap newHistory(String ns, String name, String uid, Map<String, String> data) {
+		ObjectMeta meta = new ObjectMeta();
+		meta.setName(historyName(name));
+		meta.setNamespace(ns);
+		meta.setLabels(Map.of(HISTORY_LABEL, "true", "app.kubernetes.io/managed-by", "k8s-ui-dashboard"));
+		meta.setAnnotations(Map.of(HISTORY_OF_ANNOTATION, name));
+		setOwner(meta, name, uid);
+		ConfigMap cm = new ConfigMap();
+		cm.setMetadata(meta);
+		cm.setData(data);
+		return cm;
+	}
+
+	// owned by the ConfigMap it records (replacing the reference to an earlier ConfigMap of that name)
+	private static void setOwner(ObjectMeta meta, String name, String uid) {
+		if (uid == null) return;
+		List<OwnerReference> refs = new ArrayList<>();
+		if (meta.getOwnerReferences() != null) {
+			for (OwnerReference r : meta.getOwnerReferences()) {
+				if (!("ConfigMap".equals(r.getKind()) && name.equals(r.getName()))) refs.add(r);
+			}
+		}
+		refs.add(new OwnerReferenceBuilder().withApiVersion("v1").withKind("ConfigMap").withName(name).withUid(uid).build());
+		meta.setOwnerReferences(refs);
+	}
+
+	private record ErrorKey(K8sService k8s, String namespace, String name) {}
+
+	/** One stored revision: full data, or the keys set and removed since the previous revision. */
+	record Revision(int rev, String savedAt, String resourceVersion,
+			Map<String, String> full, Map<String, String> set, List<String> removed) {
+
+		static Revision full(int rev, String savedAt, String resourceVersion, Map<String, String> data) {
+			return new Revision(rev, savedAt, resourceVersion, new TreeMap<>(data), null, null);
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.example.k8sui.model;
+
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+
+/** One row of /api/deployments (replica modal). */
+public record DeploymentSummary(String name, Integer replicas, Integer availableReplicas, Map<String, String> labels) {
+
+    public static DeploymentSummary from(Deployment dep) {
+        return new DeploymentSummary(
+                dep.getMetadata().getName(),
+                dep.getSpec() != null ? dep.getSpec().getReplicas() : null,
+                dep.getStatus() != null ? dep.getStatus().getAvailableReplicas() : null,
+                dep.getMetadata().getLabels());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.srvalidator.service;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import java.util.*;
+
+/**
+ * Passes a StAX reader through unchanged while keeping the path of the element being read,
+ * e.g. /Document/FIToFICstmrCdtTrf/CdtTrfTxInf[2]/Amt (local names; [n] for repeated siblings).
+ * The validator pulls events through it, so when it reports an error, {@link #path()} is the
+ * element it was looking at. An element stays on the path while its end tag is processed,
+ * so "content incomplete" errors point at the element itself.
+ */
+final class ElementPathReader extends StreamReaderDelegate {
+
+  private final Deque<String> names = new ArrayDeque<>();
+  // per open element: how many children of each name have started so far
+  private final Deque<Map<String,Integer>> siblings = new ArrayDeque<>();
+  private boolean popPending;
+
+  ElementPathReader(XMLStreamReader reader) {
+    super(reader);
+    siblings.push(new HashMap<>());
+    // already positioned on the root (e.g. after peeking at it)
+    if (reader.getEventType() == START_ELEMENT) track(START_ELEMENT);
+  }
+
+  @Override
+  public int next() throws XMLStreamException {
+    int event = super.next();
+    track(event);
+    return event;
+  }
+
+  @Override
+  public int nextTag() throws XMLStreamException {
+    int event = super.nextTag();
+    track(event);
+    return event;
+  }
+
+  /** Path of the current element, "/" before the root. */
+  String path() {
+    if (names.isEmpty()) return "/";
+    StringBuilder sb = new StringBuilder();
+    Iterator<String> it = names.descendingIterator();
+    while (it.hasNext()) sb.append('/').append(it.next());
+    return sb.toString();
+  }
+
+  private void track(int event) {
+    if (popPending) {
+      names.pop();
+      siblings.pop();
+      popPending = false;
+    }
+    if (event == START_ELEMENT) {
+      String name = getLocalName();
+      int n = siblings.peek().merge(name, 1, Integer::sum);
+      names.push(n > 1 ? name + "[" + n + "]" : name);
+      siblings.push(new HashMap<>());
+    } else if (event == END_ELEMENT) {
+      popPending = true;
+    }
+  }
+}
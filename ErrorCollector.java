@@ -0,0 +1,80 @@
+package com.example.srvalidator.service;
+
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import java.util.*;
+
+/**
+ * Validation ErrorHandler that keeps going after an error, recording up to a cap of them with
+ * line, column and element path. Reaching the cap throws {@link CapReached} to stop the pass,
+ * so a badly broken document is not scanned to the end; the validator may hand that exception
+ * back wrapped in others, so whether it happened is also kept ({@link #capReached()}). Warnings
+ * are ignored.
+ */
+final class ErrorCollector implements ErrorHandler {
+
+  private final int cap;
+  private final ElementPathReader path;
+  private final List<Map<String,Object>> errors = new ArrayList<>();
+  private boolean capReached;
+
+  ErrorCollector(int cap, ElementPathReader path) {
+    this.cap = cap;
+    this.path = path;
+  }
+
+  @Override
+  public void warning(SAXParseException e) {
+  }
+
+  @Override
+  public void error(SAXParseException e) throws SAXException {
+    add("error", e);
+  }
+
+  @Override
+  public void fatalError(SAXParseException e) throws SAXException {
+    // not well-formed: the parser stops after this anyway
+    add("fatal", e);
+  }
+
+  /** Record a failure that did not come through the handler (e.g. a StAX read error). */
+  void addUnreported(String message, int line, int column) {
+    if (errors.size() < cap) errors.add(entry("fatal", message, line, column));
+  }
+
+  List<Map<String,Object>> errors() {
+    return errors;
+  }
+
+  /** Whether the pass was stopped at the cap (the document may have more errors). */
+  boolean capReached() {
+    return capReached;
+  }
+
+  private void add(String severity, SAXParseException e) throws CapReached {
+    errors.add(entry(severity, e.getMessage(), e.getLineNumber(), e.getColumnNumber()));
+    if (errors.size() >= cap) {
+      capReached = true;
+      throw new CapReached(e);
+    }
+  }
+
+  private Map<String,Object> entry(String severity, String message, int line, int column) {
+    Map<String,Object> m = new LinkedHashMap<>();
+    m.put("severity", severity);
+    m.put("line", line);
+    m.put("column", column);
+    m.put("xpath", path.path());
+    m.put("message", message);
+    return m;
+  }
+
+  /** Thrown once the cap is reached; the errors are already recorded. */
+  static final class CapReached extends SAXException {
+    CapReached(SAXParseException last) {
+      super("error limit reached", last);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.k8sui.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The one ObjectMapper of the application (Spring's), used by MVC and injected wherever JSON is
+ * written by hand. Nulls are left out, as Kubernetes itself does, and Blackbird replaces
+ * reflective getter calls with generated lambdas.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer dashboardJackson() {
+        return builder -> builder
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .featuresToDisable(SerializationFeature.FAIL_ON_EMPTY_BEANS,
+                        DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    // Module beans are registered by Spring Boot on top of its own
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.k8sui.service;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * RFC 7386 JSON merge patches computed from two versions of an object, so an edit sends the
+ * fields that changed instead of the whole object.
+ *
+ * Objects are compared key by key; a key missing from the new version becomes null (delete).
+ * Arrays and scalars that differ are sent whole, as merge patch has no way to address an element.
+ */
+public final class JsonMergePatch {
+
+	// set by the apiserver; an editor round-trips them, but they are never part of a change
+	private static final String[] SERVER_METADATA = {
+			"resourceVersion", "managedFields", "generation", "uid", "creationTimestamp", "selfLink" };
+
+	private JsonMergePatch() {
+	}
+
+	/** Patch turning from into to; empty when they are equal. */
+	public static ObjectNode diff(JsonNode from, JsonNode to) {
+		ObjectNode patch = JsonNodeFactory.instance.objectNode();
+		Iterator<Map.Entry<String, JsonNode>> fields = to.fields();
+		while (fields.hasNext()) {
+			Map.Entry<String, JsonNode> f = fields.next();
+			JsonNode old = from.get(f.getKey());
+			JsonNode now = f.getValue();
+			if (now.isNull()) {
+				if (old != null && !old.isNull()) patch.putNull(f.getKey());
+			} else if (old != null && old.isObject() && now.isObject()) {
+				ObjectNode sub = diff(old, now);
+				if (!sub.isEmpty()) patch.set(f.getKey(), sub);
+			} else if (!now.equals(old)) {
+				patch.set(f.getKey(), now);
+			}
+		}
+		Iterator<String> names = from.fieldNames();
+		while (names.hasNext()) {
+			String name = names.next();
+			if (!to.has(name) && !from.get(name).isNull()) patch.putNull(name);
+		}
+		return patch;
+	}
+
+	/**
+	 * Copy of a Kubernetes object without status and the server-managed metadata fields, for
+	 * diffing what a user edited.
+	 */
+	public static ObjectNode withoutServerFields(JsonNode object) {
+		ObjectNode copy = object.deepCopy();
+		copy.remove("status");
+		JsonNode meta = copy.get("metadata");
+		if (meta != null && meta.isObject()) {
+			for (String f : SERVER_METADATA) ((ObjectNode) meta).remove(f);
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,186 @@
+package com.example.k8sui.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.k8sui.config.K8sProperties;
+
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Metrics for every Kubernetes API call made by the dashboard, exposed on /actuator/prometheus:
+ * <ul>
+ * <li>k8s.api.requests - latency histogram per operation and outcome (success / error)</li>
+ * <li>k8s.api.errors - failed calls per operation and HTTP status (or exception type)</li>
+ * <li>k8s.api.objects - objects returned per call, per operation</li>
+ * <li>k8s.api.inflight / k8s.api.queued - calls running now / waiting for a slot</li>
+ * </ul>
+ * Operations are named resource.verb, e.g. pods.list, configmaps.get, deployments.scale.
+ * Every meter is tagged with the cluster; each cluster has its own instance (see ClusterRegistry).
+ *
+ * At most k8s.maxConcurrentRequestsPerHost calls run at once; the rest wait here in arrival order,
+ * so the queue is visible instead of hidden inside the transport's connection pool.
+ */
+@Component
+public class K8sApiMetrics {
+
+	private final MeterRegistry registry;
+	private final String cluster;
+	private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+	private final int limit;
+	private final Semaphore slots;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final Gauge inFlightGauge;
+	private final Gauge queuedGauge;
+
+	@Autowired
+	public K8sApiMetrics(MeterRegistry registry, K8sProperties props) {
+		this(registry, props, ClusterRegistry.DEFAULT_CLUSTER);
+	}
+
+	public K8sApiMetrics(MeterRegistry registry, K8sProperties props, String cluster) {
+		this.registry = registry;
+		this.cluster = cluster;
+		this.limit = props.getMaxConcurrentRequestsPerHost();
+		this.slots = limit > 0 ? new Semaphore(limit, true) : null;
+		this.inFlightGauge = Gauge.builder("k8s.api.inflight", inFlight, AtomicInteger::get)
+				.description("Kubernetes API calls in progress")
+				.tag("cluster", cluster)
+				.register(registry);
+		this.queuedGauge = Gauge.builder("k8s.api.queued", queued, AtomicInteger::get)
+				.description("Kubernetes API calls waiting for a connection slot")
+				.tag("cluster", cluster)
+				.register(registry);
+	}
+
+	/** Run an API call, timing it and counting the objects it returned. Exceptions are counted and rethrown. */
+	public <T> T record(String operation, Supplier<T> call) {
+		Meters m = meters.computeIfAbsent(operation, this::register);
+		acquire();
+		long start = System.nanoTime();
+		try {
+			T result = call.get();
+			m.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			m.objects.record(countOf(result));
+			return result;
+		} catch (RuntimeException e) {
+			m.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			Counter.builder("k8s.api.errors")
+					.tag("cluster", cluster)
+					.tag("operation", operation)
+					.tag("code", codeOf(e))
+					.register(registry)
+					.increment();
+			throw e;
+		} finally {
+			release();
+		}
+	}
+
+	/** Same as {@link #record(String, Supplier)} for calls without a useful result. */
+	public void run(String operation, Runnable call) {
+		record(operation, () -> {
+			call.run();
+			return null;
+		});
+	}
+
+	/** In-flight and queued call counts for /api/client/status. */
+	public Map<String, Object> getStatus() {
+		Map<String, Object> out = new LinkedHashMap<>();
+		out.put("inFlight", inFlight.get());
+		out.put("queued", queued.get());
+		out.put("maxConcurrentRequestsPerHost", limit);
+		return out;
+	}
+
+	/** Unregister the gauges of a cluster whose client was closed; a later instance registers its own. */
+	public void close() {
+		registry.remove(inFlightGauge);
+		registry.remove(queuedGauge);
+	}
+
+	private void acquire() {
+		if (slots != null) {
+			queued.incrementAndGet();
+			try {
+				slots.acquireUninterruptibly();
+			} finally {
+				queued.decrementAndGet();
+			}
+		}
+		inFlight.incrementAndGet();
+	}
+
+	private void release() {
+		inFlight.decrementAndGet();
+		if (slots != null) slots.release();
+	}
+
+	private Meters register(String operation) {
+		return new Meters(
+				timer(operation, "success"),
+				timer(operation, "error"),
+				DistributionSummary.builder("k8s.api.objects")
+						.description("Objects returned by a Kubernetes API call")
+						.tag("cluster", cluster)
+						.tag("operation", operation)
+						.register(registry));
+	}
+
+	private Timer timer(String operation, String outcome) {
+		return Timer.builder("k8s.api.requests")
+				.description("Kubernetes API call latency")
+				.tag("cluster", cluster)
+				.tag("operation", operation)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(registry);
+	}
+
+	private static int countOf(Object result) {
+		if (result == null) return 0;
+		if (result instanceof Collection<?>) return ((Collection<?>) result).size();
+		if (result instanceof KubernetesResourceList<?>) {
+			var items = ((KubernetesResourceList<?>) result).getItems();
+			return items != null ? items.size() : 0;
+		}
+		if (result instanceof Boolean) return ((Boolean) result) ? 1 : 0;
+		return 1;
+	}
+
+	private static String codeOf(RuntimeException e) {
+		if (e instanceof KubernetesClientException && ((KubernetesClientException) e).getCode() > 0) {
+			return String.valueOf(((KubernetesClientException) e).getCode());
+		}
+		return e.getClass().getSimpleName();
+	}
+
+	private static final class Meters {
+		final Timer success;
+		final Timer error;
+		final DistributionSummary objects;
+
+		Meters(Timer success, Timer error, DistributionSummary objects) {
+			this.success = success;
+			this.error = error;
+			this.objects = objects;
+		}
+	}
+}
@@ -3,10 +3,14 @@ package com.example.k8sui.controller;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.ui.Model;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -14,147 +18,370 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.k8sui.model.PodPage;
+import com.example.k8sui.model.PodView;
+import com.example.k8sui.model.ServiceView;
 import com.example.k8sui.model.Summary;
+import com.example.k8sui.service.BulkOperationService;
+import com.example.k8sui.service.ClusterRegistry;
+import com.example.k8sui.service.ConfigMapHistoryService;
+import com.example.k8sui.service.JsonMergePatch;
+import com.example.k8sui.service.K8sInformerCache;
 import com.example.k8sui.service.K8sService;
+import com.example.k8sui.service.LogFanInService;
+import com.example.k8sui.service.LogFollowService;
+import com.example.k8sui.service.StreamService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
+import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
-import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.Loggable;
 import jakarta.servlet.http.HttpServletRequest;
 
-import io.fabric8.kubernetes.client.dsl.LogWatch;
-
-import org.springframework.http.ResponseEntity;
-import io.fabric8.kubernetes.client.dsl.LogWatch;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
-
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * REST Controller for Kubernetes dashboard operations.
  *
  * Provides endpoints for pods, configmaps, deployments, and summary data.
- * Uses K8sService (Fabric8 client) for all backend operations.
+ * Uses K8sService (Fabric8 client) for all backend operations. Every endpoint takes an optional
+ * ?cluster=&lt;name&gt; (see ClusterRegistry); without it the "default" cluster is used.
  */
 @RestController
 @RequestMapping("/api")
 public class K8sController {
 
-	private final K8sService k8sService;
-    private final ObjectMapper mapper = new ObjectMapper();
+	private final ClusterRegistry clusters;
+	private final StreamService streamService;
+	private final LogFanInService logFanInService;
+	private final LogFollowService logFollowService;
+	private final BulkOperationService bulkOperationService;
+	private final ConfigMapHistoryService configMapHistory;
+    private final ObjectMapper mapper;
 
-    public K8sController(K8sService k8sService) {
-        this.k8sService = k8sService;
+    public K8sController(ClusterRegistry clusters, StreamService streamService, LogFanInService logFanInService,
+                         LogFollowService logFollowService, BulkOperationService bulkOperationService,
+                         ConfigMapHistoryService configMapHistory, ObjectMapper mapper) {
+        this.clusters = clusters;
+        this.mapper = mapper;
+        this.streamService = streamService;
+        this.logFanInService = logFanInService;
+        this.logFollowService = logFollowService;
+        this.bulkOperationService = bulkOperationService;
+        this.configMapHistory = configMapHistory;
     }
 
     @GetMapping("/summary")
-    public ResponseEntity<?> getSummary(@RequestParam(required = false, defaultValue = "default") String namespace) {
-        Summary s = k8sService.getSummary(namespace);
-        return ResponseEntity.ok(s);
+    public ResponseEntity<?> getSummary(@RequestParam(required = false, defaultValue = "default") String namespace,
+                                        @RequestParam(required = false) String cluster, HttpServletRequest req) {
+        K8sService k8sService = clusters.service(cluster);
+        // tiny and O(1) with the summary tracker, so a content hash is the simplest exact ETag
+        return hashed(req, k8sService.getSummary(namespace));
     }
 
     @GetMapping("/namespaces")
-    public ResponseEntity<?> listNamespaces() {
-        return ResponseEntity.ok(k8sService.listNamespaces());
+    public ResponseEntity<?> listNamespaces(@RequestParam(required = false) String cluster, HttpServletRequest req) {
+        // served from NamespaceAccess's cache and possibly filtered by access reviews, so the
+        // ETag is a content hash rather than the informer generation
+        return hashed(req, clusters.service(cluster).listNamespaces());
     }
 
+    // Slim pods (PodView), written one at a time to the response
     @GetMapping("/pods")
-    public ResponseEntity<?> listPods(@RequestParam(required = false, defaultValue = "default") String namespace) {
-        
-    	
-    	return ResponseEntity.ok(k8sService.listPods(namespace));
+    public ResponseEntity<StreamingResponseBody> listPods(@RequestParam(required = false, defaultValue = "default") String namespace,
+                                      @RequestParam(required = false) String cluster, HttpServletRequest req) {
+        K8sService k8sService = clusters.service(cluster);
+        return cachedList(req, k8sService, namespace, () -> k8sService.listPods(namespace), PodView::from, PodView.class);
     }
 
-
+    // Lean, paginated pod list: PodInfo rows plus a continue token for the next page
+    @GetMapping("/pods/page")
+    public ResponseEntity<?> listPodPage(@RequestParam(required = false, defaultValue = "default") String namespace,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(name = "continue", required = false) String continueToken,
+                                         @RequestParam(required = false) String labelSelector,
+                                         @RequestParam(required = false) String phase,
+                                         @RequestParam(required = false) String sort,
+                                         @RequestParam(required = false) String cluster,
+                                         HttpServletRequest req) {
+        K8sService k8sService = clusters.service(cluster);
+        try {
+            // PodInfo ages move with the clock, not with the cache generation, so the ETag is a content hash
+            PodPage page = k8sService.listPodPage(namespace, limit, continueToken, labelSelector, phase, sort);
+            return hashed(req, page, cacheHeaders(k8sService.getCache()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 
     @GetMapping("/services/zero")
-    public ResponseEntity<?> listServicesZero(@RequestParam(required = false, defaultValue = "default") String namespace) {
-        return ResponseEntity.ok(k8sService.listServicesWithZeroPods(namespace));
+    public ResponseEntity<?> listServicesZero(@RequestParam(required = false, defaultValue = "default") String namespace,
+                                              @RequestParam(required = false) String cluster, HttpServletRequest req) {
+        K8sService k8sService = clusters.service(cluster);
+        return cached(req, k8sService, namespace, () -> k8sService.listServicesWithZeroPods(namespace));
     }
     
     @GetMapping("/services")
-    public ResponseEntity<?> listServices(
-        @RequestParam(required = false, defaultValue = "default") String namespace) {
-        return ResponseEntity.ok(k8sService.listServices(namespace));
+    public ResponseEntity<StreamingResponseBody> listServices(
+        @RequestParam(required = false, defaultValue = "default") String namespace,
+        @RequestParam(required = false) String cluster, HttpServletRequest req) {
+        K8sService k8sService = clusters.service(cluster);
+        return cachedList(req, k8sService, namespace, () -> k8sService.listServices(namespace), ServiceView::from, ServiceView.class);
+    }
+
+    // Push channel for pods.html: "summary" events when counts change, "pods" events with coalesced pod changes
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false, defaultValue = "default") String namespace,
+                             @RequestParam(required = false) String cluster) {
+        return streamService.subscribe(cluster, namespace);
+    }
+
+    // Informer cache sync state (k8s.cacheEnabled) and the namespace list cache
+    @GetMapping("/cache/status")
+    public ResponseEntity<?> cacheStatus(@RequestParam(required = false) String cluster) {
+        K8sService k8sService = clusters.service(cluster);
+        Map<String, Object> status = new java.util.LinkedHashMap<>(k8sService.getCache().getStatus());
+        status.put("namespaceList", k8sService.getNamespaceAccess().getStatus());
+        return ResponseEntity.ok(status);
+    }
+
+    // Forget cached namespace names and access reviews (e.g. after an RBAC change)
+    @PostMapping("/namespaces/refresh")
+    public ResponseEntity<?> refreshNamespaces(@RequestParam(required = false) String cluster) {
+        K8sService k8sService = clusters.service(cluster);
+        k8sService.getNamespaceAccess().invalidate();
+        return ResponseEntity.ok(k8sService.listNamespaces());
+    }
+
+    @GetMapping("/client/status")
+    public ResponseEntity<?> clientStatus(@RequestParam(required = false) String cluster) {
+        return ResponseEntity.ok(clusters.service(cluster).getApiMetrics().getStatus());
+    }
+
+    // Configured clusters and whether each is connected
+    @GetMapping("/clusters")
+    public ResponseEntity<?> listClusters() {
+        return ResponseEntity.ok(clusters.getStatus());
+    }
+
+    // Summary of every cluster at once, each with its own timeout; connect=true also connects idle ones
+    @GetMapping("/clusters/summary")
+    public ResponseEntity<?> getClusterSummaries(@RequestParam(required = false, defaultValue = "all") String namespace,
+                                                 @RequestParam(required = false, defaultValue = "false") boolean connect) {
+        return ResponseEntity.ok(clusters.getSummaries(namespace, connect));
     }
 
 
     // ConfigMap endpoints (already expected by the UI)
     @GetMapping("/configmap/{name}/full")
     public ResponseEntity<?> getConfigMapFull(@RequestParam(defaultValue = "default") String namespace,
-                                              @PathVariable String name) {
-        var cm = k8sService.getConfigMapFull(namespace, name);
+                                              @PathVariable String name, @RequestParam(required = false) String cluster,
+                                              HttpServletRequest req) {
+        var cm = clusters.service(cluster).getConfigMapFull(namespace, name);
         if (cm == null) return ResponseEntity.status(404).body(Map.of("error","ConfigMap not found"));
-        return ResponseEntity.ok(cm);
+        return hashed(req, cm);
     }
 
     @PutMapping("/configmap/{name}/full")
     public ResponseEntity<?> replaceConfigMapFull(@RequestParam(defaultValue = "default") String namespace,
                                                   @PathVariable String name,
                                                   @RequestBody Map<String, String> newData,
-                                                  @RequestParam(required = false) String resourceVersion) {
-        boolean ok = k8sService.replaceConfigMapFull(namespace, name, newData, resourceVersion);
+                                                  @RequestParam(required = false) String resourceVersion,
+                                                  @RequestParam(required = false) String cluster) {
+        K8sService k8sService = clusters.service(cluster);
+        boolean ok = k8sService.replaceConfigMapFull(namespace, name, newData, resourceVersion,
+                previous -> configMapHistory.record(k8sService, previous));
         return ok ? ResponseEntity.ok(Map.of("status","updated")) :
                      ResponseEntity.status(409).body(Map.of("error","Resource version mismatch or failed update"));
     }
 
+    // Set and remove several keys in one merge patch: {"set": {"k": "v"}, "remove": ["old"]}.
+    // Nothing is read first, so unlike a full save this is not recorded in the history.
+    @PatchMapping("/configmap/{name}")
+    public ResponseEntity<?> patchConfigMapKeys(@RequestParam(defaultValue = "default") String namespace,
+                                                @PathVariable String name,
+                                                @RequestBody ConfigMapKeysPatch body,
+                                                @RequestParam(required = false) String resourceVersion,
+                                                @RequestParam(required = false) String cluster) {
+        try {
+            var cm = clusters.service(cluster).patchConfigMapData(namespace, name, body.set(), body.remove(), resourceVersion);
+            return ResponseEntity.ok(Map.of("status","updated","resourceVersion", cm.getMetadata().getResourceVersion()));
+        } catch (KubernetesClientException e) {
+            return patchFailed(e, "Failed to update ConfigMap keys");
+        }
+    }
+
+    public record ConfigMapKeysPatch(Map<String, String> set, List<String> remove) {}
+
+    // Revisions recorded by saves above, oldest first; X-History-Error when the last one failed
+    @GetMapping("/configmap/{name}/history")
+    public ResponseEntity<?> getConfigMapHistory(@RequestParam(defaultValue = "default") String namespace,
+                                                 @PathVariable String name,
+                                                 @RequestParam(required = false) String cluster) {
+        K8sService k8sService = clusters.service(cluster);
+        var revisions = configMapHistory.list(k8sService, namespace, name);
+        String error = configMapHistory.lastError(k8sService, namespace, name);
+        // the latest save could not be recorded (e.g. too large for the history object)
+        if (error != null) return ResponseEntity.ok().header("X-History-Error", error).body(revisions);
+        return ResponseEntity.ok(revisions);
+    }
+
+    @GetMapping("/configmap/{name}/history/{revision}")
+    public ResponseEntity<?> getConfigMapRevision(@RequestParam(defaultValue = "default") String namespace,
+                                                  @PathVariable String name, @PathVariable int revision,
+                                                  @RequestParam(required = false) String cluster) {
+        var data = configMapHistory.revision(clusters.service(cluster), namespace, name, revision);
+        if (data == null) return ResponseEntity.status(404).body(Map.of("error","Revision not found"));
+        return ResponseEntity.ok(Map.of("revision", revision, "data", data));
+    }
+
+    // Changes from one revision to another (or to the live ConfigMap when "to" is omitted)
+    @GetMapping("/configmap/{name}/history/{revision}/diff")
+    public ResponseEntity<?> diffConfigMapRevision(@RequestParam(defaultValue = "default") String namespace,
+                                                   @PathVariable String name, @PathVariable int revision,
+                                                   @RequestParam(required = false) Integer to,
+                                                   @RequestParam(required = false) String cluster) {
+        var diff = configMapHistory.diff(clusters.service(cluster), namespace, name, revision, to);
+        if (diff == null) return ResponseEntity.status(404).body(Map.of("error","Revision or ConfigMap not found"));
+        return ResponseEntity.ok(diff);
+    }
+
+    @PostMapping("/configmap/{name}/history/{revision}/restore")
+    public ResponseEntity<?> restoreConfigMapRevision(@RequestParam(defaultValue = "default") String namespace,
+                                                      @PathVariable String name, @PathVariable int revision,
+                                                      @RequestParam(required = false) String cluster) {
+        boolean ok = configMapHistory.restore(clusters.service(cluster), namespace, name, revision);
+        return ok ? ResponseEntity.ok(Map.of("status","restored","revision",revision)) :
+                    ResponseEntity.status(404).body(Map.of("error","Revision not found or restore failed"));
+    }
+
     // DEPLOYMENTS
 
     // List deployments (used by replica modal)
     @GetMapping("/deployments")
-    public ResponseEntity<?> listDeployments(@RequestParam(required = false, defaultValue = "default") String namespace) {
-        List<Map<String,Object>> list = k8sService.listDeployments(namespace);
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> listDeployments(@RequestParam(required = false, defaultValue = "default") String namespace,
+                                             @RequestParam(required = false) String cluster, HttpServletRequest req) {
+        K8sService k8sService = clusters.service(cluster);
+        return cached(req, k8sService, namespace, () -> k8sService.listDeployments(namespace));
     }
 
     // Get a specific deployment
     @GetMapping("/deployments/{namespace}/{name}")
-    public ResponseEntity<?> getDeployment(@PathVariable String namespace, @PathVariable String name) {
-        var dep = k8sService.getDeployment(namespace, name);
-        if (dep == null) return ResponseEntity.status(404).body(Map.of("error","Deployment not found"));
-        return ResponseEntity.ok(dep);
+    public ResponseEntity<?> getDeployment(@PathVariable String namespace, @PathVariable String name,
+                                           @RequestParam(required = false) String cluster, HttpServletRequest req) {
+        K8sService k8sService = clusters.service(cluster);
+        return cached(req, k8sService, namespace, () -> {
+            var dep = k8sService.getDeployment(namespace, name);
+            if (dep == null) return ResponseEntity.status(404).body(Map.of("error","Deployment not found"));
+            return dep;
+        });
     }
 
-    // Replace deployment (save from editor)
+    // Save from editor. mode=patch (default) sends only the fields that differ from the live
+    // object (read from the apiserver, not the cache) as a merge patch, guarded by the
+    // resourceVersion the editor loaded; a newer live object is a 409. mode=apply does a
+    // server-side apply (force=true takes over fields owned by others); mode=replace sends it all.
     @PutMapping("/deployments/{namespace}/{name}")
     public ResponseEntity<?> replaceDeployment(@PathVariable String namespace, @PathVariable String name,
-                                               @RequestBody Map<String, Object> body) {
+                                               @RequestBody Map<String, Object> body,
+                                               @RequestParam(defaultValue = "patch") String mode,
+                                               @RequestParam(defaultValue = "false") boolean force,
+                                               @RequestParam(required = false) String cluster) {
+        K8sService k8sService = clusters.service(cluster);
         try {
-            KubernetesClient client = k8sService.getClient();
             Deployment updated = mapper.convertValue(body, Deployment.class);
             if (updated.getMetadata() == null) updated.setMetadata(new io.fabric8.kubernetes.api.model.ObjectMeta());
             updated.getMetadata().setName(name);
             if (updated.getMetadata().getNamespace() == null || updated.getMetadata().getNamespace().isBlank()) {
                 updated.getMetadata().setNamespace(namespace);
             }
-            Deployment result = client.apps().deployments().inNamespace(namespace).withName(name).replace(updated);
+            Deployment result;
+            if ("replace".equals(mode)) {
+                result = k8sService.replaceDeployment(namespace, name, updated);
+            } else if ("apply".equals(mode)) {
+                result = k8sService.applyDeployment(namespace, updated, force);
+            } else if ("patch".equals(mode)) {
+                Deployment live = k8sService.getDeploymentLive(namespace, name);
+                if (live == null) return ResponseEntity.status(404).body(Map.of("error","Deployment not found"));
+                String rv = updated.getMetadata().getResourceVersion();
+                String liveRv = live.getMetadata().getResourceVersion();
+                // the diff is only right against the version that was edited
+                if (rv != null && !rv.isBlank() && !rv.equals(liveRv)) {
+                    return ResponseEntity.status(409).body(Map.of("error","Deployment was changed since it was loaded",
+                            "detail","edited resourceVersion " + rv + ", current " + liveRv + "; reload and edit again"));
+                }
+                ObjectNode patch = JsonMergePatch.diff(JsonMergePatch.withoutServerFields(mapper.valueToTree(live)),
+                        JsonMergePatch.withoutServerFields(mapper.valueToTree(updated)));
+                if (patch.isEmpty()) {
+                    return ResponseEntity.ok(Map.of("status","unchanged","name", name));
+                }
+                if (rv != null && !rv.isBlank()) {
+                    // keep metadata changes (labels, annotations) already in the patch
+                    ObjectNode meta = patch.get("metadata") instanceof ObjectNode m ? m : patch.putObject("metadata");
+                    meta.put("resourceVersion", rv);
+                }
+                result = k8sService.patchDeployment(namespace, name, patch);
+            } else {
+                return ResponseEntity.badRequest().body(Map.of("error","mode must be patch, apply or replace"));
+            }
             if (result == null) {
                 return ResponseEntity.status(500).body(Map.of("error","Replace returned null"));
             }
             return ResponseEntity.ok(Map.of("status","updated","name", result.getMetadata().getName()));
+        } catch (KubernetesClientException e) {
+            return patchFailed(e, "Failed to update deployment");
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error","Failed to replace deployment","detail",e.getMessage()));
         }
     }
 
+    // JSON merge patch (RFC 7386) written by the caller, e.g. {"spec":{"replicas":3}}
+    @PatchMapping(value = "/deployments/{namespace}/{name}",
+                  consumes = { "application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<?> patchDeployment(@PathVariable String namespace, @PathVariable String name,
+                                             @RequestBody ObjectNode patch,
+                                             @RequestParam(required = false) String cluster) {
+        try {
+            Deployment result = clusters.service(cluster).patchDeployment(namespace, name, patch);
+            return ResponseEntity.ok(Map.of("status","updated","name", result.getMetadata().getName()));
+        } catch (KubernetesClientException e) {
+            return patchFailed(e, "Failed to patch deployment");
+        }
+    }
+
+    // 404 and 409 (stale resourceVersion, field manager conflict) are passed on, the rest is a 500
+    private static ResponseEntity<?> patchFailed(KubernetesClientException e, String error) {
+        int status = e.getCode() == 404 || e.getCode() == 409 ? e.getCode() : 500;
+        return ResponseEntity.status(status).body(Map.of("error", error, "detail", String.valueOf(e.getMessage())));
+    }
+
     // Scale endpoint used by frontend (POST): /api/deployments/{namespace}/{name}/scale
     @PostMapping("/deployments/{namespace}/{name}/scale")
     public ResponseEntity<?> scaleDeployment(@PathVariable String namespace, @PathVariable String name,
-                                             @RequestBody Map<String, Object> body) {
+                                             @RequestBody Map<String, Object> body,
+                                             @RequestParam(required = false) String cluster) {
         Object replicasObj = body.get("replicas");
         if (replicasObj == null) return ResponseEntity.badRequest().body(Map.of("error","Missing replicas"));
         int replicas = (replicasObj instanceof Number) ? ((Number)replicasObj).intValue() : Integer.parseInt(replicasObj.toString());
-        boolean ok = k8sService.scaleDeployment(namespace, name, replicas);
+        boolean ok = clusters.service(cluster).scaleDeployment(namespace, name, replicas);
         return ok ? ResponseEntity.ok(Map.of("status","scaled","replicas",replicas)) :
                     ResponseEntity.status(404).body(Map.of("error","Deployment not found"));
     }
@@ -174,12 +401,66 @@ public class K8sController {
     @PostMapping("/pods/{namespace}/{name}/restart")
     public ResponseEntity<?> restartPod(
             @PathVariable String namespace,
-            @PathVariable String name) {
-        boolean ok = k8sService.restartPod(namespace, name);
+            @PathVariable String name,
+            @RequestParam(required = false) String cluster) {
+        boolean ok = clusters.service(cluster).restartPod(namespace, name);
         return ok ? ResponseEntity.ok(Map.of("status", "restarting", "pod", name))
                   : ResponseEntity.status(404).body(Map.of("error", "Pod not found"));
     }
 
+    // Bulk restart: body {"names":[...]} or {"selector":"app=web"}; streams one NDJSON result per pod
+    @PostMapping(value = "/pods/{namespace}/bulk-restart", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> bulkRestart(@PathVariable String namespace,
+                                                             @RequestBody Map<String, Object> body,
+                                                             @RequestParam(required = false) String cluster) {
+        K8sService k8sService = clusters.service(cluster);
+        List<String> pods;
+        try {
+            pods = bulkOperationService.resolvePods(k8sService, namespace, stringList(body.get("names")), (String) body.get("selector"));
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return badBulkRequest(e);
+        }
+        return ResponseEntity.ok().body(out -> {
+            try (ClusterRegistry.Hold held = clusters.hold(cluster)) {
+                bulkOperationService.restartPods(held.service(), namespace, pods, out);
+            }
+        });
+    }
+
+    /**
+     * Bulk scale: body {"items":[{"name":"a","replicas":2},...]} or {"names":[...]|"selector":"...","replicas":n};
+     * streams one NDJSON result per deployment.
+     */
+    @PostMapping(value = "/deployments/{namespace}/bulk-scale", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> bulkScale(@PathVariable String namespace,
+                                                           @RequestBody Map<String, Object> body,
+                                                           @RequestParam(required = false) String cluster) {
+        K8sService k8sService = clusters.service(cluster);
+        Map<String, Integer> targets = new java.util.LinkedHashMap<>();
+        try {
+            if (body.get("items") instanceof List<?> items) {
+                for (Object o : items) {
+                    Map<?, ?> item = (Map<?, ?>) o;
+                    targets.put(String.valueOf(item.get("name")), toInt(item.get("replicas")));
+                }
+            } else {
+                Object replicasObj = body.get("replicas");
+                if (replicasObj == null) throw new IllegalArgumentException("Missing replicas");
+                int replicas = toInt(replicasObj);
+                for (String name : bulkOperationService.resolveDeployments(k8sService, namespace, stringList(body.get("names")), (String) body.get("selector"))) {
+                    targets.put(name, replicas);
+                }
+            }
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return badBulkRequest(e);
+        }
+        return ResponseEntity.ok().body(out -> {
+            try (ClusterRegistry.Hold held = clusters.hold(cluster)) {
+                bulkOperationService.scaleDeployments(held.service(), namespace, targets, out);
+            }
+        });
+    }
+
     // Optional: if someone hits it with GET, return 405 instead of static 404
     @GetMapping("/pods/{namespace}/{name}/restart")
     public ResponseEntity<?> restartPodWrongMethod() {
@@ -188,18 +469,321 @@ public class K8sController {
     
     
 
+    // Streams the log straight to the response (follow=true is handled by followPodLogs below)
     @GetMapping(value = "/pods/{namespace}/{name}/logs", produces = "text/plain")
-    public ResponseEntity<String> getPodLogs(
+    public ResponseEntity<StreamingResponseBody> getPodLogs(
+            @PathVariable String namespace,
+            @PathVariable String name,
+            @RequestParam(required = false) String container,
+            @RequestParam(required = false, defaultValue = "false") boolean previous,
+            @RequestParam(required = false) Integer tailLines,
+            @RequestParam(required = false) Integer sinceSeconds,
+            @RequestParam(required = false) String cluster) {
+
+        // the log request is bound to the cluster's client: hold it from here until the body is written
+        ClusterRegistry.Hold held = clusters.hold(cluster);
+        Loggable log;
+        try {
+            log = held.service().podLog(namespace, name, container, previous, tailLines, sinceSeconds);
+        } catch (Exception e) {
+            held.close();
+            String msg = "ERROR: " + e.getMessage();
+            return ResponseEntity.status(500).body(out -> out.write(msg.getBytes(StandardCharsets.UTF_8)));
+        }
+        if (log == null) {
+            held.close();
+            String msg = "ERROR: pod not found in namespace " + namespace;
+            return ResponseEntity.status(404).body(out -> out.write(msg.getBytes(StandardCharsets.UTF_8)));
+        }
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "plain", StandardCharsets.UTF_8))
+                .body(out -> {
+                    try (held) {
+                        held.service().streamPodLog(log, false, out);
+                    }
+                });
+    }
+
+    // follow=true keeps the connection open like kubectl logs -f, without the async request timeout
+    @GetMapping(value = "/pods/{namespace}/{name}/logs", produces = "text/plain", params = "follow=true")
+    public ResponseEntity<ResponseBodyEmitter> followPodLogs(
             @PathVariable String namespace,
             @PathVariable String name,
             @RequestParam(required = false) String container,
             @RequestParam(required = false, defaultValue = "false") boolean previous,
             @RequestParam(required = false) Integer tailLines,
-            @RequestParam(required = false) Integer sinceSeconds) {
+            @RequestParam(required = false) Integer sinceSeconds,
+            @RequestParam(required = false) String cluster) {
+
+        ClusterRegistry.Hold held = clusters.hold(cluster);
+        Loggable log;
+        try {
+            log = held.service().podLog(namespace, name, container, previous, tailLines, sinceSeconds);
+        } catch (Exception e) {
+            held.close();
+            return followError(500, "ERROR: " + e.getMessage());
+        }
+        if (log == null) {
+            held.close();
+            return followError(404, "ERROR: pod not found in namespace " + namespace);
+        }
+        ResponseEntity<ResponseBodyEmitter> started = startFollow(out -> {
+            try (held) {
+                held.service().streamPodLog(log, true, out);
+            }
+        });
+        // not started (too many follows): the body will never run to let go of the cluster
+        if (!started.getStatusCode().is2xxSuccessful()) held.close();
+        return started;
+    }
+
+    // Merged logs of every pod of a deployment (or label selector), optionally filtered server-side
+    @GetMapping(value = "/logs/{namespace}", produces = "text/plain")
+    public ResponseEntity<StreamingResponseBody> getMergedLogs(
+            @PathVariable String namespace,
+            @RequestParam(required = false) String deployment,
+            @RequestParam(required = false) String selector,
+            @RequestParam(required = false) String container,
+            @RequestParam(required = false) Integer tailLines,
+            @RequestParam(required = false) Integer sinceSeconds,
+            @RequestParam(required = false) String grep,
+            @RequestParam(required = false) String regex,
+            @RequestParam(required = false) String cluster) {
+
+        K8sService k8sService = clusters.service(cluster);
+        List<Pod> pods;
+        Predicate<String> filter;
+        try {
+            pods = logFanInService.resolvePods(k8sService, namespace, deployment, selector);
+            filter = LogFanInService.lineFilter(grep, regex);
+        } catch (IllegalArgumentException e) {
+            String msg = "ERROR: " + e.getMessage();
+            return ResponseEntity.badRequest().body(out -> out.write(msg.getBytes(StandardCharsets.UTF_8)));
+        }
+        if (pods == null) {
+            String msg = "ERROR: deployment not found in namespace " + namespace;
+            return ResponseEntity.status(404).body(out -> out.write(msg.getBytes(StandardCharsets.UTF_8)));
+        }
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "plain", StandardCharsets.UTF_8))
+                .body(out -> {
+                    try (ClusterRegistry.Hold held = clusters.hold(cluster)) {
+                        logFanInService.stream(held.service(), namespace, pods, container, tailLines, sinceSeconds, false, filter, out);
+                    }
+                });
+    }
+
+    // follow=true: the merged live logs, without the async request timeout
+    @GetMapping(value = "/logs/{namespace}", produces = "text/plain", params = "follow=true")
+    public ResponseEntity<ResponseBodyEmitter> followMergedLogs(
+            @PathVariable String namespace,
+            @RequestParam(required = false) String deployment,
+            @RequestParam(required = false) String selector,
+            @RequestParam(required = false) String container,
+            @RequestParam(required = false) Integer tailLines,
+            @RequestParam(required = false) Integer sinceSeconds,
+            @RequestParam(required = false) String grep,
+            @RequestParam(required = false) String regex,
+            @RequestParam(required = false) String cluster) {
+
+        K8sService k8sService = clusters.service(cluster);
+        List<Pod> pods;
+        Predicate<String> filter;
+        try {
+            pods = logFanInService.resolvePods(k8sService, namespace, deployment, selector);
+            filter = LogFanInService.lineFilter(grep, regex);
+        } catch (IllegalArgumentException e) {
+            return followError(400, "ERROR: " + e.getMessage());
+        }
+        if (pods == null) {
+            return followError(404, "ERROR: deployment not found in namespace " + namespace);
+        }
+        return startFollow(out -> {
+            try (ClusterRegistry.Hold held = clusters.hold(cluster)) {
+                logFanInService.stream(held.service(), namespace, pods, container, tailLines, sinceSeconds, true, filter, out);
+            }
+        });
+    }
+
+    private ResponseEntity<ResponseBodyEmitter> startFollow(StreamingResponseBody body) {
+        try {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "plain", StandardCharsets.UTF_8))
+                    .body(logFollowService.start(body));
+        } catch (RejectedExecutionException e) {
+            return followError(503, "ERROR: too many followed logs open, try again later");
+        }
+    }
+
+    private static ResponseEntity<ResponseBodyEmitter> followError(int status, String msg) {
+        return ResponseEntity.status(status)
+                .contentType(new MediaType("text", "plain", StandardCharsets.UTF_8))
+                .body(LogFollowService.message(msg));
+    }
+
+    @ExceptionHandler(ClusterRegistry.UnknownClusterException.class)
+    public ResponseEntity<?> unknownCluster(ClusterRegistry.UnknownClusterException e) {
+        return ResponseEntity.status(404).contentType(MediaType.APPLICATION_JSON).body(Map.of("error", e.getMessage()));
+    }
+
+    private ResponseEntity<StreamingResponseBody> badBulkRequest(Exception e) {
+        Map<String, Object> err = Map.of("error", String.valueOf(e.getMessage()));
+        return ResponseEntity.badRequest().body(out -> {
+            out.write(mapper.writeValueAsBytes(err));
+            out.write('\n');
+        });
+    }
+
+    private static List<String> stringList(Object o) {
+        if (o == null) return null;
+        List<String> out = new java.util.ArrayList<>();
+        for (Object item : (List<?>) o) out.add(String.valueOf(item));
+        return out;
+    }
+
+    private static int toInt(Object o) {
+        if (o == null) throw new IllegalArgumentException("Missing replicas");
+        return (o instanceof Number) ? ((Number) o).intValue() : Integer.parseInt(o.toString());
+    }
+
+    /**
+     * 200 response carrying the informer cache state so the UI can tell live data from cached data:
+     * X-K8s-Cache is "off", "syncing" (served from the API) or "synced" (served from memory),
+     * X-K8s-Cache-Age is milliseconds since the cache last changed.
+     *
+     * Responses carry a strong ETag and "Cache-Control: no-cache", so browsers revalidate with
+     * If-None-Match. When the cache is synced the ETag is the request plus the cache's epoch and the
+     * namespace's change generation (see {@link K8sInformerCache#getGenerationTag}), and a matching
+     * If-None-Match gets a 304 before the body is even built. Otherwise
+     * the body is serialized once and its hash is the ETag (see {@link #hashed}).
+     * The supplier may return a ResponseEntity (e.g. a 404), which is passed through unchanged.
+     */
+    private ResponseEntity<?> cached(HttpServletRequest req, K8sService k8sService, String namespace, Supplier<Object> body) {
+        K8sInformerCache cache = k8sService.getCache();
+        HttpHeaders headers = cacheHeaders(cache);
+
+        if (!cache.isReady()) {
+            Object b = body.get();
+            if (b instanceof ResponseEntity) return (ResponseEntity<?>) b;
+            return hashed(req, b, headers);
+        }
+
+        String etag = generationEtag(req, cache, namespace);
+        headers.setETag(etag);
+        if (etagMatches(req, etag)) {
+            return ResponseEntity.status(304).headers(headers).build();
+        }
+        Object b = body.get();
+        if (b instanceof ResponseEntity) return (ResponseEntity<?>) b;
+        return ResponseEntity.ok().headers(headers).body(b);
+    }
+
+    /**
+     * Same contract as {@link #cached}, for large lists: each item is mapped to its view and written
+     * straight to a JsonGenerator, so neither the whole list of views nor a tree of the Fabric8
+     * objects is ever built. With the cache synced the array is streamed to the client; otherwise it
+     * is written to a buffer first because the hash ETag needs the bytes before the headers go out.
+     */
+    private <T, V> ResponseEntity<StreamingResponseBody> cachedList(HttpServletRequest req, K8sService k8sService,
+                                                                   String namespace, Supplier<List<T>> items,
+                                                                   Function<T, V> view, Class<V> viewType) {
+        K8sInformerCache cache = k8sService.getCache();
+        HttpHeaders headers = cacheHeaders(cache);
+        ObjectWriter writer = mapper.writerFor(viewType).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        if (cache.isReady()) {
+            String etag = generationEtag(req, cache, namespace);
+            headers.setETag(etag);
+            if (etagMatches(req, etag)) {
+                return ResponseEntity.status(304).headers(headers).build();
+            }
+            List<T> list = items.get();
+            return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> writeArray(out, list, view, writer));
+        }
+
+        List<T> list = items.get();
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(Math.max(256, list.size() * 512));
+        try {
+            writeArray(buf, list, view, writer);
+        } catch (IOException e) {
+            byte[] err = ("{\"error\":\"Serialization failed\"}").getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.status(500).contentType(MediaType.APPLICATION_JSON).body(out -> out.write(err));
+        }
+        byte[] json = buf.toByteArray();
+        String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        headers.setETag(etag);
+        if (etagMatches(req, etag)) {
+            return ResponseEntity.status(304).headers(headers).build();
+        }
+        return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_JSON).body(out -> out.write(json));
+    }
+
+    private <T, V> void writeArray(OutputStream out, List<T> items, Function<T, V> view, ObjectWriter writer) throws IOException {
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.writeStartArray();
+            for (T item : items) {
+                writer.writeValue(gen, view.apply(item));
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    // X-K8s-Cache / X-K8s-Cache-Age plus Cache-Control: no-cache (see cached)
+    private static HttpHeaders cacheHeaders(K8sInformerCache cache) {
+        String state = !cache.isEnabled() ? "off" : cache.isReady() ? "synced" : "syncing";
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-K8s-Cache", state);
+        headers.set("X-K8s-Cache-Age", String.valueOf(cache.getAgeMillis()));
+        headers.setCacheControl(CacheControl.noCache());
+        return headers;
+    }
+
+    private static String generationEtag(HttpServletRequest req, K8sInformerCache cache, String namespace) {
+        return "\"" + Integer.toHexString(requestKey(req).hashCode()) + "-" + cache.getGenerationTag(namespace) + "\"";
+    }
+
+    private ResponseEntity<?> hashed(HttpServletRequest req, Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(CacheControl.noCache());
+        return hashed(req, body, headers);
+    }
+
+    // serialize once, use the bytes both for the content-hash ETag and as the response body
+    private ResponseEntity<?> hashed(HttpServletRequest req, Object body, HttpHeaders headers) {
+        byte[] json;
+        try {
+            json = mapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Serialization failed", "detail", e.getMessage()));
+        }
+        String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        headers.setETag(etag);
+        if (etagMatches(req, etag)) {
+            return ResponseEntity.status(304).headers(headers).build();
+        }
+        return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_JSON).body(json);
+    }
+
+    private static boolean etagMatches(HttpServletRequest req, String etag) {
+        String inm = req.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (inm == null) return false;
+        for (String candidate : inm.split(",")) {
+            String c = candidate.trim();
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.equals("*") || c.equals(etag)) return true;
+        }
+        return false;
+    }
 
-        String logs = k8sService.getPodLogs(namespace, name);
-        		//, container, previous, tailLines, sinceSeconds);
-        return ResponseEntity.ok(logs == null ? "" : logs);
+    // path plus query without the UI's cache-busting "t" parameter
+    private static String requestKey(HttpServletRequest req) {
+        StringBuilder sb = new StringBuilder(req.getRequestURI());
+        new TreeMap<>(req.getParameterMap()).forEach((k, v) -> {
+            if (!"t".equals(k)) sb.append('&').append(k).append('=').append(String.join(",", v));
+        });
+        return sb.toString();
     }
 
 }
@@ -0,0 +1,237 @@
+package com.example.k8sui.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.k8sui.config.K8sProperties;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Namespace;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Opt-in in-memory cache of pods, services, deployments and namespaces backed by
+ * Fabric8 shared informers (enable with k8s.cacheEnabled=true).
+ *
+ * Each informer keeps a namespace-indexed store that is filled by one initial LIST
+ * and then kept current by a WATCH, so reads never go to the apiserver. Until every
+ * informer has synced, {@link #isReady()} is false and callers should fall back to
+ * direct API calls.
+ */
+@Service
+public class K8sInformerCache {
+
+	private static final Logger log = LoggerFactory.getLogger(K8sInformerCache.class);
+
+	private final KubernetesClient client;
+	private final K8sProperties props;
+
+	private SharedIndexInformer<Pod> podInformer;
+	private SharedIndexInformer<io.fabric8.kubernetes.api.model.Service> serviceInformer;
+	private SharedIndexInformer<Deployment> deploymentInformer;
+	private SharedIndexInformer<Namespace> namespaceInformer;
+
+	// wall-clock millis of the last add/update/delete seen on any informer
+	private final AtomicLong lastEventAt = new AtomicLong();
+	private volatile long startedAt;
+	// bumped on every change, cluster-wide and per namespace; used as cheap ETags
+	private final AtomicLong generation = new AtomicLong();
+	private final Map<String, AtomicLong> generationByNs = new ConcurrentHashMap<>();
+	// random per cache instance and start: the counters restart at 0 in every process, replica
+	// and reopened cluster, so a generation alone does not identify a state
+	private volatile String epoch = newEpoch();
+
+	public K8sInformerCache(KubernetesClient client, K8sProperties props) {
+		this.client = client;
+		this.props = props;
+	}
+
+	@PostConstruct
+	public void start() {
+		if (!props.isCacheEnabled()) {
+			return;
+		}
+		long resyncMs = Math.max(0, props.getCacheResyncSeconds()) * 1000L;
+
+		podInformer = client.pods().inAnyNamespace().runnableInformer(resyncMs);
+		serviceInformer = client.services().inAnyNamespace().runnableInformer(resyncMs);
+		deploymentInformer = client.apps().deployments().inAnyNamespace().runnableInformer(resyncMs);
+		namespaceInformer = client.namespaces().runnableInformer(resyncMs);
+
+		podInformer.addEventHandler(touch());
+		serviceInformer.addEventHandler(touch());
+		deploymentInformer.addEventHandler(touch());
+		namespaceInformer.addEventHandler(touch());
+
+		startedAt = System.currentTimeMillis();
+		epoch = newEpoch();
+		podInformer.start();
+		serviceInformer.start();
+		deploymentInformer.start();
+		namespaceInformer.start();
+		log.info("K8s informer cache started (resync={}s)", props.getCacheResyncSeconds());
+	}
+
+	@PreDestroy
+	public void stop() {
+		for (SharedIndexInformer<?> inf : informers()) {
+			try { inf.stop(); } catch (Exception ignored) {}
+		}
+	}
+
+	public boolean isEnabled() {
+		return props.isCacheEnabled() && podInformer != null;
+	}
+
+	/** True when cache mode is on and every informer has completed its initial LIST and is still watching. */
+	public boolean isReady() {
+		if (!isEnabled()) return false;
+		for (SharedIndexInformer<?> inf : informers()) {
+			if (!inf.hasSynced() || !inf.isRunning()) return false;
+		}
+		return true;
+	}
+
+	/** Milliseconds since the cache last changed (or since start if nothing happened yet); -1 when disabled. */
+	public long getAgeMillis() {
+		if (!isEnabled()) return -1;
+		long last = Math.max(lastEventAt.get(), startedAt);
+		return Math.max(0, System.currentTimeMillis() - last);
+	}
+
+	/**
+	 * Change counter for a namespace (or cluster-wide for null/blank/"all"): it moves whenever a pod,
+	 * service or deployment in scope changes, so equal values mean cached responses are unchanged.
+	 */
+	public long getGeneration(String namespace) {
+		if (namespace == null || namespace.isBlank() || "all".equalsIgnoreCase(namespace)) {
+			return generation.get();
+		}
+		AtomicLong g = generationByNs.get(namespace);
+		return g != null ? g.get() : 0L;
+	}
+
+	/**
+	 * {@link #getGeneration} qualified by this cache's epoch, for ETags: equal tags mean the same
+	 * cache instance and an unchanged scope, so they never match across restarts or replicas.
+	 */
+	public String getGenerationTag(String namespace) {
+		return epoch + "." + getGeneration(namespace);
+	}
+
+	private static String newEpoch() {
+		return Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+	}
+
+	/** Sync state for responses and the /api/cache/status endpoint. */
+	public Map<String, Object> getStatus() {
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("enabled", isEnabled());
+		status.put("synced", isReady());
+		status.put("ageMillis", getAgeMillis());
+		if (isEnabled()) {
+			status.put("pods", informerStatus(podInformer));
+			status.put("services", informerStatus(serviceInformer));
+			status.put("deployments", informerStatus(deploymentInformer));
+			status.put("namespaces", informerStatus(namespaceInformer));
+		}
+		return status;
+	}
+
+	public List<Pod> listPods(String namespace) {
+		return byNamespace(podInformer, namespace);
+	}
+
+	public List<io.fabric8.kubernetes.api.model.Service> listServices(String namespace) {
+		return byNamespace(serviceInformer, namespace);
+	}
+
+	public List<Deployment> listDeployments(String namespace) {
+		return byNamespace(deploymentInformer, namespace);
+	}
+
+	public List<Namespace> listNamespaces() {
+		return new ArrayList<>(namespaceInformer.getStore().list());
+	}
+
+	public Pod getPod(String namespace, String name) {
+		return podInformer.getStore().getByKey(Cache.namespaceKeyFunc(namespace, name));
+	}
+
+	public Deployment getDeployment(String namespace, String name) {
+		return deploymentInformer.getStore().getByKey(Cache.namespaceKeyFunc(namespace, name));
+	}
+
+	public SharedIndexInformer<Pod> getPodInformer() {
+		return podInformer;
+	}
+
+	public SharedIndexInformer<io.fabric8.kubernetes.api.model.Service> getServiceInformer() {
+		return serviceInformer;
+	}
+
+	private static <T extends HasMetadata> List<T> byNamespace(SharedIndexInformer<T> informer, String namespace) {
+		if (namespace == null || namespace.isBlank() || "all".equalsIgnoreCase(namespace)) {
+			return new ArrayList<>(informer.getStore().list());
+		}
+		return informer.getIndexer().byIndex(Cache.NAMESPACE_INDEX, namespace);
+	}
+
+	private static Map<String, Object> informerStatus(SharedIndexInformer<?> inf) {
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("synced", inf.hasSynced());
+		m.put("running", inf.isRunning());
+		m.put("resourceVersion", inf.lastSyncResourceVersion());
+		m.put("items", inf.getStore().list().size());
+		return m;
+	}
+
+	private List<SharedIndexInformer<?>> informers() {
+		if (podInformer == null) return Collections.emptyList();
+		return List.of(podInformer, serviceInformer, deploymentInformer, namespaceInformer);
+	}
+
+	private <T extends HasMetadata> ResourceEventHandler<T> touch() {
+		return new ResourceEventHandler<T>() {
+			@Override public void onAdd(T obj) { changed(obj); }
+			@Override public void onUpdate(T oldObj, T newObj) { if (!isResync(oldObj, newObj)) changed(newObj); }
+			@Override public void onDelete(T obj, boolean deletedFinalStateUnknown) { changed(obj); }
+		};
+	}
+
+	/**
+	 * A periodic resync replays every cached object as an update with the same resourceVersion;
+	 * nothing changed, so generations (and ETags built from them) must not move.
+	 */
+	static boolean isResync(HasMetadata oldObj, HasMetadata newObj) {
+		String oldRv = oldObj != null && oldObj.getMetadata() != null ? oldObj.getMetadata().getResourceVersion() : null;
+		String newRv = newObj != null && newObj.getMetadata() != null ? newObj.getMetadata().getResourceVersion() : null;
+		return oldRv != null && oldRv.equals(newRv);
+	}
+
+	private void changed(HasMetadata obj) {
+		lastEventAt.set(System.currentTimeMillis());
+		generation.incrementAndGet();
+		String ns = obj.getMetadata() != null ? obj.getMetadata().getNamespace() : null;
+		if (ns != null) {
+			generationByNs.computeIfAbsent(ns, k -> new AtomicLong()).incrementAndGet();
+		}
+	}
+}
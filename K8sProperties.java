@@ -3,6 +3,9 @@ package com.example.k8sui.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Configuration
 @ConfigurationProperties(prefix = "k8s")
 public class K8sProperties {
@@ -12,6 +15,41 @@ public class K8sProperties {
     private String password;
     private String token;
     private boolean trustCerts = true;
+    private boolean cacheEnabled = false;     // serve reads from informer stores
+    private long cacheResyncSeconds = 0;      // 0 = no periodic resync
+    private long streamDebounceMillis = 1000; // /api/stream coalescing window
+    private int streamMaxBacklog = 100;       // events queued per SSE client before it is dropped
+    private long streamPollSeconds = 10;      // summary refresh for /api/stream when the cache is off
+    private int logFanInMaxPods = 200;        // most pods one /api/logs request may merge
+    private long logFanInReorderMillis = 250; // follow mode: hold lines this long to order them by timestamp
+    private int logFanInQueueLines = 10000;   // follow mode: lines buffered before dropping
+    private int logFanInMaxOpenLogs = 400;    // pod logs /api/logs has open at once, all requests together
+    private int logFollowMaxConcurrent = 100; // followed logs open at once; more get a 503
+    private long logFollowMaxMinutes = 60;    // a follow is ended after this long (0 = never)
+    private long logFollowKeepAliveSeconds = 15; // merged follow: empty line after this long without output
+    private int bulkParallelism = 8;          // concurrent mutations for bulk restart/scale
+    private int bulkRatePerSecond = 20;       // bulk mutations started per second (0 = unlimited)
+    private long namespaceCacheSeconds = 30;  // namespace list reuse when the informer cache is off
+    private boolean namespaceAccessReview = false;  // hide namespaces where pods can't be listed
+    private long namespaceAccessReviewSeconds = 300; // how long each access review answer is kept
+    private int namespaceAccessReviewParallelism = 8; // per-namespace reviews in flight at once
+    // HTTP transport to the apiserver
+    private int maxConcurrentRequests = 64;        // connection pool size, incl. watches and followed logs
+    private int maxConcurrentRequestsPerHost = 20; // calls beyond this wait in a fair queue (see K8sApiMetrics)
+    private int connectTimeoutMillis = 5000;
+    private int requestTimeoutMillis = 15000;
+    private int watchReconnectIntervalMillis = 1000; // initial backoff, doubled up to 32x
+    private int watchReconnectLimit = -1;          // -1 = retry forever
+    private boolean http2 = true;
+    private boolean compression = true;            // ask for gzip responses
+    private int configMapHistoryMaxRevisions = 50;  // revisions kept per ConfigMap
+    private int configMapHistoryMaxAgeDays = 30;    // 0 = no age limit
+    private int configMapHistorySnapshotEvery = 10; // full copy every n revisions, diffs in between
+    // additional clusters, selected with ?cluster=<name> on /api/*
+    private Map<String, Cluster> clusters = new LinkedHashMap<>();
+    private boolean kubeconfigContexts = false;    // opt-in: also offer every context in the kubeconfig to every user
+    private long clusterIdleMinutes = 15;          // close a cluster's client and cache after this long unused
+    private long clusterSummaryTimeoutMillis = 3000; // per-cluster budget for /api/clusters/summary
 
     // getters and setters
     public String getMode() { return mode; }
@@ -31,4 +69,131 @@ public class K8sProperties {
 
     public boolean isTrustCerts() { return trustCerts; }
     public void setTrustCerts(boolean trustCerts) { this.trustCerts = trustCerts; }
+
+    public boolean isCacheEnabled() { return cacheEnabled; }
+    public void setCacheEnabled(boolean cacheEnabled) { this.cacheEnabled = cacheEnabled; }
+
+    public long getCacheResyncSeconds() { return cacheResyncSeconds; }
+    public void setCacheResyncSeconds(long cacheResyncSeconds) { this.cacheResyncSeconds = cacheResyncSeconds; }
+
+    public long getStreamDebounceMillis() { return streamDebounceMillis; }
+    public void setStreamDebounceMillis(long streamDebounceMillis) { this.streamDebounceMillis = streamDebounceMillis; }
+
+    public int getStreamMaxBacklog() { return streamMaxBacklog; }
+    public void setStreamMaxBacklog(int streamMaxBacklog) { this.streamMaxBacklog = streamMaxBacklog; }
+
+    public long getStreamPollSeconds() { return streamPollSeconds; }
+    public void setStreamPollSeconds(long streamPollSeconds) { this.streamPollSeconds = streamPollSeconds; }
+
+    public int getLogFanInMaxPods() { return logFanInMaxPods; }
+    public void setLogFanInMaxPods(int logFanInMaxPods) { this.logFanInMaxPods = logFanInMaxPods; }
+
+    public long getLogFanInReorderMillis() { return logFanInReorderMillis; }
+    public void setLogFanInReorderMillis(long logFanInReorderMillis) { this.logFanInReorderMillis = logFanInReorderMillis; }
+
+    public int getLogFanInQueueLines() { return logFanInQueueLines; }
+    public void setLogFanInQueueLines(int logFanInQueueLines) { this.logFanInQueueLines = logFanInQueueLines; }
+
+    public int getLogFanInMaxOpenLogs() { return logFanInMaxOpenLogs; }
+    public void setLogFanInMaxOpenLogs(int logFanInMaxOpenLogs) { this.logFanInMaxOpenLogs = logFanInMaxOpenLogs; }
+
+    public int getLogFollowMaxConcurrent() { return logFollowMaxConcurrent; }
+    public void setLogFollowMaxConcurrent(int logFollowMaxConcurrent) { this.logFollowMaxConcurrent = logFollowMaxConcurrent; }
+
+    public long getLogFollowMaxMinutes() { return logFollowMaxMinutes; }
+    public void setLogFollowMaxMinutes(long logFollowMaxMinutes) { this.logFollowMaxMinutes = logFollowMaxMinutes; }
+
+    public long getLogFollowKeepAliveSeconds() { return logFollowKeepAliveSeconds; }
+    public void setLogFollowKeepAliveSeconds(long logFollowKeepAliveSeconds) { this.logFollowKeepAliveSeconds = logFollowKeepAliveSeconds; }
+
+    public int getBulkParallelism() { return bulkParallelism; }
+    public void setBulkParallelism(int bulkParallelism) { this.bulkParallelism = bulkParallelism; }
+
+    public int getBulkRatePerSecond() { return bulkRatePerSecond; }
+    public void setBulkRatePerSecond(int bulkRatePerSecond) { this.bulkRatePerSecond = bulkRatePerSecond; }
+
+    public long getNamespaceCacheSeconds() { return namespaceCacheSeconds; }
+    public void setNamespaceCacheSeconds(long namespaceCacheSeconds) { this.namespaceCacheSeconds = namespaceCacheSeconds; }
+
+    public boolean isNamespaceAccessReview() { return namespaceAccessReview; }
+    public void setNamespaceAccessReview(boolean namespaceAccessReview) { this.namespaceAccessReview = namespaceAccessReview; }
+
+    public long getNamespaceAccessReviewSeconds() { return namespaceAccessReviewSeconds; }
+    public void setNamespaceAccessReviewSeconds(long namespaceAccessReviewSeconds) { this.namespaceAccessReviewSeconds = namespaceAccessReviewSeconds; }
+
+    public int getNamespaceAccessReviewParallelism() { return namespaceAccessReviewParallelism; }
+    public void setNamespaceAccessReviewParallelism(int namespaceAccessReviewParallelism) { this.namespaceAccessReviewParallelism = namespaceAccessReviewParallelism; }
+
+    public int getMaxConcurrentRequests() { return maxConcurrentRequests; }
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) { this.maxConcurrentRequests = maxConcurrentRequests; }
+
+    public int getMaxConcurrentRequestsPerHost() { return maxConcurrentRequestsPerHost; }
+    public void setMaxConcurrentRequestsPerHost(int maxConcurrentRequestsPerHost) { this.maxConcurrentRequestsPerHost = maxConcurrentRequestsPerHost; }
+
+    public int getConnectTimeoutMillis() { return connectTimeoutMillis; }
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) { this.connectTimeoutMillis = connectTimeoutMillis; }
+
+    public int getRequestTimeoutMillis() { return requestTimeoutMillis; }
+    public void setRequestTimeoutMillis(int requestTimeoutMillis) { this.requestTimeoutMillis = requestTimeoutMillis; }
+
+    public int getWatchReconnectIntervalMillis() { return watchReconnectIntervalMillis; }
+    public void setWatchReconnectIntervalMillis(int watchReconnectIntervalMillis) { this.watchReconnectIntervalMillis = watchReconnectIntervalMillis; }
+
+    public int getWatchReconnectLimit() { return watchReconnectLimit; }
+    public void setWatchReconnectLimit(int watchReconnectLimit) { this.watchReconnectLimit = watchReconnectLimit; }
+
+    public boolean isHttp2() { return http2; }
+    public void setHttp2(boolean http2) { this.http2 = http2; }
+
+    public boolean isCompression() { return compression; }
+    public void setCompression(boolean compression) { this.compression = compression; }
+
+    public int getConfigMapHistoryMaxRevisions() { return configMapHistoryMaxRevisions; }
+    public void setConfigMapHistoryMaxRevisions(int configMapHistoryMaxRevisions) { this.configMapHistoryMaxRevisions = configMapHistoryMaxRevisions; }
+
+    public int getConfigMapHistoryMaxAgeDays() { return configMapHistoryMaxAgeDays; }
+    public void setConfigMapHistoryMaxAgeDays(int configMapHistoryMaxAgeDays) { this.configMapHistoryMaxAgeDays = configMapHistoryMaxAgeDays; }
+
+    public int getConfigMapHistorySnapshotEvery() { return configMapHistorySnapshotEvery; }
+    public void setConfigMapHistorySnapshotEvery(int configMapHistorySnapshotEvery) { this.configMapHistorySnapshotEvery = configMapHistorySnapshotEvery; }
+
+    public Map<String, Cluster> getClusters() { return clusters; }
+    public void setClusters(Map<String, Cluster> clusters) { this.clusters = clusters; }
+
+    public boolean isKubeconfigContexts() { return kubeconfigContexts; }
+    public void setKubeconfigContexts(boolean kubeconfigContexts) { this.kubeconfigContexts = kubeconfigContexts; }
+
+    public long getClusterIdleMinutes() { return clusterIdleMinutes; }
+    public void setClusterIdleMinutes(long clusterIdleMinutes) { this.clusterIdleMinutes = clusterIdleMinutes; }
+
+    public long getClusterSummaryTimeoutMillis() { return clusterSummaryTimeoutMillis; }
+    public void setClusterSummaryTimeoutMillis(long clusterSummaryTimeoutMillis) { this.clusterSummaryTimeoutMillis = clusterSummaryTimeoutMillis; }
+
+    /** Connection settings of one extra cluster: a kubeconfig context, or apiServer plus token/username/password. */
+    public static class Cluster {
+        private String context;
+        private String apiServer;
+        private String username;
+        private String password;
+        private String token;
+        private boolean trustCerts = true;
+
+        public String getContext() { return context; }
+        public void setContext(String context) { this.context = context; }
+
+        public String getApiServer() { return apiServer; }
+        public void setApiServer(String apiServer) { this.apiServer = apiServer; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+
+        public String getToken() { return token; }
+        public void setToken(String token) { this.token = token; }
+
+        public boolean isTrustCerts() { return trustCerts; }
+        public void setTrustCerts(boolean trustCerts) { this.trustCerts = trustCerts; }
+    }
 }
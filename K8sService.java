@@ -1,127 +1,318 @@
 package com.example.k8sui.service;
 
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
+import com.example.k8sui.model.DeploymentSummary;
+import com.example.k8sui.model.PodInfo;
+import com.example.k8sui.model.PodPage;
 import com.example.k8sui.model.Summary;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import io.fabric8.kubernetes.api.model.ConfigMap;
-import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.ListOptionsBuilder;
 import io.fabric8.kubernetes.api.model.EndpointSubset;
 import io.fabric8.kubernetes.api.model.Endpoints;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodList;
 import io.fabric8.kubernetes.api.model.ServiceList;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
 import io.fabric8.kubernetes.api.model.apps.DeploymentList;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.BytesLimitTerminateTimeTailPrettyLoggable;
+import io.fabric8.kubernetes.client.dsl.ContainerResource;
+import io.fabric8.kubernetes.client.dsl.LogWatch;
+import io.fabric8.kubernetes.client.dsl.Loggable;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import io.fabric8.kubernetes.client.dsl.TailPrettyLoggable;
+import io.fabric8.kubernetes.client.dsl.TimeTailPrettyLoggable;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.fabric8.kubernetes.client.dsl.base.PatchType;
 
 /**
  * Kubernetes service wrapper using Fabric8 client.
  *
- * Note: This version uses Jackson's ObjectMapper for conversions to avoid
- * dependence on Fabric8 methods that may not exist in older versions.
+ * Returns Fabric8 models or the response records in com.example.k8sui.model; JSON is written
+ * only once, by the controller's shared ObjectMapper.
  */
 @Service
 public class K8sService {
 
 	private final KubernetesClient client;
-	private static final ObjectMapper MAPPER = new ObjectMapper();
-
-	public K8sService(KubernetesClient client) {
+	private final K8sInformerCache cache;
+	private final SummaryTracker summaryTracker;
+	private final K8sApiMetrics metrics;
+	private final NamespaceAccess namespaces;
+	private static final int LOG_BUFFER_BYTES = 8192;
+	private static final int DEFAULT_PAGE_SIZE = 100;
+	private static final int MAX_PAGE_SIZE = 1000;
+	// continue tokens issued by the cache path (offset into the sorted list)
+	private static final String CACHE_TOKEN_PREFIX = "cache:";
+	/** Field manager recorded in managedFields for server-side applies from the dashboard. */
+	public static final String FIELD_MANAGER = "k8s-ui-dashboard";
+	// unguarded patches: retries after a 409/429, backoff doubling from 50 ms up to 800 ms
+	private static final int PATCH_RETRIES = 4;
+	private static final long PATCH_BACKOFF_MILLIS = 50;
+	private static final long PATCH_MAX_BACKOFF_MILLIS = 800;
+
+	public K8sService(KubernetesClient client, K8sInformerCache cache, SummaryTracker summaryTracker,
+			K8sApiMetrics metrics, NamespaceAccess namespaces) {
 		this.client = client;
+		this.cache = cache;
+		this.summaryTracker = summaryTracker;
+		this.metrics = metrics;
+		this.namespaces = namespaces;
 	}
 
 	public KubernetesClient getClient() {
 		return this.client;
 	}
 
+	/** Informer cache; reads below are served from it whenever {@link K8sInformerCache#isReady()}. */
+	public K8sInformerCache getCache() {
+		return this.cache;
+	}
+
+	public K8sApiMetrics getApiMetrics() {
+		return metrics;
+	}
+
+	public NamespaceAccess getNamespaceAccess() {
+		return this.namespaces;
+	}
+
 	public List<io.fabric8.kubernetes.api.model.Service> listServices(String namespace) {
 		String ns = (namespace == null || namespace.isBlank()) ? "default" : namespace;
-		return client.services().inNamespace(ns).list().getItems();
-	}
-
-	/*
-	 * public String getPodLogs(String namespace, String name, String container,
-	 * boolean previous, Integer tailLines, Integer sinceSeconds) { Pod podRes =
-	 * client.pods().inNamespace(namespace).withName(name).get(); if (container !=
-	 * null && !container.isBlank()) { podRes = podRes.inContainer(container); } var
-	 * opts = new io.fabric8.kubernetes.client.dsl.LogWatchArguments(); if
-	 * (previous) podRes = podRes.terminated(); if (tailLines != null) opts =
-	 * opts.withTailLines(tailLines); if (sinceSeconds != null) opts =
-	 * opts.withSinceSeconds(sinceSeconds);
-	 * 
-	 * // For short logs, a simple .getLog() is fine: if (tailLines != null ||
-	 * sinceSeconds != null) { return
-	 * podRes.withLogWaitTimeout(10_000L).limitBytes(null).getLog(true); } return
-	 * podRes.getLog(); // default complete log }
-	 */
-
+		// "all" means every namespace, with or without the cache
+		return listServicesScoped(ns);
+	}
 
 	public List<String> listServicesWithZeroPods(String namespace) {
 		String ns = (namespace == null || namespace.isBlank()) ? "default" : namespace;
 
-		var svcs = client.services().inNamespace(ns).list().getItems();
-		var pods = client.pods().inNamespace(ns).list().getItems();
-
-		// Pre-extract pod labels for quick matching
-		List<Map<String,String>> podLabels = pods.stream().map(p -> Optional.ofNullable(p.getMetadata()).map(m -> m.getLabels()).orElse(Map.of()))
-				.toList();
+		var svcs = listServices(ns);
+		var index = PodSelectorIndex.build(listPods(ns));
 
 		List<String> zero = new java.util.ArrayList<>();
+		// No selector -> selects no pods -> count is effectively zero
+		for (var svc : servicesWithZeroPods(svcs, index, true)) {
+			zero.add(Optional.ofNullable(svc.getMetadata()).map(m -> m.getName()).orElse("(unknown)"));
+		}
+		return zero;
+	}
 
-		for (var svc : svcs) {
-			String name = Optional.ofNullable(svc.getMetadata()).map(m -> m.getName()).orElse("(unknown)");
-			var selector = Optional.ofNullable(svc.getSpec()).map(s -> s.getSelector()).orElse(null);
-
-			// No selector -> selects no pods -> count is effectively zero
+	/**
+	 * Services from the list whose selector matches no pod in the index.
+	 * Selector-less services are included only when includeSelectorless is set.
+	 */
+	private static List<io.fabric8.kubernetes.api.model.Service> servicesWithZeroPods(
+			List<io.fabric8.kubernetes.api.model.Service> services, PodSelectorIndex index, boolean includeSelectorless) {
+		List<io.fabric8.kubernetes.api.model.Service> zero = new java.util.ArrayList<>();
+		for (var svc : services) {
+			var selector = Optional.ofNullable(svc.getSpec()).map(sp -> sp.getSelector()).orElse(null);
 			if (selector == null || selector.isEmpty()) {
-				zero.add(name);
+				if (includeSelectorless) zero.add(svc);
 				continue;
 			}
-
-			boolean anyMatch = podLabels.stream().anyMatch(lbls -> {
-				for (var e : selector.entrySet()) {
-					String v = lbls.get(e.getKey());
-					if (v == null || !v.equals(e.getValue())) return false;
-				}
-				return true;
-			});
-
-			if (!anyMatch) zero.add(name);
+			String ns = (svc.getMetadata() != null && svc.getMetadata().getNamespace() != null)
+					? svc.getMetadata().getNamespace()
+					: "default";
+			if (!index.matchesAny(ns, selector)) zero.add(svc);
 		}
-
 		return zero;
 	}
 
+	/** Services in a namespace, or across all namespaces for null/blank/"all" (same scoping as listPods). */
+	private List<io.fabric8.kubernetes.api.model.Service> listServicesScoped(String namespace) {
+		if (cache.isReady()) return cache.listServices(namespace);
+		if (namespace == null || namespace.isBlank() || "all".equalsIgnoreCase(namespace)) {
+			return metrics.record("services.list", () -> client.services().inAnyNamespace().list().getItems());
+		}
+		return metrics.record("services.list", () -> client.services().inNamespace(namespace).list().getItems());
+	}
+
 
-	/** List all namespaces in the cluster */
+	/** Namespaces in the cluster the dashboard can use (cached, see {@link NamespaceAccess}) */
 	public List<String> listNamespaces() {
-		return client.namespaces().list().getItems().stream()
-				.map(ns -> ns.getMetadata().getName())
-				.collect(Collectors.toList());
+		return namespaces.listNamespaces();
 	}
 
 	/** List pods in a specific namespace (or all if null) */
 	public List<Pod> listPods(String namespace) {
+		if (cache.isReady()) return cache.listPods(namespace);
 		if (namespace == null || namespace.isBlank() || "all".equalsIgnoreCase(namespace)) {
-			return client.pods().inAnyNamespace().list().getItems();
+			return metrics.record("pods.list", () -> client.pods().inAnyNamespace().list().getItems());
 		}
-		return client.pods().inNamespace(namespace).list().getItems();
+		return metrics.record("pods.list", () -> client.pods().inNamespace(namespace).list().getItems());
 	}
 
 	/** List all pods across namespaces. */
 	public List<Pod> listPods() {
-		return client.pods().inAnyNamespace().list().getItems();
+		if (cache.isReady()) return cache.listPods(null);
+		return metrics.record("pods.list", () -> client.pods().inAnyNamespace().list().getItems());
+	}
+
+	/**
+	 * One page of pods as compact {@link PodInfo} rows: {items, continue, remainingItemCount}.
+	 *
+	 * Without the cache, limit / continue / labelSelector / phase (as field selector status.phase) are
+	 * passed to the apiserver so only one page is ever fetched, and sorting applies within that page.
+	 * With the cache, the filtered namespace is sorted as a whole and paged by offset.
+	 * sort is one of name, namespace, status, restarts, age; prefix with '-' for descending.
+	 */
+	public PodPage listPodPage(String namespace, Integer limit, String continueToken,
+			String labelSelector, String phase, String sort) {
+		int pageSize = (limit == null || limit <= 0) ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+		boolean hasToken = continueToken != null && !continueToken.isBlank();
+		Comparator<PodInfo> order = podOrder(sort);
+
+		List<PodInfo> items;
+		String next;
+		Long remaining;
+		if (cache.isReady()) {
+			int offset = 0;
+			if (hasToken) {
+				if (!continueToken.startsWith(CACHE_TOKEN_PREFIX)) {
+					throw new IllegalArgumentException("continue token expired; restart the listing");
+				}
+				try {
+					offset = Integer.parseInt(continueToken.substring(CACHE_TOKEN_PREFIX.length()));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("invalid continue token");
+				}
+			}
+			Map<String, String> labels = parseLabelSelector(labelSelector);
+			List<PodInfo> all = cache.listPods(namespace).stream()
+					.filter(p -> phase == null || phase.isBlank() || phase.equalsIgnoreCase(phaseOf(p)))
+					.filter(p -> labels.isEmpty() || (p.getMetadata() != null && p.getMetadata().getLabels() != null
+							&& p.getMetadata().getLabels().entrySet().containsAll(labels.entrySet())))
+					.map(K8sService::toPodInfo)
+					.sorted(order != null ? order : Comparator.comparing(PodInfo::getNamespace).thenComparing(PodInfo::getName))
+					.collect(Collectors.toList());
+			int from = Math.min(offset, all.size());
+			int to = Math.min(from + pageSize, all.size());
+			items = new java.util.ArrayList<>(all.subList(from, to));
+			next = to < all.size() ? CACHE_TOKEN_PREFIX + to : null;
+			remaining = (long) (all.size() - to);
+		} else {
+			if (hasToken && continueToken.startsWith(CACHE_TOKEN_PREFIX)) {
+				throw new IllegalArgumentException("continue token expired; restart the listing");
+			}
+			ListOptionsBuilder opts = new ListOptionsBuilder().withLimit((long) pageSize);
+			if (hasToken) opts.withContinue(continueToken);
+			if (labelSelector != null && !labelSelector.isBlank()) opts.withLabelSelector(labelSelector);
+			if (phase != null && !phase.isBlank()) opts.withFieldSelector("status.phase=" + phase);
+
+			PodList list = metrics.record("pods.list", () ->
+					(namespace == null || namespace.isBlank() || "all".equalsIgnoreCase(namespace))
+							? client.pods().inAnyNamespace().list(opts.build())
+							: client.pods().inNamespace(namespace).list(opts.build()));
+			items = list.getItems().stream().map(K8sService::toPodInfo).collect(Collectors.toList());
+			if (order != null) items.sort(order);
+			next = list.getMetadata() != null ? list.getMetadata().getContinue() : null;
+			if (next != null && next.isEmpty()) next = null;
+			remaining = list.getMetadata() != null ? list.getMetadata().getRemainingItemCount() : null;
+		}
+
+		return new PodPage(items, next, remaining);
+	}
+
+	/** Compact projection of a pod for list views. */
+	public static PodInfo toPodInfo(Pod pod) {
+		ObjectMeta meta = pod.getMetadata();
+		int total = 0;
+		int ready = 0;
+		int restarts = 0;
+		if (pod.getStatus() != null && pod.getStatus().getContainerStatuses() != null) {
+			for (var cs : pod.getStatus().getContainerStatuses()) {
+				if (cs == null) continue;
+				total++;
+				if (Boolean.TRUE.equals(cs.getReady())) ready++;
+				if (cs.getRestartCount() != null) restarts += cs.getRestartCount();
+			}
+		}
+		String created = meta != null ? meta.getCreationTimestamp() : null;
+		return new PodInfo(
+				meta != null ? meta.getName() : null,
+				phaseOf(pod),
+				meta != null ? meta.getNamespace() : null,
+				formatAge(created),
+				ready + "/" + total,
+				restarts,
+				created);
+	}
+
+	/** Parse a "k=v,k2=v2" label selector (equality terms only). */
+	public static Map<String, String> parseLabelSelector(String selector) {
+		if (selector == null || selector.isBlank()) return Map.of();
+		Map<String, String> labels = new LinkedHashMap<>();
+		for (String part : selector.split(",")) {
+			String p = part.trim();
+			if (p.isEmpty()) continue;
+			int eq = p.indexOf('=');
+			if (eq <= 0) throw new IllegalArgumentException("only key=value selectors are supported: " + p);
+			String value = p.substring(eq + 1);
+			if (value.startsWith("=")) value = value.substring(1); // k==v
+			labels.put(p.substring(0, eq).trim(), value.trim());
+		}
+		return labels;
+	}
+
+	private static String phaseOf(Pod pod) {
+		return pod.getStatus() != null && pod.getStatus().getPhase() != null ? pod.getStatus().getPhase() : "Unknown";
+	}
+
+	/** kubectl-style age ("45s", "12m", "3h", "5d") from an RFC3339 timestamp. */
+	private static String formatAge(String creationTimestamp) {
+		if (creationTimestamp == null) return "";
+		try {
+			long secs = Math.max(0, Duration.between(Instant.parse(creationTimestamp), Instant.now()).getSeconds());
+			if (secs < 120) return secs + "s";
+			if (secs < 2 * 3600) return (secs / 60) + "m";
+			if (secs < 2 * 86400) return (secs / 3600) + "h";
+			return (secs / 86400) + "d";
+		} catch (Exception e) {
+			return "";
+		}
+	}
+
+	private static Comparator<PodInfo> podOrder(String sort) {
+		if (sort == null || sort.isBlank()) return null;
+		boolean desc = sort.startsWith("-");
+		String key = desc ? sort.substring(1) : sort;
+		Comparator<PodInfo> c;
+		switch (key.toLowerCase()) {
+			case "name": c = Comparator.comparing(PodInfo::getName, Comparator.nullsLast(Comparator.naturalOrder())); break;
+			case "namespace": c = Comparator.comparing(PodInfo::getNamespace, Comparator.nullsLast(Comparator.naturalOrder())); break;
+			case "status": c = Comparator.comparing(PodInfo::getStatus, Comparator.nullsLast(Comparator.naturalOrder())); break;
+			case "restarts": c = Comparator.comparingInt(PodInfo::getRestarts); break;
+			// youngest first
+			case "age": c = Comparator.comparing(PodInfo::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())); break;
+			default: throw new IllegalArgumentException("unsupported sort: " + sort);
+		}
+		return desc ? c.reversed() : c;
 	}
 
 	/**
@@ -134,98 +325,159 @@ public class K8sService {
 		}
 
 		try {
-			Pod pod = client.pods().inNamespace(namespace).withName(podName).get();
-			if (pod == null) {
-				return false; // not found
-			}
-
-			Object result = client.pods().inNamespace(namespace).withName(podName).delete();
-
-			if (result instanceof Boolean) {
-				return (Boolean) result;
-			} else if (result instanceof List<?>) {
-				List<?> list = (List<?>) result;
-				return !list.isEmpty();
-			} else {
-				return true;
-			}
+			return deletePod(namespace, podName);
 		} catch (Exception e) {
 			System.err.println("Error deleting pod: " + e.getMessage());
 			return false;
 		}
 	}
 
+	/**
+	 * Delete a pod in one call (no pre-GET: the delete result already says whether it existed).
+	 * Returns false if the pod was not found; API errors propagate.
+	 */
+	boolean deletePod(String namespace, String podName) {
+		Object result = metrics.record("pods.delete", () -> client.pods().inNamespace(namespace).withName(podName).delete());
+
+		if (result instanceof Boolean) {
+			return (Boolean) result;
+		} else if (result instanceof List<?>) {
+			List<?> list = (List<?>) result;
+			return !list.isEmpty();
+		} else {
+			return true;
+		}
+	}
+
 	/**
 	 * Get a ConfigMap by name in the current context (default namespace resolution applies).
 	 */
 	public ConfigMap getConfigMap(String name) {
 		// This method assumes default namespace context; if you need namespace-specific, add param
-		return client.configMaps().withName(name).get();
+		return metrics.record("configmaps.get", () -> client.configMaps().withName(name).get());
 	}
 
 	/**
 	 * Update (or create data map) for a ConfigMap key.
 	 */
 	public void updateConfigMap(String name, String key, String value) {
-		client.configMaps().withName(name).edit(cm -> {
-			if (cm.getData() == null) {
-				cm.setData(new HashMap<>());
-			}
-			cm.getData().put(key, value);
-			return cm;
-		});
+		patchConfigMapData(client.getNamespace(), name, Map.of(key, value), null, null);
 	}
 
 	/**
-	 * Fetch logs for a pod in a specific namespace. Returns the logs string,
-	 * or a message starting with "ERROR:" if something went wrong / pod not found.
+	 * Build the log source for a pod, honoring container / previous / sinceSeconds / tailLines.
+	 * Returns null if the pod does not exist. Nothing is read until the caller opens the stream.
 	 */
-	public String getPodLogs(String namespace, String podName) {
+	public Loggable podLog(String namespace, String podName, String container, boolean previous,
+			Integer tailLines, Integer sinceSeconds) {
 		if (namespace == null || namespace.isBlank() || podName == null || podName.isBlank()) {
-			return "ERROR: namespace or podName missing";
+			return null;
 		}
-		try {
-			Pod pod = client.pods().inNamespace(namespace).withName(podName).get();
-			if (pod == null) {
-				return "ERROR: pod not found in namespace " + namespace;
+		Pod pod = cache.isReady()
+				? cache.getPod(namespace, podName)
+				: metrics.record("pods.get", () -> client.pods().inNamespace(namespace).withName(podName).get());
+		if (pod == null) {
+			return null;
+		}
+
+		return logSource(namespace, podName, container, previous, tailLines, sinceSeconds, false);
+	}
+
+	/** Log source for a pod known to exist; timestamps=true prefixes every line with its RFC3339 time. */
+	Loggable logSource(String namespace, String podName, String container, boolean previous,
+			Integer tailLines, Integer sinceSeconds, boolean timestamps) {
+		PodResource res = client.pods().inNamespace(namespace).withName(podName);
+		ContainerResource target = (container != null && !container.isBlank()) ? res.inContainer(container) : res;
+		BytesLimitTerminateTimeTailPrettyLoggable base = timestamps ? target.usingTimestamps() : target;
+		TimeTailPrettyLoggable timed = previous ? base.terminated() : base;
+		TailPrettyLoggable tailed = (sinceSeconds != null && sinceSeconds > 0) ? timed.sinceSeconds(sinceSeconds) : timed;
+		return (tailLines != null && tailLines >= 0) ? tailed.tailingLines(tailLines) : tailed;
+	}
+
+	/** Pods in a namespace carrying all the given labels. */
+	public List<Pod> listPodsByLabels(String namespace, Map<String, String> labels) {
+		if (cache.isReady()) {
+			return cache.listPods(namespace).stream()
+					.filter(p -> p.getMetadata() != null && p.getMetadata().getLabels() != null
+							&& p.getMetadata().getLabels().entrySet().containsAll(labels.entrySet()))
+					.collect(Collectors.toList());
+		}
+		return metrics.record("pods.list", () -> client.pods().inNamespace(namespace).withLabels(labels).list().getItems());
+	}
+
+	/** matchLabels of a deployment's pod selector, or null if the deployment does not exist. */
+	public Map<String, String> getDeploymentSelector(String namespace, String name) {
+		Deployment dep = cache.isReady()
+				? cache.getDeployment(namespace, name)
+				: metrics.record("deployments.get", () -> client.apps().deployments().inNamespace(namespace).withName(name).get());
+		if (dep == null || dep.getSpec() == null || dep.getSpec().getSelector() == null) {
+			return null;
+		}
+		Map<String, String> labels = dep.getSpec().getSelector().getMatchLabels();
+		return labels != null ? labels : Map.of();
+	}
+
+	/**
+	 * Copy a pod log to the given stream through a fixed 8 KB buffer, so heap use does not depend
+	 * on the log size. Writes block when the client reads slowly, which in turn stops reading from
+	 * the apiserver. With follow=true this keeps going until the pod stops or the client disconnects.
+	 */
+	public void streamPodLog(Loggable log, boolean follow, OutputStream out) throws IOException {
+		if (follow) {
+			try (LogWatch watch = metrics.record("pods.log", log::watchLog)) {
+				copy(watch.getOutput(), out, true);
 			}
-			return client.pods().inNamespace(namespace).withName(podName).getLog();
-		} catch (Exception e) {
-			return "ERROR: " + e.getMessage();
+		} else {
+			try (InputStream in = metrics.record("pods.log", log::getLogInputStream)) {
+				copy(in, out, false);
+			}
+		}
+	}
+
+	private static void copy(InputStream in, OutputStream out, boolean flushEachChunk) throws IOException {
+		byte[] buf = new byte[LOG_BUFFER_BYTES];
+		int n;
+		while ((n = in.read(buf)) != -1) {
+			out.write(buf, 0, n);
+			if (flushEachChunk) out.flush();
 		}
+		out.flush();
 	}
 
 	/**
-	 * Get a single Deployment object (as a Map for JSON response)
+	 * Get a single Deployment object (the editor needs all of it, so it is returned as is), or null if absent
 	 */
-	public Map<String, Object> getDeployment(String namespace, String name) {
-		Deployment dep = client.apps().deployments()
+	public Deployment getDeployment(String namespace, String name) {
+		Deployment dep = cache.isReady()
+				? cache.getDeployment(namespace, name)
+				: metrics.record("deployments.get", () -> client.apps().deployments()
 				.inNamespace(namespace)
 				.withName(name)
-				.get();
-
-		if (dep == null) {
-			return null;
-		}
+				.get());
+		return dep;
+	}
 
-		try {
-			return MAPPER.convertValue(dep, Map.class);
-		} catch (Exception e) {
-			Map<String, Object> err = new HashMap<>();
-			err.put("error", "Conversion failed");
-			err.put("message", e.getMessage());
-			return err;
-		}
+	/**
+	 * The Deployment as the apiserver has it now, bypassing the informer cache (which may lag
+	 * behind), or null if absent. For diffing an edit against the version it was made from.
+	 */
+	public Deployment getDeploymentLive(String namespace, String name) {
+		return metrics.record("deployments.get", () -> client.apps().deployments()
+				.inNamespace(namespace)
+				.withName(name)
+				.get());
 	}
 
 	/**
-	 * Compute the dashboard summary:
-	 * 1) Running: pods with phase Running AND totalContainers==1 && readyContainers==1 (1/1)
-	 * 2) Pending: phase Pending OR any container waiting reason contains "ContainerCreating"/"creating"
-	 * 3) Abnormal: phase Failed OR any container showing CrashLoopBackOff OR totalRestarts > 0
-	 * 4) Services with zero pods: services that have a selector but match no pods in their namespace
+	 * Compute the dashboard summary (see {@link SummaryTracker#classify(Pod)} for the pod rules).
+	 * Services with zero pods: services in the requested namespace(s) that have a selector but match no pods.
+	 * When the informer cache is synced the counters are read from {@link SummaryTracker} instead.
 	 */
 	public Summary getSummary(String namespace) {
+		if (summaryTracker.isReady()) {
+			return summaryTracker.getSummary(namespace);
+		}
+
 		List<Pod> pods = listPods(namespace);
 
 		int runningCount = 0;
@@ -233,93 +485,24 @@ public class K8sService {
 		int abnormalCount = 0;
 
 		for (Pod pod : pods) {
-			String phase = "Unknown";
-			if (pod.getStatus() != null && pod.getStatus().getPhase() != null) {
-				phase = pod.getStatus().getPhase();
-			}
-
-			List<ContainerStatus> statuses = (pod.getStatus() != null) ? pod.getStatus().getContainerStatuses() : null;
-
-			int totalContainers = 0;
-			int readyContainers = 0;
-			int totalRestarts = 0;
-			boolean hasCrashLoop = false;
-			boolean hasCreating = false;
-
-			if (statuses != null) {
-				totalContainers = statuses.size();
-				for (ContainerStatus cs : statuses) {
-					if (cs == null) continue;
-					Boolean ready = cs.getReady();
-					if (ready != null && ready) readyContainers++;
-					Integer rc = cs.getRestartCount();
-					if (rc != null) totalRestarts += rc;
-
-					if (cs.getState() != null && cs.getState().getWaiting() != null) {
-						String waitingReason = cs.getState().getWaiting().getReason();
-						if (waitingReason != null) {
-							String r = waitingReason.toLowerCase();
-							if (r.contains("crashloop")) hasCrashLoop = true;
-							if (r.contains("containercreating") || r.contains("creating") || r.contains("create")) {
-								hasCreating = true;
-							}
-						}
-					}
-				}
-			}
-
-			if ("Running".equalsIgnoreCase(phase) && totalContainers == 1 && readyContainers == 1) {
-				runningCount++;
-			}
-
-			if ("Pending".equalsIgnoreCase(phase) || hasCreating) {
-				pendingCount++;
-			}
-
-			if ("Failed".equalsIgnoreCase(phase) || hasCrashLoop || totalRestarts > 0) {
-				abnormalCount++;
-			}
+			int mask = SummaryTracker.classify(pod);
+			if ((mask & SummaryTracker.RUNNING) != 0) runningCount++;
+			if ((mask & SummaryTracker.PENDING) != 0) pendingCount++;
+			if ((mask & SummaryTracker.ABNORMAL) != 0) abnormalCount++;
 		}
 
-		int servicesZeroPods = 0;
-		List<io.fabric8.kubernetes.api.model.Service> services = client.services().inAnyNamespace().list().getItems();
-		for (io.fabric8.kubernetes.api.model.Service svc : services) {
-			if (svc.getSpec() == null) continue;
-			Map<String, String> selector = svc.getSpec().getSelector();
-			if (selector == null || selector.isEmpty()) continue;
-			String ns = (svc.getMetadata() != null && svc.getMetadata().getNamespace() != null)
-					? svc.getMetadata().getNamespace()
-							: "default";
-
-			List<Pod> matched = client.pods().inNamespace(ns).withLabels(selector).list().getItems();
-			if (matched == null || matched.isEmpty()) {
-				servicesZeroPods++;
-			}
-		}
+		// one LIST of services in the same scope as the pods, matched in memory against the pod snapshot
+		PodSelectorIndex index = PodSelectorIndex.build(pods);
+		int servicesZeroPods = servicesWithZeroPods(listServicesScoped(namespace), index, false).size();
 
 		return new Summary(runningCount, pendingCount, abnormalCount, servicesZeroPods);
 	}
 
 	public boolean updateConfigMapKey(String namespace, String configMapName, String key, String value) {
 		try {
-			if (namespace == null || namespace.isBlank()) namespace = "default";
-			ConfigMap cm = client.configMaps().inNamespace(namespace).withName(configMapName).get();
-			if (cm == null) {
-				ConfigMap newCm = new ConfigMap();
-				newCm.setMetadata(new ObjectMeta());
-				newCm.getMetadata().setName(configMapName);
-				newCm.setData(new java.util.HashMap<>());
-				newCm.getData().put(key, value);
-				client.configMaps().inNamespace(namespace).create(newCm);
-				return true;
-			} else {
-				client.configMaps().inNamespace(namespace).withName(configMapName).edit(existing -> {
-					if (existing.getData() == null) existing.setData(new java.util.HashMap<>());
-					existing.getData().put(key, value);
-					return existing;
-				});
-				return true;
-			}
+			String ns = (namespace == null || namespace.isBlank()) ? "default" : namespace;
+			patchConfigMapData(ns, configMapName, Map.of(key, value), null, null);
+			return true;
 		} catch (Exception e) {
 			return false;
 		}
@@ -328,30 +511,88 @@ public class K8sService {
 	public boolean scaleDeployment(String namespace, String deploymentName, int replicas) {
 		try {
 			if (namespace == null || namespace.isBlank()) namespace = "default";
-			Deployment dep = client.apps().deployments().inNamespace(namespace).withName(deploymentName).get();
-			if (dep == null) return false;
-			try {
-				client.apps().deployments().inNamespace(namespace).withName(deploymentName).scale(replicas);
-				return true;
-			} catch (NoSuchMethodError | UnsupportedOperationException ex) {
-				client.apps().deployments().inNamespace(namespace).withName(deploymentName).edit(d -> {
-					d.getSpec().setReplicas(replicas);
-					return d;
-				});
-				return true;
-			}
+			return applyScale(namespace, deploymentName, replicas);
 		} catch (Exception e) {
 			return false;
 		}
 	}
 
+	/**
+	 * Set a deployment's replicas with one JSON merge patch of spec.replicas: a single PATCH, no
+	 * GET first. (Fabric8's scale() reads the scale subresource and the deployment around its PUT,
+	 * and patching withName(..) fetches the deployment first; a resource(..) reference does not.)
+	 * Returns false if the deployment does not exist; other API errors propagate.
+	 */
+	boolean applyScale(String namespace, String deploymentName, int replicas) {
+		String json = "{\"spec\":{\"replicas\":" + replicas + "}}";
+		Deployment ref = new DeploymentBuilder()
+				.withNewMetadata().withNamespace(namespace).withName(deploymentName).endMetadata()
+				.build();
+		try {
+			metrics.record("deployments.scale", () -> client.apps().deployments()
+					.inNamespace(namespace).resource(ref).patch(PatchContext.of(PatchType.JSON_MERGE), json));
+			return true;
+		} catch (KubernetesClientException e) {
+			if (e.getCode() == 404) return false;
+			throw e;
+		}
+	}
+
+	/**
+	 * Replace a deployment with the given object (editor save with ?mode=replace); its metadata
+	 * carries the name (and the resourceVersion the edit started from, if any).
+	 */
+	public Deployment replaceDeployment(String namespace, String name, Deployment updated) {
+		updated.getMetadata().setName(name);
+		return metrics.record("deployments.replace",
+				() -> client.apps().deployments().inNamespace(namespace).resource(updated).update());
+	}
+
+	/**
+	 * Apply a JSON merge patch (see {@link JsonMergePatch}) to a deployment; only the fields in it
+	 * change. A patch carrying metadata.resourceVersion only applies to that version and fails
+	 * with a 409 otherwise; one without is retried on conflicts.
+	 */
+	public Deployment patchDeployment(String namespace, String name, ObjectNode mergePatch) {
+		String json = mergePatch.toString();
+		Supplier<Deployment> call = () -> metrics.record("deployments.patch", () -> client.apps().deployments()
+				.inNamespace(namespace).withName(name).patch(PatchContext.of(PatchType.JSON_MERGE), json));
+		return hasResourceVersion(mergePatch) ? call.get() : retryConflicts(call);
+	}
+
+	/**
+	 * Server-side apply of a deployment as {@link #FIELD_MANAGER}. Fields owned by another manager
+	 * (kubectl, a controller) fail with a 409 listing them, unless force takes them over.
+	 */
+	public Deployment applyDeployment(String namespace, Deployment desired, boolean force) {
+		desired.setStatus(null);
+		if (desired.getMetadata() != null) desired.getMetadata().setManagedFields(null);
+		return metrics.record("deployments.apply", () -> {
+			var resource = client.apps().deployments().inNamespace(namespace).resource(desired);
+			return force
+					? resource.fieldManager(FIELD_MANAGER).forceConflicts().serverSideApply()
+					: resource.fieldManager(FIELD_MANAGER).serverSideApply();
+		});
+	}
+
+	/** Deployments in a namespace carrying all the given labels. */
+	public List<Deployment> listDeploymentsByLabels(String namespace, Map<String, String> labels) {
+		if (cache.isReady()) {
+			return cache.listDeployments(namespace).stream()
+					.filter(d -> d.getMetadata() != null && d.getMetadata().getLabels() != null
+							&& d.getMetadata().getLabels().entrySet().containsAll(labels.entrySet()))
+					.collect(Collectors.toList());
+		}
+		return metrics.record("deployments.list", () -> client.apps().deployments().inNamespace(namespace).withLabels(labels).list().getItems());
+	}
+
 	public Map<String, String> getConfigMapData(String namespace, String name) {
 		try {
-			if (namespace == null || namespace.isBlank()) namespace = "default";
-			ConfigMap cm = client.configMaps()
-					.inNamespace(namespace)
+			String ns = (namespace == null || namespace.isBlank()) ? "default" : namespace;
+			ConfigMap cm = metrics.record("configmaps.get", () -> client.configMaps()
+					.inNamespace(ns)
 					.withName(name)
-					.get();
+					.get());
 
 			if (cm == null || cm.getData() == null) {
 				return Map.of();
@@ -363,8 +604,8 @@ public class K8sService {
 	}
 
 	public Map<String, Object> getConfigMapFull(String namespace, String name) {
-		if (namespace == null || namespace.isBlank()) namespace = "default";
-		ConfigMap cm = client.configMaps().inNamespace(namespace).withName(name).get();
+		String ns = (namespace == null || namespace.isBlank()) ? "default" : namespace;
+		ConfigMap cm = metrics.record("configmaps.get", () -> client.configMaps().inNamespace(ns).withName(name).get());
 		if (cm == null) return null;
 		return Map.of(
 				"metadata", cm.getMetadata(),
@@ -374,71 +615,144 @@ public class K8sService {
 
 	/**
 	 * Replace entire ConfigMap data atomically.
-	 * - Creates a timestamped backup copy first (namespace, name-backup-TIMESTAMP)
 	 * - If baseResourceVersion provided, checks for match and returns false on mismatch
 	 */
 	public boolean replaceConfigMapFull(String namespace, String name, Map<String, String> newData, String baseResourceVersion) {
-		if (namespace == null || namespace.isBlank()) namespace = "default";
+		return replaceConfigMapFull(namespace, name, newData, baseResourceVersion, previous -> {});
+	}
+
+	/**
+	 * Same as above; replaced is called with the ConfigMap as it was before a successful edit
+	 * (see ConfigMapHistoryService), using the object already read for the version check.
+	 */
+	public boolean replaceConfigMapFull(String namespace, String name, Map<String, String> newData, String baseResourceVersion,
+			Consumer<ConfigMap> replaced) {
+		String ns = (namespace == null || namespace.isBlank()) ? "default" : namespace;
 		try {
-			ConfigMap existing = client.configMaps().inNamespace(namespace).withName(name).get();
+			ConfigMap existing = metrics.record("configmaps.get", () -> client.configMaps().inNamespace(ns).withName(name).get());
 			if (existing == null) {
 				ConfigMap cm = new ConfigMap();
 				ObjectMeta meta = new ObjectMeta();
 				meta.setName(name);
 				cm.setMetadata(meta);
 				cm.setData(newData != null ? newData : Map.of());
-				client.configMaps().inNamespace(namespace).create(cm);
+				metrics.record("configmaps.create", () -> client.configMaps().inNamespace(ns).resource(cm).create());
 				return true;
 			}
 
+			String rv = existing.getMetadata().getResourceVersion();
 			if (baseResourceVersion != null && !baseResourceVersion.isBlank()) {
-				String rv = existing.getMetadata().getResourceVersion();
 				if (!baseResourceVersion.equals(rv)) {
 					return false;
 				}
 			}
 
-			try {
-				String ts = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").format(ZonedDateTime.now());
-				String backupName = name + "-backup-" + ts;
-				ConfigMap backup = new ConfigMap();
-				ObjectMeta bm = new ObjectMeta();
-				bm.setName(backupName);
-				bm.setNamespace(namespace);
-				backup.setMetadata(bm);
-				backup.setData(existing.getData() == null ? Map.of() : existing.getData());
-				client.configMaps().inNamespace(namespace).create(backup);
-			} catch (Exception ex) {
-				// backup failure shouldn't block replace
-			}
-
-			client.configMaps().inNamespace(namespace).withName(name).edit(cm -> {
-				cm.setData(newData != null ? newData : Map.of());
-				return cm;
+			// send only the keys that changed, guarded by the version just read
+			Map<String, String> before = existing.getData() != null ? existing.getData() : Map.of();
+			Map<String, String> after = newData != null ? newData : Map.of();
+			Map<String, String> set = new LinkedHashMap<>();
+			after.forEach((k, v) -> {
+				if (!Objects.equals(v, before.get(k))) set.put(k, v);
 			});
+			List<String> remove = before.keySet().stream().filter(k -> !after.containsKey(k)).collect(Collectors.toList());
+			if (set.isEmpty() && remove.isEmpty()) {
+				return true;
+			}
+			patchConfigMapData(ns, name, set, remove, rv);
 
+			replaced.accept(existing);
 			return true;
 		} catch (Exception e) {
 			return false;
 		}
 	}
 
-	public List<Map<String, Object>> listDeployments(String namespace) {
-		DeploymentList list = client.apps().deployments()
-				.inNamespace(namespace)
-				.list();
+	/**
+	 * Set and remove several ConfigMap keys in one JSON merge patch, without reading it first:
+	 * {"data":{"a":"1","gone":null}}. With a resourceVersion the patch only applies to that
+	 * version (409 otherwise); without one it is retried on conflicts, and a missing ConfigMap is
+	 * created with the keys to set.
+	 */
+	public ConfigMap patchConfigMapData(String namespace, String name, Map<String, String> set,
+			Collection<String> remove, String resourceVersion) {
+		ObjectNode patch = JsonNodeFactory.instance.objectNode();
+		ObjectNode data = patch.putObject("data");
+		if (remove != null) remove.forEach(data::putNull);
+		if (set != null) set.forEach(data::put);
+		boolean guarded = resourceVersion != null && !resourceVersion.isBlank();
+		if (guarded) patch.putObject("metadata").put("resourceVersion", resourceVersion);
+		String json = patch.toString();
+
+		Supplier<ConfigMap> call = () -> metrics.record("configmaps.patch", () -> client.configMaps()
+				.inNamespace(namespace).withName(name).patch(PatchContext.of(PatchType.JSON_MERGE), json));
+		try {
+			return guarded ? call.get() : retryConflicts(call);
+		} catch (KubernetesClientException e) {
+			if (guarded || e.getCode() != 404) throw e;
+			ConfigMap cm = new ConfigMap();
+			ObjectMeta meta = new ObjectMeta();
+			meta.setName(name);
+			cm.setMetadata(meta);
+			cm.setData(set != null ? new HashMap<>(set) : new HashMap<>());
+			return createConfigMap(namespace, cm);
+		}
+	}
+
+	private static boolean hasResourceVersion(ObjectNode patch) {
+		return patch.path("metadata").hasNonNull("resourceVersion");
+	}
 
-		if (list == null || list.getItems() == null) {
-			return Collections.emptyList();
+	/**
+	 * Run an unguarded patch, retrying a 409 (conflict) or 429 (throttled) up to PATCH_RETRIES
+	 * times with jittered exponential backoff. Such a patch applies to whatever version is
+	 * current, so a retry can succeed; anything else is thrown right away.
+	 */
+	private static <T> T retryConflicts(Supplier<T> call) {
+		long backoff = PATCH_BACKOFF_MILLIS;
+		for (int attempt = 0; ; attempt++) {
+			try {
+				return call.get();
+			} catch (KubernetesClientException e) {
+				if (attempt >= PATCH_RETRIES || (e.getCode() != 409 && e.getCode() != 429)) throw e;
+			}
+			try {
+				Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new KubernetesClientException("Interrupted while retrying a patch", e);
+			}
+			backoff = Math.min(backoff * 2, PATCH_MAX_BACKOFF_MILLIS);
+		}
+	}
+
+	/** A ConfigMap by namespace and name, or null. */
+	public ConfigMap findConfigMap(String namespace, String name) {
+		return metrics.record("configmaps.get", () -> client.configMaps().inNamespace(namespace).withName(name).get());
+	}
+
+	public ConfigMap createConfigMap(String namespace, ConfigMap cm) {
+		return metrics.record("configmaps.create", () -> client.configMaps().inNamespace(namespace).resource(cm).create());
+	}
+
+	/** Update guarded by cm's resourceVersion: a concurrent change fails with a 409 KubernetesClientException. */
+	public ConfigMap updateConfigMap(String namespace, ConfigMap cm) {
+		return metrics.record("configmaps.update", () -> client.configMaps().inNamespace(namespace).resource(cm).update());
+	}
+
+	public List<DeploymentSummary> listDeployments(String namespace) {
+		List<Deployment> items;
+		if (cache.isReady()) {
+			items = cache.listDeployments(namespace);
+		} else {
+			DeploymentList list = metrics.record("deployments.list", () -> client.apps().deployments()
+					.inNamespace(namespace)
+					.list());
+			if (list == null || list.getItems() == null) {
+				return Collections.emptyList();
+			}
+			items = list.getItems();
 		}
 
-		return list.getItems().stream()
-				.map(dep -> Map.of(
-						"name", dep.getMetadata().getName(),
-						"replicas", dep.getSpec() != null ? dep.getSpec().getReplicas() : null,
-								"availableReplicas", dep.getStatus() != null ? dep.getStatus().getAvailableReplicas() : null,
-										"labels", dep.getMetadata().getLabels()
-						))
-				.collect(Collectors.toList());
+		return items.stream().map(DeploymentSummary::from).collect(Collectors.toList());
 	}
 }
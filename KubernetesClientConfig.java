@@ -4,9 +4,14 @@ import io.fabric8.kubernetes.client.Config;
 import io.fabric8.kubernetes.client.ConfigBuilder;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import io.fabric8.kubernetes.client.vertx.VertxHttpClientFactory;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.ext.web.client.WebClientOptions;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 @Configuration
 public class KubernetesClientConfig {
 
@@ -23,27 +28,98 @@ public class KubernetesClientConfig {
 
             // Prefer token if provided
             if (props.getToken() != null && !props.getToken().isBlank()) {
-                config = new ConfigBuilder()
+                config = tuned(new ConfigBuilder()
                         .withMasterUrl(props.getApiServer())
                         .withOauthToken(props.getToken())
-                        .withTrustCerts(props.isTrustCerts())
-                        .build();
+                        .withTrustCerts(props.isTrustCerts()));
             } else {
-                config = new ConfigBuilder()
+                config = tuned(new ConfigBuilder()
                         .withMasterUrl(props.getApiServer())
                         .withUsername(props.getUsername())
                         .withPassword(props.getPassword())
-                        .withTrustCerts(props.isTrustCerts())
-                        .build();
+                        .withTrustCerts(props.isTrustCerts()));
             }
 
             System.out.println("🔗 [K8S] Connected using manual mode: " + props.getApiServer());
-            return new KubernetesClientBuilder().withConfig(config).build();
+            return build(config);
 
         } else {
             // Auto: use default kubeconfig or in-cluster credentials
             System.out.println("🔗 [K8S] Using kubeconfig or in-cluster credentials (auto mode)");
-            return new KubernetesClientBuilder().build();
+            return build(tuned(new ConfigBuilder(Config.autoConfigure(null))));
+        }
+    }
+
+    /** Config of an extra cluster (k8s.clusters.*): a kubeconfig context, or an apiServer with credentials. */
+    public Config configFor(K8sProperties.Cluster cluster) {
+        if (cluster.getContext() != null && !cluster.getContext().isBlank()) {
+            return configForContext(cluster.getContext());
+        }
+        ConfigBuilder builder = new ConfigBuilder()
+                .withMasterUrl(cluster.getApiServer())
+                .withTrustCerts(cluster.isTrustCerts());
+        if (cluster.getToken() != null && !cluster.getToken().isBlank()) {
+            builder.withOauthToken(cluster.getToken());
+        } else {
+            builder.withUsername(cluster.getUsername()).withPassword(cluster.getPassword());
+        }
+        return tuned(builder);
+    }
+
+    /** Config of a kubeconfig context, with the same transport settings as the default client. */
+    public Config configForContext(String context) {
+        return tuned(new ConfigBuilder(Config.autoConfigure(context)));
+    }
+
+    /** A new client on the tuned transport; the caller owns it and must close it. */
+    public KubernetesClient newClient(Config config) {
+        return build(config);
+    }
+
+    /** Apply the k8s.* transport settings (timeouts, concurrency, watch backoff, HTTP/2). */
+    private Config tuned(ConfigBuilder builder) {
+        return builder
+                .withConnectionTimeout(props.getConnectTimeoutMillis())
+                .withRequestTimeout(props.getRequestTimeoutMillis())
+                .withMaxConcurrentRequests(props.getMaxConcurrentRequests())
+                .withMaxConcurrentRequestsPerHost(props.getMaxConcurrentRequestsPerHost())
+                .withWatchReconnectInterval(props.getWatchReconnectIntervalMillis())
+                .withWatchReconnectLimit(props.getWatchReconnectLimit())
+                .withHttp2Disable(!props.isHttp2())
+                .build();
+    }
+
+    private KubernetesClient build(Config config) {
+        return new KubernetesClientBuilder()
+                .withConfig(config)
+                .withHttpClientFactory(new TunedHttpClientFactory(props))
+                .build();
+    }
+
+    /**
+     * Vert.x transport with gzip responses when k8s.compression is on and HTTP/2 (ALPN) when
+     * k8s.http2 is on. The pool is sized to k8s.maxConcurrentRequests, leaving room for watches
+     * and followed logs (which hold a connection each on HTTP/1.1) next to the
+     * k8s.maxConcurrentRequestsPerHost ordinary calls admitted by K8sApiMetrics.
+     */
+    static class TunedHttpClientFactory extends VertxHttpClientFactory {
+        private final K8sProperties props;
+
+        TunedHttpClientFactory(K8sProperties props) {
+            this.props = props;
+        }
+
+        @Override
+        protected void additionalConfig(WebClientOptions options) {
+            int pool = Math.max(1, Math.max(props.getMaxConcurrentRequests(), props.getMaxConcurrentRequestsPerHost()));
+            options.setMaxPoolSize(pool);
+            options.setHttp2MaxPoolSize(Math.max(1, pool / 8));
+            options.setDecompressionSupported(props.isCompression());
+            if (props.isHttp2()) {
+                options.setProtocolVersion(HttpVersion.HTTP_2);
+                options.setUseAlpn(true);
+                options.setAlpnVersions(List.of(HttpVersion.HTTP_2, HttpVersion.HTTP_1_1));
+            }
         }
     }
 }
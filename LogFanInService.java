@@ -0,0 +1,335 @@
+package com.example.k8sui.service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Service;
+
+import com.example.k8sui.config.K8sProperties;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.dsl.LogWatch;
+import io.fabric8.kubernetes.client.dsl.Loggable;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Merges the logs of several pods (a label selector or a deployment's pods) into one stream,
+ * ordered by the kubelet timestamp of each line, with an optional server-side line filter so
+ * only matching lines are sent.
+ *
+ * Without follow, each pod log is already in time order, so the pods are k-way merged one line
+ * at a time. With follow, each pod's log is read on its own reader thread into a line-splitting
+ * OutputStream (Fabric8 7.0's LogWatch has no close callback, so reading to the end of the stream
+ * is how the end of a pod's log is noticed); lines go through a bounded queue and are released in
+ * timestamp order after a short reorder window. If the client reads too slowly the queue
+ * overflows and lines are dropped (and counted) rather than buffered. A follow ends when every
+ * pod log has ended; while nothing matches, an empty line is written every
+ * k8s.logFollowKeepAliveSeconds so a client that has gone away is noticed.
+ *
+ * At most k8s.logFanInMaxOpenLogs pod logs are open at once across all requests, merged or
+ * followed, and the reader pool has that many threads; a request whose pods don't fit gets an
+ * error line instead of its log.
+ */
+@Service
+public class LogFanInService {
+
+	private static final int MAX_LINE_BYTES = 64 * 1024;
+
+	private final K8sProperties props;
+	// pod log streams open at once, one permit each
+	private final Semaphore openLogs;
+	// followed pod logs, one blocking read each; never more threads than permits
+	private final ThreadPoolExecutor readers;
+
+	public LogFanInService(K8sProperties props) {
+		this.props = props;
+		int max = Math.max(props.getLogFanInMaxOpenLogs(), Math.max(1, props.getLogFanInMaxPods()));
+		this.openLogs = new Semaphore(max);
+		this.readers = new ThreadPoolExecutor(max, max, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+			Thread t = new Thread(r, "log-fan-in");
+			t.setDaemon(true);
+			return t;
+		});
+		this.readers.allowCoreThreadTimeOut(true);
+	}
+
+	@PreDestroy
+	public void stop() {
+		readers.shutdownNow();
+	}
+
+	/** Pods selected by a deployment name, or else by a "k=v,k2=v2" label selector. Null if the deployment is unknown. */
+	public List<Pod> resolvePods(K8sService k8sService, String namespace, String deployment, String selector) {
+		Map<String, String> labels;
+		if (deployment != null && !deployment.isBlank()) {
+			labels = k8sService.getDeploymentSelector(namespace, deployment);
+			if (labels == null) return null;
+		} else {
+			labels = K8sService.parseLabelSelector(selector);
+		}
+		if (labels.isEmpty()) {
+			throw new IllegalArgumentException("selector or deployment required");
+		}
+		List<Pod> pods = k8sService.listPodsByLabels(namespace, labels);
+		int max = Math.max(1, props.getLogFanInMaxPods());
+		if (pods.size() > max) {
+			throw new IllegalArgumentException(pods.size() + " pods match; at most " + max + " can be merged");
+		}
+		return pods;
+	}
+
+	/** Line filter: regex when given, otherwise substring; null/blank for no filtering. */
+	public static Predicate<String> lineFilter(String grep, String regex) {
+		if (regex != null && !regex.isBlank()) {
+			Pattern p = Pattern.compile(regex);
+			return line -> p.matcher(line).find();
+		}
+		if (grep != null && !grep.isEmpty()) {
+			return line -> line.contains(grep);
+		}
+		return line -> true;
+	}
+
+	/** Write the merged log, each line prefixed with "[pod] ". */
+	public void stream(K8sService k8sService, String namespace, List<Pod> pods, String container, Integer tailLines, Integer sinceSeconds,
+			boolean follow, Predicate<String> filter, OutputStream out) throws IOException {
+		if (!openLogs.tryAcquire(pods.size())) {
+			out.write("[fan-in] too many pod logs open, try again later\n".getBytes(StandardCharsets.UTF_8));
+			out.flush();
+			return;
+		}
+		try {
+			if (follow) {
+				follow(k8sService, namespace, pods, container, tailLines, sinceSeconds, filter, out);
+			} else {
+				merge(k8sService, namespace, pods, container, tailLines, sinceSeconds, filter, out);
+			}
+		} finally {
+			openLogs.release(pods.size());
+		}
+	}
+
+	private void merge(K8sService k8sService, String namespace, List<Pod> pods, String container, Integer tailLines, Integer sinceSeconds,
+			Predicate<String> filter, OutputStream out) throws IOException {
+		List<BufferedReader> readers = new ArrayList<>();
+		PriorityQueue<Line> heads = new PriorityQueue<>(Comparator.comparing((Line l) -> l.time).thenComparingInt(l -> l.source));
+		try {
+			for (Pod pod : pods) {
+				String name = pod.getMetadata().getName();
+				Loggable log = k8sService.logSource(namespace, name, container, false, tailLines, sinceSeconds, true);
+				readers.add(new BufferedReader(new InputStreamReader(log.getLogInputStream(), StandardCharsets.UTF_8)));
+			}
+			for (int i = 0; i < readers.size(); i++) {
+				Line l = nextMatching(readers.get(i), i, pods, filter);
+				if (l != null) heads.add(l);
+			}
+			while (!heads.isEmpty()) {
+				Line l = heads.poll();
+				write(out, l);
+				Line next = nextMatching(readers.get(l.source), l.source, pods, filter);
+				if (next != null) heads.add(next);
+			}
+			out.flush();
+		} finally {
+			for (BufferedReader r : readers) {
+				try { r.close(); } catch (IOException ignored) {}
+			}
+		}
+	}
+
+	private static Line nextMatching(BufferedReader r, int source, List<Pod> pods, Predicate<String> filter) throws IOException {
+		String raw;
+		while ((raw = r.readLine()) != null) {
+			Line l = Line.parse(source, pods.get(source).getMetadata().getName(), raw);
+			if (filter.test(l.message)) return l;
+		}
+		return null;
+	}
+
+	private void follow(K8sService k8sService, String namespace, List<Pod> pods, String container, Integer tailLines, Integer sinceSeconds,
+			Predicate<String> filter, OutputStream out) throws IOException {
+		BlockingQueue<Line> queue = new ArrayBlockingQueue<>(Math.max(100, props.getLogFanInQueueLines()));
+		AtomicLong dropped = new AtomicLong();
+		List<LogWatch> watches = new ArrayList<>();
+		// pod logs still open; each watch ends when its pod stops or is deleted
+		AtomicInteger open = new AtomicInteger(pods.size());
+		long window = Math.max(0, props.getLogFanInReorderMillis());
+		long keepAlive = TimeUnit.SECONDS.toMillis(Math.max(1, props.getLogFollowKeepAliveSeconds()));
+		PriorityQueue<Line> pending = new PriorityQueue<>(Comparator.comparing((Line l) -> l.time).thenComparingInt(l -> l.source));
+		try {
+			for (int i = 0; i < pods.size(); i++) {
+				String name = pods.get(i).getMetadata().getName();
+				Loggable log = k8sService.logSource(namespace, name, container, false, tailLines, sinceSeconds, true);
+				LogWatch watch = log.watchLog();
+				watches.add(watch);
+				LineSink sink = new LineSink(i, name, filter, queue, dropped);
+				readers.execute(() -> {
+					try (InputStream in = watch.getOutput()) {
+						in.transferTo(sink);
+					} catch (IOException | RuntimeException e) {
+						// closed when the follow ended, or the connection failed: either way this log is over
+					} finally {
+						open.decrementAndGet();
+					}
+				});
+			}
+
+			List<Line> batch = new ArrayList<>();
+			long reported = 0;
+			long lastWrite = System.currentTimeMillis();
+			// the follow thread is interrupted when the client goes away or the follow times out (LogFollowService)
+			while (open.get() > 0 || !queue.isEmpty() || !pending.isEmpty()) {
+				Line first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first != null) {
+					pending.add(first);
+					queue.drainTo(batch);
+					pending.addAll(batch);
+					batch.clear();
+				}
+
+				// once every log has ended nothing else can arrive, so the reorder window is not needed
+				long cutoff = open.get() > 0 ? System.currentTimeMillis() - window : Long.MAX_VALUE;
+				boolean wrote = false;
+				while (!pending.isEmpty() && pending.peek().arrivedAt <= cutoff) {
+					write(out, pending.poll());
+					wrote = true;
+				}
+				long d = dropped.get();
+				if (d != reported) {
+					out.write(("[fan-in] " + (d - reported) + " lines dropped (client too slow)\n").getBytes(StandardCharsets.UTF_8));
+					reported = d;
+					wrote = true;
+				}
+				long now = System.currentTimeMillis();
+				if (!wrote && now - lastWrite >= keepAlive) {
+					// a quiet (or fully filtered) follow still writes now and then, so a closed connection is noticed
+					out.write('\n');
+					wrote = true;
+				}
+				if (wrote) {
+					out.flush();
+					lastWrite = now;
+				}
+			}
+			out.write("[fan-in] all pod logs ended\n".getBytes(StandardCharsets.UTF_8));
+			out.flush();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			for (LogWatch w : watches) {
+				try { w.close(); } catch (Exception ignored) {}
+			}
+		}
+	}
+
+	private static void write(OutputStream out, Line l) throws IOException {
+		out.write(('[' + l.pod + "] " + l.raw + '\n').getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static final class Line {
+		final int source;
+		final String pod;
+		final Instant time;
+		final String message;
+		final String raw;
+		final long arrivedAt = System.currentTimeMillis();
+
+		private Line(int source, String pod, Instant time, String message, String raw) {
+			this.source = source;
+			this.pod = pod;
+			this.time = time;
+			this.message = message;
+			this.raw = raw;
+		}
+
+		// lines look like "2024-05-01T10:00:00.123456789Z message" when timestamps are requested
+		static Line parse(int source, String pod, String raw) {
+			int sp = raw.indexOf(' ');
+			if (sp > 0) {
+				try {
+					return new Line(source, pod, Instant.parse(raw.substring(0, sp)), raw.substring(sp + 1), raw);
+				} catch (DateTimeParseException ignored) {
+					// fall through: keep the line, order it by arrival
+				}
+			}
+			return new Line(source, pod, Instant.now(), raw, raw);
+		}
+	}
+
+	/** Receives one pod's log bytes from Fabric8, splits lines, filters them and enqueues matches. */
+	private static final class LineSink extends OutputStream {
+		private final int source;
+		private final String pod;
+		private final Predicate<String> filter;
+		private final BlockingQueue<Line> queue;
+		private final AtomicLong dropped;
+		private final ByteArrayOutputStream current = new ByteArrayOutputStream(256);
+
+		LineSink(int source, String pod, Predicate<String> filter, BlockingQueue<Line> queue, AtomicLong dropped) {
+			this.source = source;
+			this.pod = pod;
+			this.filter = filter;
+			this.queue = queue;
+			this.dropped = dropped;
+		}
+
+		@Override
+		public void write(int b) {
+			if (b == '\n') {
+				emit();
+			} else if (current.size() < MAX_LINE_BYTES) {
+				current.write(b);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			int start = off;
+			int end = off + len;
+			for (int i = off; i < end; i++) {
+				if (b[i] == '\n') {
+					append(b, start, i - start);
+					emit();
+					start = i + 1;
+				}
+			}
+			append(b, start, end - start);
+		}
+
+		private void append(byte[] b, int off, int len) {
+			int room = MAX_LINE_BYTES - current.size();
+			if (room > 0 && len > 0) current.write(b, off, Math.min(room, len));
+		}
+
+		private void emit() {
+			String raw = current.toString(StandardCharsets.UTF_8);
+			current.reset();
+			Line l = Line.parse(source, pod, raw);
+			if (filter.test(l.message) && !queue.offer(l)) {
+				dropped.incrementAndGet();
+			}
+		}
+	}
+}
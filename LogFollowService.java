@@ -0,0 +1,125 @@
+package com.example.k8sui.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.k8sui.config.K8sProperties;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Followed logs (follow=true on /api/pods/{ns}/{name}/logs and /api/logs/{ns}).
+ *
+ * A follow lasts as long as the log does, so it is sent through a ResponseBodyEmitter with its
+ * own timeout, k8s.logFollowMaxMinutes (0 = none), instead of spring.mvc.async.request-timeout.
+ * Follows run on a pool of at most k8s.logFollowMaxConcurrent threads, apart from the MVC async
+ * executor, so they cannot queue up other streamed responses; when the pool is full, start()
+ * throws RejectedExecutionException. What the body writes is sent to the client on each flush.
+ * When the client goes away, the time is up or the emitter fails, the follow thread is
+ * interrupted.
+ */
+@Service
+public class LogFollowService {
+
+	private static final MediaType TEXT = new MediaType("text", "plain", StandardCharsets.UTF_8);
+	private static final int SEND_BYTES = 64 * 1024;
+
+	private final ThreadPoolExecutor pool;
+	private final long timeoutMillis;
+
+	public LogFollowService(K8sProperties props) {
+		int max = Math.max(1, props.getLogFollowMaxConcurrent());
+		this.pool = new ThreadPoolExecutor(0, max, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+			Thread t = new Thread(r, "log-follow");
+			t.setDaemon(true);
+			return t;
+		});
+		this.timeoutMillis = props.getLogFollowMaxMinutes() > 0 ? TimeUnit.MINUTES.toMillis(props.getLogFollowMaxMinutes()) : -1L;
+	}
+
+	@PreDestroy
+	public void stop() {
+		pool.shutdownNow();
+	}
+
+	/** Start a follow; the emitter goes in the response body. */
+	public ResponseBodyEmitter start(StreamingResponseBody body) throws RejectedExecutionException {
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMillis);
+		Future<?> task = pool.submit(() -> run(emitter, body));
+		emitter.onTimeout(() -> task.cancel(true));
+		emitter.onError(e -> task.cancel(true));
+		emitter.onCompletion(() -> task.cancel(true));
+		return emitter;
+	}
+
+	/** A body that is just this text (error responses of the follow endpoints). */
+	public static ResponseBodyEmitter message(String text) {
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+		try {
+			emitter.send(text.getBytes(StandardCharsets.UTF_8), TEXT);
+			emitter.complete();
+		} catch (IOException e) {
+			emitter.completeWithError(e);
+		}
+		return emitter;
+	}
+
+	private static void run(ResponseBodyEmitter emitter, StreamingResponseBody body) {
+		try (EmitterOutputStream out = new EmitterOutputStream(emitter)) {
+			body.writeTo(out);
+			out.flush();
+			emitter.complete();
+		} catch (IOException | IllegalStateException e) {
+			// client went away (or the emitter is already done); the container completes the request
+		} catch (RuntimeException e) {
+			emitter.completeWithError(e);
+		}
+	}
+
+	/** Buffers writes and sends them as one chunk on flush (or when the buffer fills up). */
+	private static final class EmitterOutputStream extends OutputStream {
+		private final ResponseBodyEmitter emitter;
+		private final ByteArrayOutputStream buf = new ByteArrayOutputStream(8192);
+
+		EmitterOutputStream(ResponseBodyEmitter emitter) {
+			this.emitter = emitter;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			buf.write(b);
+			if (buf.size() >= SEND_BYTES) flush();
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			buf.write(b, off, len);
+			if (buf.size() >= SEND_BYTES) flush();
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (buf.size() == 0) return;
+			byte[] chunk = buf.toByteArray();
+			buf.reset();
+			emitter.send(chunk, TEXT);
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+}
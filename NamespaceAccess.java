@@ -0,0 +1,204 @@
+package com.example.k8sui.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.k8sui.config.K8sProperties;
+
+import io.fabric8.kubernetes.api.model.authorization.v1.SelfSubjectAccessReview;
+import io.fabric8.kubernetes.api.model.authorization.v1.SelfSubjectAccessReviewBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+
+/**
+ * Namespace names for the sidebar, without a LIST per page load.
+ *
+ * With the informer cache ready the names come from its namespace store (kept current by a
+ * WATCH); otherwise one LIST is shared by all callers for k8s.namespaceCacheSeconds. If the
+ * service account may not list namespaces at all, its own namespace is offered instead.
+ *
+ * With k8s.namespaceAccessReview, namespaces where the service account cannot list pods are
+ * left out, so the UI does not offer views that would only get 403s. One SelfSubjectAccessReview
+ * for all namespaces is tried first; only if that is denied is each namespace reviewed, at most
+ * k8s.namespaceAccessReviewParallelism at a time, and every answer is kept for
+ * k8s.namespaceAccessReviewSeconds. Concurrent callers share a review that is already running.
+ */
+@Service
+public class NamespaceAccess {
+
+	private static final Logger log = LoggerFactory.getLogger(NamespaceAccess.class);
+	// review key for "pods in every namespace"
+	private static final String ALL_NAMESPACES = "";
+
+	private final KubernetesClient client;
+	private final K8sInformerCache cache;
+	private final K8sApiMetrics metrics;
+	private final K8sProperties props;
+
+	private volatile List<String> names;
+	private volatile long namesLoadedAt;
+	private final Map<String, Review> reviews = new ConcurrentHashMap<>();
+	private final Map<String, CompletableFuture<Boolean>> reviewing = new ConcurrentHashMap<>();
+	private final ThreadPoolExecutor reviewPool;
+
+	public NamespaceAccess(KubernetesClient client, K8sInformerCache cache, K8sApiMetrics metrics, K8sProperties props) {
+		this.client = client;
+		this.cache = cache;
+		this.metrics = metrics;
+		this.props = props;
+		int parallelism = Math.max(1, props.getNamespaceAccessReviewParallelism());
+		// threads exit when idle, so a cluster that never reviews holds none
+		this.reviewPool = new ThreadPoolExecutor(parallelism, parallelism, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+			Thread t = new Thread(r, "namespace-review");
+			t.setDaemon(true);
+			return t;
+		});
+		this.reviewPool.allowCoreThreadTimeOut(true);
+	}
+
+	/** Namespace names, filtered by access review when that is enabled. */
+	public List<String> listNamespaces() {
+		List<String> all = cache.isReady()
+				? cache.listNamespaces().stream().map(ns -> ns.getMetadata().getName()).collect(Collectors.toList())
+				: cachedNames();
+		if (!props.isNamespaceAccessReview() || allowed(canListPods(ALL_NAMESPACES))) {
+			return all;
+		}
+		// start every review that is due, then collect the answers
+		List<CompletableFuture<Boolean>> answers = new ArrayList<>(all.size());
+		for (String ns : all) answers.add(canListPods(ns));
+		List<String> out = new ArrayList<>();
+		for (int i = 0; i < all.size(); i++) {
+			if (allowed(answers.get(i))) out.add(all.get(i));
+		}
+		reviews.keySet().retainAll(withAllKey(all));
+		return out;
+	}
+
+	/** Drop cached names and reviews, e.g. after RBAC changes. */
+	public void invalidate() {
+		names = null;
+		reviews.clear();
+	}
+
+	/** Cached names and reviews, for /api/cache/status. */
+	public Map<String, Object> getStatus() {
+		Map<String, Object> out = new LinkedHashMap<>();
+		List<String> n = names;
+		out.put("source", cache.isReady() ? "informer" : "list");
+		out.put("cachedNames", n != null ? n.size() : 0);
+		out.put("ageSeconds", n != null ? (System.currentTimeMillis() - namesLoadedAt) / 1000 : null);
+		out.put("accessReview", props.isNamespaceAccessReview());
+		out.put("reviewsCached", reviews.size());
+		return out;
+	}
+
+	private List<String> cachedNames() {
+		long ttl = TimeUnit.SECONDS.toMillis(Math.max(0, props.getNamespaceCacheSeconds()));
+		List<String> n = names;
+		if (n != null && System.currentTimeMillis() - namesLoadedAt < ttl) return n;
+		synchronized (this) {
+			// another caller may have loaded them while this one waited
+			n = names;
+			if (n != null && System.currentTimeMillis() - namesLoadedAt < ttl) return n;
+			n = loadNames();
+			names = n;
+			namesLoadedAt = System.currentTimeMillis();
+			return n;
+		}
+	}
+
+	private List<String> loadNames() {
+		try {
+			return metrics.record("namespaces.list", () -> client.namespaces().list().getItems()).stream()
+					.map(ns -> ns.getMetadata().getName())
+					.collect(Collectors.toList());
+		} catch (KubernetesClientException e) {
+			if (e.getCode() != 403) throw e;
+			log.info("Not allowed to list namespaces; offering only {}", client.getNamespace());
+			return client.getNamespace() != null ? List.of(client.getNamespace()) : List.of();
+		}
+	}
+
+	// the kept answer, the review already running for the namespace, or a new one
+	private CompletableFuture<Boolean> canListPods(String namespace) {
+		long ttl = TimeUnit.SECONDS.toMillis(Math.max(0, props.getNamespaceAccessReviewSeconds()));
+		Review r = reviews.get(namespace);
+		if (r != null && System.currentTimeMillis() - r.checkedAt < ttl) return CompletableFuture.completedFuture(r.allowed);
+		CompletableFuture<Boolean> mine = new CompletableFuture<>();
+		CompletableFuture<Boolean> running = reviewing.putIfAbsent(namespace, mine);
+		if (running != null) return running;
+		reviewPool.execute(() -> {
+			try {
+				boolean allowed = review(namespace);
+				reviews.put(namespace, new Review(allowed, System.currentTimeMillis()));
+				mine.complete(allowed);
+			} catch (RuntimeException e) {
+				mine.completeExceptionally(e);
+			} finally {
+				reviewing.remove(namespace, mine);
+			}
+		});
+		return mine;
+	}
+
+	private static boolean allowed(CompletableFuture<Boolean> answer) {
+		try {
+			return answer.join();
+		} catch (CompletionException e) {
+			// same as a failed review: don't hide anything
+			log.warn("Access review failed: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+			return true;
+		}
+	}
+
+	private boolean review(String namespace) {
+		SelfSubjectAccessReview review = new SelfSubjectAccessReviewBuilder()
+				.withNewSpec()
+				.withNewResourceAttributes()
+				.withNamespace(namespace)
+				.withVerb("list")
+				.withResource("pods")
+				.endResourceAttributes()
+				.endSpec()
+				.build();
+		try {
+			SelfSubjectAccessReview result = metrics.record("selfsubjectaccessreviews.create",
+					() -> client.authorization().v1().selfSubjectAccessReview().create(review));
+			return result.getStatus() != null && Boolean.TRUE.equals(result.getStatus().getAllowed());
+		} catch (KubernetesClientException e) {
+			// reviews themselves not allowed: don't hide anything
+			log.warn("Access review for namespace '{}' failed: {}", namespace, e.getMessage());
+			return true;
+		}
+	}
+
+	private static List<String> withAllKey(List<String> namespaces) {
+		List<String> keys = new ArrayList<>(namespaces);
+		keys.add(ALL_NAMESPACES);
+		return keys;
+	}
+
+	private static final class Review {
+		final boolean allowed;
+		final long checkedAt;
+
+		Review(boolean allowed, long checkedAt) {
+			this.allowed = allowed;
+			this.checkedAt = checkedAt;
+		}
+	}
+}
@@ -1,10 +1,16 @@
 package com.example.k8sui.model;
 
+/**
+ * Compact pod projection for list views: what the pods table shows and nothing more.
+ */
 public class PodInfo {
     private String name;
     private String status;
     private String namespace;
     private String age;
+    private String ready;          // e.g. "1/2" ready/total containers
+    private int restarts;
+    private String createdAt;      // creationTimestamp, for client-side age refresh
 
     public PodInfo() {}
 
@@ -15,6 +21,13 @@ public class PodInfo {
         this.age = age;
     }
 
+    public PodInfo(String name, String status, String namespace, String age, String ready, int restarts, String createdAt) {
+        this(name, status, namespace, age);
+        this.ready = ready;
+        this.restarts = restarts;
+        this.createdAt = createdAt;
+    }
+
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
@@ -26,4 +39,13 @@ public class PodInfo {
 
     public String getAge() { return age; }
     public void setAge(String age) { this.age = age; }
+
+    public String getReady() { return ready; }
+    public void setReady(String ready) { this.ready = ready; }
+
+    public int getRestarts() { return restarts; }
+    public void setRestarts(int restarts) { this.restarts = restarts; }
+
+    public String getCreatedAt() { return createdAt; }
+    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.k8sui.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/** One page of /api/pods/page; continueToken is null on the last page. */
+public record PodPage(List<PodInfo> items,
+                      @JsonProperty("continue") String continueToken,
+                      Long remainingItemCount) {}
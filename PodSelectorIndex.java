@@ -0,0 +1,124 @@
+package com.example.k8sui.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Pod;
+
+/**
+ * In-memory label-selector matcher for a snapshot of pods.
+ *
+ * Built in a single pass over the pods: every pod gets a sequential id and each
+ * (namespace, label key=value) pair maps to the ascending list of ids carrying it.
+ * A service selector is then answered by intersecting the postings of its
+ * key=value pairs, smallest list first, so no per-service LIST or pod scan is needed.
+ */
+public final class PodSelectorIndex {
+
+	private static final int[] EMPTY = new int[0];
+
+	private final Map<String, int[]> postings;
+	private final Map<String, Integer> podsPerNamespace;
+
+	private PodSelectorIndex(Map<String, int[]> postings, Map<String, Integer> podsPerNamespace) {
+		this.postings = postings;
+		this.podsPerNamespace = podsPerNamespace;
+	}
+
+	public static PodSelectorIndex build(Collection<Pod> pods) {
+		Map<String, Postings> building = new HashMap<>();
+		Map<String, Integer> perNs = new HashMap<>();
+		int id = 0;
+		for (Pod pod : pods) {
+			ObjectMeta meta = pod.getMetadata();
+			if (meta == null) continue;
+			String ns = meta.getNamespace() != null ? meta.getNamespace() : "default";
+			perNs.merge(ns, 1, Integer::sum);
+			Map<String, String> labels = meta.getLabels();
+			if (labels != null) {
+				for (Map.Entry<String, String> e : labels.entrySet()) {
+					building.computeIfAbsent(key(ns, e.getKey(), e.getValue()), k -> new Postings()).add(id);
+				}
+			}
+			id++;
+		}
+
+		Map<String, int[]> frozen = new HashMap<>(building.size() * 4 / 3 + 1);
+		building.forEach((k, p) -> frozen.put(k, p.toArray()));
+		return new PodSelectorIndex(frozen, perNs);
+	}
+
+	/** Number of indexed pods in a namespace. */
+	public int podCount(String namespace) {
+		return podsPerNamespace.getOrDefault(namespace, 0);
+	}
+
+	/**
+	 * True if at least one pod in the namespace carries every key=value of the selector.
+	 * An empty or null selector matches nothing, as for a Service.
+	 */
+	public boolean matchesAny(String namespace, Map<String, String> selector) {
+		return countMatches(namespace, selector, true) > 0;
+	}
+
+	/** Number of pods in the namespace matched by the selector. */
+	public int countMatches(String namespace, Map<String, String> selector) {
+		return countMatches(namespace, selector, false);
+	}
+
+	private int countMatches(String namespace, Map<String, String> selector, boolean stopAtFirst) {
+		if (selector == null || selector.isEmpty()) return 0;
+		String ns = namespace != null ? namespace : "default";
+
+		int[][] lists = new int[selector.size()][];
+		int i = 0;
+		for (Map.Entry<String, String> e : selector.entrySet()) {
+			int[] p = postings.getOrDefault(key(ns, e.getKey(), e.getValue()), EMPTY);
+			if (p.length == 0) return 0;
+			lists[i++] = p;
+		}
+		if (lists.length == 1) return stopAtFirst ? 1 : lists[0].length;
+
+		Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+		int[] smallest = lists[0];
+		int[] cursors = new int[lists.length];
+		int count = 0;
+		outer:
+		for (int candidate : smallest) {
+			for (int l = 1; l < lists.length; l++) {
+				int pos = Arrays.binarySearch(lists[l], cursors[l], lists[l].length, candidate);
+				if (pos < 0) {
+					cursors[l] = -pos - 1;
+					if (cursors[l] >= lists[l].length) break outer;
+					continue outer;
+				}
+				cursors[l] = pos + 1;
+			}
+			count++;
+			if (stopAtFirst) break;
+		}
+		return count;
+	}
+
+	private static String key(String ns, String labelKey, String labelValue) {
+		return ns + '\u0000' + labelKey + '=' + labelValue;
+	}
+
+	/** Growable int list; ids are appended in ascending order so it stays sorted. */
+	private static final class Postings {
+		private int[] ids = new int[4];
+		private int size;
+
+		void add(int id) {
+			if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+			ids[size++] = id;
+		}
+
+		int[] toArray() {
+			return size == ids.length ? ids : Arrays.copyOf(ids, size);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.k8sui.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.model.ContainerStateTerminated;
+import io.fabric8.kubernetes.api.model.ContainerStateWaiting;
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Pod;
+
+/**
+ * The part of a pod that /api/pods returns: same JSON shape as the Kubernetes object
+ * (metadata / status.containerStatuses[].state), without spec, managedFields and the rest.
+ */
+public record PodView(Metadata metadata, Status status) {
+
+    public record Metadata(String name, String namespace, Map<String, String> labels,
+                           String creationTimestamp, String resourceVersion) {}
+
+    public record Status(String phase, String reason, String podIP, String startTime,
+                         List<ContainerView> containerStatuses) {}
+
+    public record ContainerView(String name, Boolean ready, Integer restartCount, State state) {}
+
+    public record State(Reason waiting, Running running, Reason terminated) {}
+
+    public record Reason(String reason, String message) {}
+
+    public record Running(String startedAt) {}
+
+    public static PodView from(Pod pod) {
+        ObjectMeta m = pod.getMetadata();
+        Metadata meta = m == null ? null : new Metadata(m.getName(), m.getNamespace(), m.getLabels(),
+                m.getCreationTimestamp(), m.getResourceVersion());
+        var s = pod.getStatus();
+        if (s == null) return new PodView(meta, null);
+
+        List<ContainerView> containers = null;
+        if (s.getContainerStatuses() != null) {
+            containers = new ArrayList<>(s.getContainerStatuses().size());
+            for (ContainerStatus cs : s.getContainerStatuses()) {
+                if (cs == null) continue;
+                State state = null;
+                if (cs.getState() != null) {
+                    ContainerStateWaiting w = cs.getState().getWaiting();
+                    ContainerStateTerminated t = cs.getState().getTerminated();
+                    state = new State(
+                            w == null ? null : new Reason(w.getReason(), w.getMessage()),
+                            cs.getState().getRunning() == null ? null : new Running(cs.getState().getRunning().getStartedAt()),
+                            t == null ? null : new Reason(t.getReason(), t.getMessage()));
+                }
+                containers.add(new ContainerView(cs.getName(), cs.getReady(), cs.getRestartCount(), state));
+            }
+        }
+        return new PodView(meta, new Status(s.getPhase(), s.getReason(), s.getPodIP(), s.getStartTime(), containers));
+    }
+}
@@ -2,22 +2,35 @@ package com.example.k8sui.service;
 
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 
+/**
+ * Logs /api requests with status and duration at DEBUG; static assets are not logged.
+ * Latency per endpoint is recorded by the actuator as http.server.requests.
+ */
 @Component
 public class RequestLoggingFilter implements Filter {
     private static final Logger log = LoggerFactory.getLogger(RequestLoggingFilter.class);
 
     @Override
     public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
-        if (req instanceof HttpServletRequest) {
-            HttpServletRequest r = (HttpServletRequest) req;
-            log.info("Incoming request: {} {}", r.getMethod(), r.getRequestURI());
+        if (!log.isDebugEnabled() || !(req instanceof HttpServletRequest)
+                || !((HttpServletRequest) req).getRequestURI().startsWith("/api/")) {
+            chain.doFilter(req, res);
+            return;
+        }
+        HttpServletRequest r = (HttpServletRequest) req;
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            log.debug("{} {} -> {} in {} ms", r.getMethod(), r.getRequestURI(),
+                    ((HttpServletResponse) res).getStatus(), (System.nanoTime() - start) / 1_000_000);
         }
-        chain.doFilter(req, res);
     }
 }
\ No newline at end of file
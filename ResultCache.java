@@ -0,0 +1,198 @@
+package com.example.srvalidator.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recent validation results, keyed by what was asked (msgType, maxErrors) and a SHA-256 of
+ * the message, so a message that is validated again is answered without parsing it.
+ *
+ * At most srvalidator.resultCacheSize results are kept, least recently used first out, each
+ * for srvalidator.resultCacheTtlSeconds (size 0 turns caching off). A result remembers the
+ * schema version it was checked against; reloading that schema drops its results, and a hit
+ * from an older version is treated as a miss. Hits, misses and size are exported as
+ * validator.result.cache.* when Micrometer is on the classpath.
+ *
+ * Streamed documents up to srvalidator.resultCacheMaxBytes are read into memory first so they
+ * can be looked up; larger ones are validated as they arrive and never cached.
+ */
+@Component
+public class ResultCache {
+
+  private final SchemaRegistry schemas;
+  private final int maxSize;
+  private final long ttlMs;
+  private final int maxBytes;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+      boolean full = size() > maxSize;
+      if (full) evictions.incrementAndGet();
+      return full;
+    }
+  };
+
+  public ResultCache(SchemaRegistry schemas, ObjectProvider<MeterRegistry> meters,
+                     @Value("${srvalidator.resultCacheSize:10000}") int maxSize,
+                     @Value("${srvalidator.resultCacheTtlSeconds:600}") long ttlSeconds,
+                     @Value("${srvalidator.resultCacheMaxBytes:1048576}") int maxBytes) {
+    this.schemas = schemas;
+    this.maxSize = Math.max(0, maxSize);
+    this.ttlMs = Math.max(1, ttlSeconds) * 1000L;
+    this.maxBytes = Math.max(0, maxBytes);
+    schemas.addReloadListener(this::invalidate);
+    meters.ifAvailable(registry -> {
+      FunctionCounter.builder("validator.result.cache.hits", hits, AtomicLong::get).register(registry);
+      FunctionCounter.builder("validator.result.cache.misses", misses, AtomicLong::get).register(registry);
+      FunctionCounter.builder("validator.result.cache.evictions", evictions, AtomicLong::get).register(registry);
+      Gauge.builder("validator.result.cache.size", this, ResultCache::size).register(registry);
+    });
+  }
+
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  /** Largest streamed document that is buffered to be looked up (and cached). */
+  public int maxBytes() {
+    return maxBytes;
+  }
+
+  /** Cache key for a request; hash from {@link #hash(String)}, {@link #hash(byte[])} or a digest. */
+  public static String key(String msgType, int maxErrors, String hash) {
+    String type = msgType == null || msgType.isBlank() ? "auto" : msgType;
+    return type + "|" + maxErrors + "|" + hash;
+  }
+
+  /** A copy of the cached result with "cached": true, or null. */
+  public Map<String,Object> get(String key) {
+    if (!isEnabled()) return null;
+    Entry e;
+    synchronized (entries) {
+      e = entries.get(key);
+      if (e != null && (System.currentTimeMillis() - e.storedAt > ttlMs
+          || schemas.compiledVersion(e.schemaId) != e.schemaVersion)) {
+        entries.remove(key);
+        e = null;
+      }
+    }
+    if (e == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    Map<String,Object> copy = new LinkedHashMap<>(e.result);
+    copy.put("cached", true);
+    return copy;
+  }
+
+  /**
+   * Keep a result: only a definitive one (valid, or with its list of errors) that names the
+   * schema id and version it was checked against.
+   */
+  public void put(String key, Map<String,Object> result) {
+    if (!isEnabled()) return;
+    if (!Boolean.TRUE.equals(result.get("valid")) && !result.containsKey("errors")) return;
+    Object id = result.get("schema");
+    Object version = result.get("schemaVersion");
+    if (!(id instanceof String) || !(version instanceof Integer)) return;
+    Entry e = new Entry((String) id, (Integer) version, new LinkedHashMap<>(result), System.currentTimeMillis());
+    synchronized (entries) {
+      entries.put(key, e);
+    }
+  }
+
+  /** Drop every result checked against a schema (called when it is reloaded). */
+  public void invalidate(String schemaId) {
+    synchronized (entries) {
+      entries.values().removeIf(e -> e.schemaId.equals(schemaId));
+    }
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public Map<String,Object> stats() {
+    Map<String,Object> m = new LinkedHashMap<>();
+    long h = hits.get();
+    long total = h + misses.get();
+    m.put("enabled", isEnabled());
+    m.put("size", size());
+    m.put("maxSize", maxSize);
+    m.put("ttlSeconds", ttlMs / 1000);
+    m.put("maxBytes", maxBytes);
+    m.put("hits", h);
+    m.put("misses", misses.get());
+    m.put("evictions", evictions.get());
+    m.put("hitRatio", total == 0 ? 0.0 : (double) h / total);
+    return m;
+  }
+
+  public static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static String hash(byte[] bytes) {
+    return hex(newDigest().digest(bytes));
+  }
+
+  /** Hash of the UTF-8 encoding of text, encoded a slice at a time rather than copied whole. */
+  public static String hash(String text) {
+    MessageDigest md = newDigest();
+    int slice = 8192;
+    for (int i = 0; i < text.length(); ) {
+      int end = Math.min(text.length(), i + slice);
+      // keep surrogate pairs together
+      if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) end--;
+      md.update(StandardCharsets.UTF_8.encode(CharBuffer.wrap(text, i, end)));
+      i = end;
+    }
+    return hex(md.digest());
+  }
+
+  public static String hex(byte[] digest) {
+    return HexFormat.of().formatHex(digest);
+  }
+
+  private static final class Entry {
+    final String schemaId;
+    final int schemaVersion;
+    final Map<String,Object> result;
+    final long storedAt;
+
+    Entry(String schemaId, int schemaVersion, Map<String,Object> result, long storedAt) {
+      this.schemaId = schemaId;
+      this.schemaVersion = schemaVersion;
+      this.result = result;
+      this.storedAt = storedAt;
+    }
+  }
+}
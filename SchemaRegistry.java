@@ -0,0 +1,345 @@
+package com.example.srvalidator.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.xml.sax.SAXException;
+
+import jakarta.annotation.PostConstruct;
+import javax.xml.XMLConstants;
+import javax.xml.stream.*;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.*;
+import java.io.*;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Compiled ISO 20022 schemas, looked up by message type.
+ *
+ * The SR2025 schemas below are built in under short names (pacs.008, ...). More can be added by
+ * dropping XSDs into srvalidator.schemaDir: each is known by its message definition id, taken
+ * from its targetNamespace (urn:iso:std:iso:20022:tech:xsd:pacs.008.001.08 -> pacs.008.001.08),
+ * so any number of versions can sit side by side. Every schema can also be looked up by its
+ * targetNamespace, which is how documents are matched to schemas by their root element.
+ * The directory is rescanned at most every srvalidator.schemaCheckSeconds.
+ *
+ * Each XSD is compiled once (at startup for the built-in ones, else on first use) and shared;
+ * a Schema is thread-safe, a Validator is not, so every thread gets its own Validator per schema
+ * and reuses it. XSDs are looked up on the classpath first, then as files. At most every
+ * srvalidator.schemaCheckSeconds an XSD's modification time is checked, and a changed file is
+ * recompiled and swapped in (a broken edit keeps the previous schema); reload listeners are told.
+ */
+@Component
+public class SchemaRegistry {
+
+  private static final Logger log = LoggerFactory.getLogger(SchemaRegistry.class);
+
+  // map message-type to local XSD path; put your SR2025 XSDs in these locations
+  private static final Map<String,String> XSD_MAP = Map.of(
+      "pacs.008", "iso20022/sr2025/pacs.008.001.10.xsd",
+      "pacs.009", "iso20022/sr2025/pacs.009.001.10.xsd",
+      "pain.001", "iso20022/sr2025/pain.001.001.09.xsd",
+      "camt.053", "iso20022/sr2025/camt.053.001.08.xsd"
+  );
+  private static final String ISO_NAMESPACE_PREFIX = "urn:iso:std:iso:20022:tech:xsd:";
+
+  private static final XMLInputFactory XML_INPUT = XMLInputFactory.newFactory();
+  static {
+    XML_INPUT.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    XML_INPUT.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+  }
+
+  private final long checkIntervalMs;
+  private final File schemaDir;
+  // every name a schema answers to (short name, message id, targetNamespace) -> its definition
+  private final Map<String, Definition> definitions = new ConcurrentHashMap<>();
+  // definition id -> compiled schema
+  private final Map<String, Compiled> compiled = new ConcurrentHashMap<>();
+  // schemaDir files already registered -> their modification time
+  private final Map<File, Long> scanned = new HashMap<>();
+  private volatile long nextScanAt;
+  private final List<Consumer<String>> reloadListeners = new CopyOnWriteArrayList<>();
+
+  public SchemaRegistry(@Value("${srvalidator.schemaCheckSeconds:5}") long checkSeconds,
+                        @Value("${srvalidator.schemaDir:iso20022/schemas}") String schemaDir) {
+    this.checkIntervalMs = Math.max(0, checkSeconds) * 1000L;
+    this.schemaDir = schemaDir == null || schemaDir.isBlank() ? null : new File(schemaDir);
+  }
+
+  @PostConstruct
+  public void compileAll() {
+    XSD_MAP.forEach((type, path) -> {
+      URL url = locate(path);
+      String ns = url != null ? targetNamespace(url) : null;
+      register(new Definition(type, path, ns, true), ns != null ? messageId(ns) : null);
+    });
+    scanDirectory();
+    for (String msgType : XSD_MAP.keySet()) {
+      try {
+        get(msgType);
+      } catch (Exception e) {
+        log.warn("Schema for {} not compiled at startup: {}", msgType, e.getMessage());
+      }
+    }
+  }
+
+  /** Every name a schema can be looked up by. */
+  public Set<String> messageTypes() {
+    maybeScan();
+    return new TreeSet<>(definitions.keySet());
+  }
+
+  /** One entry per schema: id, namespace, source, builtIn and the compiled version (if compiled). */
+  public List<Map<String,Object>> list() {
+    maybeScan();
+    Map<String, Map<String,Object>> out = new TreeMap<>();
+    for (Definition d : definitions.values()) {
+      out.computeIfAbsent(d.id, id -> {
+        Map<String,Object> m = new LinkedHashMap<>();
+        m.put("id", d.id);
+        m.put("namespace", d.namespace);
+        m.put("source", d.path);
+        m.put("builtIn", d.builtIn);
+        Compiled c = compiled.get(d.id);
+        m.put("compiledVersion", c != null ? c.version : null);
+        return m;
+      });
+    }
+    return new ArrayList<>(out.values());
+  }
+
+  /** The schema id for a document root namespace, or null if no schema has that targetNamespace. */
+  public String forNamespace(String namespaceUri) {
+    if (namespaceUri == null || namespaceUri.isEmpty()) return null;
+    maybeScan();
+    Definition d = definitions.get(namespaceUri);
+    return d != null ? d.id : null;
+  }
+
+  /** targetNamespace of a message type's schema, or null if unknown (or not read yet). */
+  public String namespaceOf(String msgType) {
+    Definition d = msgType != null ? definitions.get(msgType) : null;
+    return d != null ? d.namespace : null;
+  }
+
+  /** Called with the schema id whenever a schema is recompiled or its XSD removed. */
+  public void addReloadListener(Consumer<String> listener) {
+    reloadListeners.add(listener);
+  }
+
+  /** Version of the schema currently compiled for an id, or -1 if it is not compiled. */
+  public int compiledVersion(String id) {
+    Compiled c = compiled.get(id);
+    return c != null ? c.version : -1;
+  }
+
+  /**
+   * The compiled schema for a message type (any name from {@link #messageTypes()}), compiling
+   * it now if needed or if its XSD changed.
+   */
+  public Compiled get(String msgType) throws IOException, SAXException {
+    if (msgType == null) throw new IllegalArgumentException("msgType required");
+    maybeScan();
+    Definition def = definitions.get(msgType);
+    if (def == null) throw new IllegalArgumentException("Unsupported msgType: " + msgType);
+
+    Compiled c = compiled.get(def.id);
+    if (c != null && System.currentTimeMillis() < c.nextCheckAt) return c;
+    synchronized (this) {
+      c = compiled.get(def.id);
+      long now = System.currentTimeMillis();
+      if (c != null && now < c.nextCheckAt) return c;
+
+      URL url = locate(def.path);
+      if (url == null) {
+        if (c != null) return c;
+        throw new FileNotFoundException("XSD not found: " + def.path);
+      }
+      long modified = lastModified(url);
+      if (c != null && c.url.equals(url) && c.lastModified == modified) {
+        c.nextCheckAt = now + checkIntervalMs;
+        return c;
+      }
+
+      Compiled fresh;
+      try {
+        fresh = compile(def.id, url, modified, c == null ? 1 : c.version + 1);
+      } catch (IOException | SAXException e) {
+        if (c == null) throw e;
+        log.warn("Reloading schema for {} failed, keeping version {}: {}", def.id, c.version, e.getMessage());
+        c.nextCheckAt = now + checkIntervalMs;
+        return c;
+      }
+      compiled.put(def.id, fresh);
+      if (def.namespace == null) {
+        // built-in XSD that was missing at startup: make it detectable by namespace now
+        String ns = targetNamespace(url);
+        if (ns != null) register(new Definition(def.id, def.path, ns, def.builtIn), messageId(ns));
+      }
+      if (c != null) {
+        log.info("Reloaded schema for {} from {} (version {})", def.id, url, fresh.version);
+        notifyReload(def.id);
+      }
+      return fresh;
+    }
+  }
+
+  private void maybeScan() {
+    if (schemaDir != null && System.currentTimeMillis() >= nextScanAt) scanDirectory();
+  }
+
+  // register new or changed XSDs in schemaDir, forget removed ones
+  private synchronized void scanDirectory() {
+    nextScanAt = System.currentTimeMillis() + checkIntervalMs;
+    if (schemaDir == null) return;
+    File[] files = schemaDir.isDirectory() ? schemaDir.listFiles((d, n) -> n.endsWith(".xsd")) : new File[0];
+    Set<File> present = new HashSet<>(Arrays.asList(files != null ? files : new File[0]));
+
+    for (File f : new ArrayList<>(scanned.keySet())) {
+      if (present.contains(f)) continue;
+      scanned.remove(f);
+      String path = f.getAbsolutePath();
+      definitions.values().removeIf(d -> !d.builtIn && d.path.equals(path) && forget(d));
+    }
+    for (File f : present) {
+      Long seen = scanned.get(f);
+      if (seen != null && seen == f.lastModified()) continue;
+      scanned.put(f, f.lastModified());
+      String path = f.getAbsolutePath();
+      // changed file: its targetNamespace may have changed too; the schema recompiles on next use
+      if (seen != null) definitions.values().removeIf(d -> !d.builtIn && d.path.equals(path));
+      try {
+        String ns = targetNamespace(f.toURI().toURL());
+        String id = ns != null ? messageId(ns) : f.getName().substring(0, f.getName().length() - 4);
+        Definition existing = definitions.get(id);
+        if (existing != null && existing.builtIn) continue;
+        if (ns != null && definitions.containsKey(ns) && definitions.get(ns).builtIn) continue;
+        register(new Definition(id, path, ns, false), null);
+        if (seen == null) log.info("Registered schema {} from {}", id, f);
+      } catch (IOException e) {
+        log.warn("Skipping {}: {}", f, e.getMessage());
+      }
+    }
+  }
+
+  private boolean forget(Definition d) {
+    if (compiled.remove(d.id) != null) notifyReload(d.id);
+    return true;
+  }
+
+  private void register(Definition d, String alias) {
+    definitions.put(d.id, d);
+    if (alias != null) definitions.putIfAbsent(alias, d);
+    if (d.namespace != null) definitions.put(d.namespace, d);
+  }
+
+  private void notifyReload(String id) {
+    for (Consumer<String> l : reloadListeners) l.accept(id);
+  }
+
+  // pacs.008.001.10 for an ISO 20022 namespace, else the namespace itself
+  private static String messageId(String namespace) {
+    return namespace.startsWith(ISO_NAMESPACE_PREFIX) ? namespace.substring(ISO_NAMESPACE_PREFIX.length()) : namespace;
+  }
+
+  // targetNamespace of an XSD, reading only up to its root element
+  private static String targetNamespace(URL url) {
+    try (InputStream in = url.openStream()) {
+      XMLStreamReader r = XML_INPUT.createXMLStreamReader(in);
+      try {
+        while (r.hasNext()) {
+          if (r.next() == XMLStreamConstants.START_ELEMENT) return r.getAttributeValue(null, "targetNamespace");
+        }
+      } finally {
+        r.close();
+      }
+    } catch (IOException | XMLStreamException e) {
+      log.warn("Could not read targetNamespace of {}: {}", url, e.getMessage());
+    }
+    return null;
+  }
+
+  private Compiled compile(String msgType, URL url, long modified, int version) throws IOException, SAXException {
+    long start = System.nanoTime();
+    SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+    Schema schema;
+    try (InputStream xsd = url.openStream()) {
+      // system id lets xs:include / xs:import resolve relative to the XSD
+      schema = factory.newSchema(new StreamSource(xsd, url.toExternalForm()));
+    }
+    log.info("Compiled schema for {} in {} ms", msgType, (System.nanoTime() - start) / 1_000_000);
+    Compiled c = new Compiled(msgType, version, url, modified, schema);
+    c.nextCheckAt = System.currentTimeMillis() + checkIntervalMs;
+    return c;
+  }
+
+  private static URL locate(String path) {
+    // classpath: src/main/resources/<path>
+    URL cp = Thread.currentThread().getContextClassLoader().getResource(path);
+    if (cp != null) return cp;
+    // or absolute/relative file:
+    File f = new File(path);
+    try { return f.isFile() ? f.toURI().toURL() : null; } catch (IOException ignored) {}
+    return null;
+  }
+
+  private static long lastModified(URL url) {
+    if ("file".equals(url.getProtocol())) {
+      try { return new File(url.toURI()).lastModified(); } catch (Exception ignored) {}
+    }
+    try {
+      URLConnection conn = url.openConnection();
+      conn.setUseCaches(false);
+      return conn.getLastModified();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private static final class Definition {
+    final String id;
+    final String path;
+    final String namespace;
+    final boolean builtIn;
+
+    Definition(String id, String path, String namespace, boolean builtIn) {
+      this.id = id;
+      this.path = path;
+      this.namespace = namespace;
+      this.builtIn = builtIn;
+    }
+  }
+
+  /** One compiled schema version, with a Validator per thread. */
+  public static final class Compiled {
+    public final String msgType;
+    public final int version;
+    final URL url;
+    final long lastModified;
+    public final Schema schema;
+    private final ThreadLocal<Validator> validators;
+    volatile long nextCheckAt;
+
+    Compiled(String msgType, int version, URL url, long lastModified, Schema schema) {
+      this.msgType = msgType;
+      this.version = version;
+      this.url = url;
+      this.lastModified = lastModified;
+      this.schema = schema;
+      this.validators = ThreadLocal.withInitial(schema::newValidator);
+    }
+
+    /** This thread's Validator, reset to its initial state. Use it on this thread only. */
+    public Validator validator() {
+      Validator v = validators.get();
+      v.reset();
+      return v;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.example.k8sui.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServicePort;
+
+/** The part of a service that /api/services returns, in the Kubernetes JSON shape. */
+public record ServiceView(Metadata metadata, Spec spec) {
+
+    public record Metadata(String name, String namespace, Map<String, String> labels,
+                           String creationTimestamp, String resourceVersion) {}
+
+    public record Spec(String type, String clusterIP, Map<String, String> selector, List<Port> ports) {}
+
+    public record Port(String name, String protocol, Integer port, String targetPort, Integer nodePort) {}
+
+    public static ServiceView from(Service svc) {
+        ObjectMeta m = svc.getMetadata();
+        Metadata meta = m == null ? null : new Metadata(m.getName(), m.getNamespace(), m.getLabels(),
+                m.getCreationTimestamp(), m.getResourceVersion());
+        var s = svc.getSpec();
+        if (s == null) return new ServiceView(meta, null);
+
+        List<Port> ports = null;
+        if (s.getPorts() != null) {
+            ports = new ArrayList<>(s.getPorts().size());
+            for (ServicePort p : s.getPorts()) {
+                String target = null;
+                if (p.getTargetPort() != null) {
+                    target = p.getTargetPort().getStrVal() != null
+                            ? p.getTargetPort().getStrVal()
+                            : String.valueOf(p.getTargetPort().getIntVal());
+                }
+                ports.add(new Port(p.getName(), p.getProtocol(), p.getPort(), target, p.getNodePort()));
+            }
+        }
+        return new ServiceView(meta, new Spec(s.getType(), s.getClusterIP(), s.getSelector(), ports));
+    }
+}
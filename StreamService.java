@@ -0,0 +1,300 @@
+package com.example.k8sui.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.k8sui.config.K8sProperties;
+import com.example.k8sui.model.PodView;
+import com.example.k8sui.model.Summary;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Server-Sent Events push channel behind /api/stream.
+ *
+ * Clients subscribe to one namespace (or "all") of one cluster. Pod informer events are coalesced per pod
+ * and flushed every k8s.streamDebounceMillis as a single "pods" event, which carries each added or
+ * modified pod in the /api/pods shape (deletions by name only); a "summary" event is
+ * sent only when the namespace's counters actually changed. Without the informer cache there
+ * are no pod events and the summary is recomputed once per cluster and namespace every
+ * k8s.streamPollSeconds, shared by every client watching it.
+ *
+ * Each client has a bounded backlog (k8s.streamMaxBacklog); a client that cannot keep up is
+ * disconnected instead of buffering without limit. EventSource reconnects on its own.
+ */
+@Service
+public class StreamService {
+
+	private static final Logger log = LoggerFactory.getLogger(StreamService.class);
+	private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+	private static final long HEARTBEAT_MS = 15_000L;
+
+	private final ClusterRegistry clusters;
+	private final K8sProperties props;
+
+	private final List<Client> clients = new CopyOnWriteArrayList<>();
+	// pending pod changes keyed by cluster/namespace/name, guarded by "this"
+	private Map<String, Map<String, Object>> pendingPods = new LinkedHashMap<>();
+
+	private ScheduledExecutorService scheduler;
+	private ExecutorService senders;
+	private long lastPollAt;
+	private long lastHeartbeatAt;
+
+	public StreamService(ClusterRegistry clusters, K8sProperties props) {
+		this.clusters = clusters;
+		this.props = props;
+	}
+
+	@PostConstruct
+	public void start() {
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "sse-flush"));
+		senders = Executors.newCachedThreadPool(r -> daemon(r, "sse-send"));
+		long period = Math.max(100, props.getStreamDebounceMillis());
+		scheduler.scheduleWithFixedDelay(this::flushSafely, period, period, TimeUnit.MILLISECONDS);
+
+		clusters.addListener(this::watchCluster);
+	}
+
+	// every cluster's informer cache, as it connects
+	private void watchCluster(String cluster, K8sService k8sService) {
+		K8sInformerCache cache = k8sService.getCache();
+		if (cache.isEnabled()) {
+			cache.getPodInformer().addEventHandler(new ResourceEventHandler<Pod>() {
+				@Override public void onAdd(Pod pod) { podChanged(cluster, "ADDED", pod); }
+				@Override public void onUpdate(Pod oldPod, Pod newPod) {
+					if (!K8sInformerCache.isResync(oldPod, newPod)) podChanged(cluster, "MODIFIED", newPod);
+				}
+				@Override public void onDelete(Pod pod, boolean deletedFinalStateUnknown) { podChanged(cluster, "DELETED", pod); }
+			});
+		}
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (scheduler != null) scheduler.shutdownNow();
+		if (senders != null) senders.shutdownNow();
+		for (Client c : clients) c.emitter.complete();
+		clients.clear();
+	}
+
+	/**
+	 * Open a stream for a namespace ("all" for every namespace) of a cluster (null for "default");
+	 * the current summary is sent right away.
+	 */
+	public SseEmitter subscribe(String cluster, String namespace) {
+		String cl = (cluster == null || cluster.isBlank()) ? ClusterRegistry.DEFAULT_CLUSTER : cluster;
+		String ns = (namespace == null || namespace.isBlank()) ? "default" : namespace;
+		// the cluster stays connected while someone is subscribed to it
+		ClusterRegistry.Hold held = clusters.hold(cl);
+		Summary s;
+		try {
+			s = held.service().getSummary(ns);
+		} catch (RuntimeException e) {
+			// no emitter yet whose callbacks would let go of the cluster
+			held.close();
+			throw e;
+		}
+		SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+		Client client = new Client(cl, ns, emitter);
+		emitter.onCompletion(() -> { clients.remove(client); held.close(); });
+		emitter.onTimeout(() -> { clients.remove(client); held.close(); });
+		emitter.onError(e -> { clients.remove(client); held.close(); });
+		clients.add(client);
+
+		client.lastSummary = s;
+		enqueue(client, SseEmitter.event().name("summary").data(s));
+		return emitter;
+	}
+
+	public int getClientCount() {
+		return clients.size();
+	}
+
+	private synchronized void podChanged(String cluster, String type, Pod pod) {
+		if (pod.getMetadata() == null || clients.isEmpty()) return;
+		String ns = pod.getMetadata().getNamespace();
+		String name = pod.getMetadata().getName();
+		String key = cluster + "/" + ns + "/" + name;
+
+		// ADDED followed by MODIFIED in the same window is still an add for the client
+		Map<String, Object> prev = pendingPods.get(key);
+		if (prev != null && "ADDED".equals(prev.get("type")) && "MODIFIED".equals(type)) type = "ADDED";
+
+		String phase = pod.getStatus() != null && pod.getStatus().getPhase() != null ? pod.getStatus().getPhase() : "Unknown";
+		Map<String, Object> change = new LinkedHashMap<>();
+		change.put("type", type);
+		change.put("cluster", cluster);
+		change.put("namespace", ns);
+		change.put("name", name);
+		change.put("phase", phase);
+		// the pod as /api/pods returns it, so the page can update its table without reloading it
+		if (!"DELETED".equals(type)) change.put("pod", PodView.from(pod));
+		pendingPods.remove(key);
+		pendingPods.put(key, change);
+	}
+
+	private synchronized Map<String, Map<String, Object>> drainPending() {
+		if (pendingPods.isEmpty()) return Map.of();
+		Map<String, Map<String, Object>> out = pendingPods;
+		pendingPods = new LinkedHashMap<>();
+		return out;
+	}
+
+	private void flushSafely() {
+		try {
+			flush();
+		} catch (Exception e) {
+			log.warn("SSE flush failed: {}", e.getMessage());
+		}
+	}
+
+	private void flush() {
+		Map<String, Map<String, Object>> changes = drainPending();
+		if (clients.isEmpty()) return;
+
+		long now = System.currentTimeMillis();
+		boolean pollDue = now - lastPollAt >= Math.max(1, props.getStreamPollSeconds()) * 1000L;
+		if (pollDue) lastPollAt = now;
+
+		Map<String, List<Map<String, Object>>> changesByScope = new HashMap<>();
+		Map<String, List<Map<String, Object>>> changesByCluster = new HashMap<>();
+		for (Map<String, Object> c : changes.values()) {
+			changesByScope.computeIfAbsent(c.get("cluster") + "/" + c.get("namespace"), k -> new ArrayList<>()).add(c);
+			changesByCluster.computeIfAbsent((String) c.get("cluster"), k -> new ArrayList<>()).add(c);
+		}
+
+		Set<String> scopes = new HashSet<>();
+		for (Client c : clients) scopes.add(c.scope());
+
+		for (String scope : scopes) {
+			// context names may contain '/', namespaces may not
+			String cluster = scope.substring(0, scope.lastIndexOf('/'));
+			String ns = scope.substring(scope.lastIndexOf('/') + 1);
+			boolean all = "all".equalsIgnoreCase(ns);
+			List<Map<String, Object>> nsChanges = all
+					? changesByCluster.getOrDefault(cluster, List.of())
+					: changesByScope.getOrDefault(scope, List.of());
+			Summary summary = null;
+			try {
+				K8sService k8sService = clusters.service(cluster);
+				boolean poll = pollDue && !k8sService.getCache().isReady();
+				if (poll || !nsChanges.isEmpty()) summary = k8sService.getSummary(ns);
+			} catch (Exception e) {
+				log.warn("SSE summary for cluster {} failed: {}", cluster, e.getMessage());
+			}
+
+			for (Client c : clients) {
+				if (!c.scope().equals(scope)) continue;
+				if (!nsChanges.isEmpty()) {
+					enqueue(c, SseEmitter.event().name("pods").data(nsChanges));
+				}
+				if (summary != null && !summary.equals(c.lastSummary)) {
+					c.lastSummary = summary;
+					enqueue(c, SseEmitter.event().name("summary").data(summary));
+				}
+			}
+		}
+
+		if (now - lastHeartbeatAt >= HEARTBEAT_MS) {
+			lastHeartbeatAt = now;
+			for (Client c : clients) enqueue(c, SseEmitter.event().comment("keepalive"));
+		}
+	}
+
+	private void enqueue(Client client, SseEmitter.SseEventBuilder event) {
+		boolean startSender = false;
+		synchronized (client) {
+			if (client.closed) return;
+			if (client.backlog.size() >= Math.max(1, props.getStreamMaxBacklog())) {
+				client.closed = true;
+			} else {
+				client.backlog.add(event);
+				if (!client.sending) {
+					client.sending = true;
+					startSender = true;
+				}
+			}
+		}
+		if (client.closed) {
+			log.info("Dropping slow SSE client (cluster={}, namespace={}, backlog full)", client.cluster, client.namespace);
+			drop(client);
+			return;
+		}
+		if (startSender) senders.execute(() -> drain(client));
+	}
+
+	private void drain(Client client) {
+		while (true) {
+			SseEmitter.SseEventBuilder next;
+			synchronized (client) {
+				next = client.backlog.poll();
+				if (next == null || client.closed) {
+					client.sending = false;
+					return;
+				}
+			}
+			try {
+				client.emitter.send(next);
+			} catch (IOException | IllegalStateException e) {
+				synchronized (client) {
+					client.closed = true;
+					client.sending = false;
+				}
+				drop(client);
+				return;
+			}
+		}
+	}
+
+	private void drop(Client client) {
+		clients.remove(client);
+		try { client.emitter.complete(); } catch (Exception ignored) {}
+	}
+
+	private static Thread daemon(Runnable r, String name) {
+		Thread t = new Thread(r, name);
+		t.setDaemon(true);
+		return t;
+	}
+
+	private static final class Client {
+		final String cluster;
+		final String namespace;
+		final SseEmitter emitter;
+		final ArrayDeque<SseEmitter.SseEventBuilder> backlog = new ArrayDeque<>();
+		boolean sending;
+		volatile boolean closed;
+		volatile Summary lastSummary;
+
+		Client(String cluster, String namespace, SseEmitter emitter) {
+			this.cluster = cluster;
+			this.namespace = namespace;
+			this.emitter = emitter;
+		}
+
+		String scope() {
+			return cluster + "/" + namespace;
+		}
+	}
+}
@@ -26,4 +26,18 @@ public class Summary {
 
     public int getServicesWithZeroPods() { return servicesWithZeroPods; }
     public void setServicesWithZeroPods(int servicesWithZeroPods) { this.servicesWithZeroPods = servicesWithZeroPods; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Summary)) return false;
+        Summary other = (Summary) o;
+        return running == other.running && pending == other.pending
+                && abnormal == other.abnormal && servicesWithZeroPods == other.servicesWithZeroPods;
+    }
+
+    @Override
+    public int hashCode() {
+        return java.util.Objects.hash(running, pending, abnormal, servicesWithZeroPods);
+    }
 }
@@ -0,0 +1,292 @@
+package com.example.k8sui.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Service;
+
+import com.example.k8sui.model.Summary;
+
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Dashboard summary counters kept up to date from informer events.
+ *
+ * Every pod is classified once per event (running / pending / abnormal, see {@link #classify(Pod)})
+ * and only the difference between its old and new classification is applied to the per-namespace
+ * and cluster-wide counters. Services are matched against the pods' labels the same way, tracking
+ * how many pods each selector matches so the zero-pod count changes only on 0 &lt;-&gt; 1 transitions.
+ * Reading a summary is therefore O(1), including for namespace=all.
+ *
+ * Only active when the informer cache is enabled; otherwise K8sService computes the summary itself.
+ */
+@Service
+public class SummaryTracker {
+
+	public static final int RUNNING = 1;
+	public static final int PENDING = 1 << 1;
+	public static final int ABNORMAL = 1 << 2;
+
+	private static final int C_RUNNING = 0, C_PENDING = 1, C_ABNORMAL = 2, C_ZERO = 3;
+
+	private final K8sInformerCache cache;
+
+	// all state below is guarded by "this"
+	private final Map<String, Map<String, PodState>> podsByNs = new HashMap<>();
+	private final Map<String, ServiceState> services = new HashMap<>();
+	// namespace + one selector pair -> services whose selector contains that pair
+	private final Map<String, Set<ServiceState>> servicesByPair = new HashMap<>();
+	private final Map<String, int[]> countsByNs = new HashMap<>();
+	private final int[] totals = new int[4];
+	// what the handlers have seen so far, to tell when they have caught up with the informer stores
+	private int podCount;
+	private final Set<String> serviceKeys = new HashSet<>();
+	private volatile boolean replayed;
+
+	public SummaryTracker(K8sInformerCache cache) {
+		this.cache = cache;
+	}
+
+	@PostConstruct
+	public void register() {
+		if (!cache.isEnabled()) return;
+		cache.getPodInformer().addEventHandler(new ResourceEventHandler<Pod>() {
+			@Override public void onAdd(Pod pod) { onPod(pod, false); }
+			@Override public void onUpdate(Pod oldPod, Pod newPod) { onPod(newPod, false); }
+			@Override public void onDelete(Pod pod, boolean deletedFinalStateUnknown) { onPod(pod, true); }
+		});
+		cache.getServiceInformer().addEventHandler(new ResourceEventHandler<io.fabric8.kubernetes.api.model.Service>() {
+			@Override public void onAdd(io.fabric8.kubernetes.api.model.Service svc) { onService(svc, false); }
+			@Override public void onUpdate(io.fabric8.kubernetes.api.model.Service oldSvc, io.fabric8.kubernetes.api.model.Service newSvc) { onService(newSvc, false); }
+			@Override public void onDelete(io.fabric8.kubernetes.api.model.Service svc, boolean deletedFinalStateUnknown) { onService(svc, true); }
+		});
+	}
+
+	/**
+	 * True when counters can be served instead of recomputing: the informer cache is synced and
+	 * the handlers have been given every pod and service in its stores. A synced cache alone is not
+	 * enough, its initial list is handed to the handlers afterwards, one event at a time.
+	 */
+	public boolean isReady() {
+		if (replayed) return true;
+		if (!cache.isEnabled() || !cache.isReady()) return false;
+		int pods = cache.getPodInformer().getStore().list().size();
+		int svcs = cache.getServiceInformer().getStore().list().size();
+		synchronized (this) {
+			// at least: objects already deleted from a store may still be on their way to the handlers
+			if (podCount >= pods && serviceKeys.size() >= svcs) replayed = true;
+		}
+		return replayed;
+	}
+
+	/** Current counters for a namespace, or for the whole cluster when namespace is null/blank/"all". */
+	public synchronized Summary getSummary(String namespace) {
+		int[] c = (namespace == null || namespace.isBlank() || "all".equalsIgnoreCase(namespace))
+				? totals
+				: countsByNs.getOrDefault(namespace, new int[4]);
+		return new Summary(c[C_RUNNING], c[C_PENDING], c[C_ABNORMAL], c[C_ZERO]);
+	}
+
+	/** Per-namespace counters, sorted by namespace. */
+	public synchronized Map<String, Summary> getSummariesByNamespace() {
+		Map<String, Summary> out = new TreeMap<>();
+		countsByNs.forEach((ns, c) -> out.put(ns, new Summary(c[C_RUNNING], c[C_PENDING], c[C_ABNORMAL], c[C_ZERO])));
+		return out;
+	}
+
+	/**
+	 * Classify a pod for the dashboard summary; returns a mask of RUNNING, PENDING and ABNORMAL.
+	 * 1) Running: phase Running AND totalContainers==1 && readyContainers==1 (1/1)
+	 * 2) Pending: phase Pending OR any container waiting reason contains "ContainerCreating"/"creating"
+	 * 3) Abnormal: phase Failed OR any container showing CrashLoopBackOff OR totalRestarts > 0
+	 */
+	public static int classify(Pod pod) {
+		String phase = "Unknown";
+		if (pod.getStatus() != null && pod.getStatus().getPhase() != null) {
+			phase = pod.getStatus().getPhase();
+		}
+
+		List<ContainerStatus> statuses = (pod.getStatus() != null) ? pod.getStatus().getContainerStatuses() : null;
+
+		int totalContainers = 0;
+		int readyContainers = 0;
+		int totalRestarts = 0;
+		boolean hasCrashLoop = false;
+		boolean hasCreating = false;
+
+		if (statuses != null) {
+			totalContainers = statuses.size();
+			for (ContainerStatus cs : statuses) {
+				if (cs == null) continue;
+				Boolean ready = cs.getReady();
+				if (ready != null && ready) readyContainers++;
+				Integer rc = cs.getRestartCount();
+				if (rc != null) totalRestarts += rc;
+
+				if (cs.getState() != null && cs.getState().getWaiting() != null) {
+					String waitingReason = cs.getState().getWaiting().getReason();
+					if (waitingReason != null) {
+						String r = waitingReason.toLowerCase();
+						if (r.contains("crashloop")) hasCrashLoop = true;
+						if (r.contains("containercreating") || r.contains("creating") || r.contains("create")) {
+							hasCreating = true;
+						}
+					}
+				}
+			}
+		}
+
+		int mask = 0;
+		if ("Running".equalsIgnoreCase(phase) && totalContainers == 1 && readyContainers == 1) {
+			mask |= RUNNING;
+		}
+		if ("Pending".equalsIgnoreCase(phase) || hasCreating) {
+			mask |= PENDING;
+		}
+		if ("Failed".equalsIgnoreCase(phase) || hasCrashLoop || totalRestarts > 0) {
+			mask |= ABNORMAL;
+		}
+		return mask;
+	}
+
+	private synchronized void onPod(Pod pod, boolean deleted) {
+		ObjectMeta meta = pod.getMetadata();
+		if (meta == null || meta.getName() == null) return;
+		String ns = meta.getNamespace() != null ? meta.getNamespace() : "default";
+
+		Map<String, PodState> nsPods = podsByNs.computeIfAbsent(ns, k -> new HashMap<>());
+		PodState before = deleted ? nsPods.remove(meta.getName()) : nsPods.get(meta.getName());
+		PodState after = deleted ? null : new PodState(classify(pod), labelsOf(meta));
+		if (after != null) nsPods.put(meta.getName(), after);
+		if (nsPods.isEmpty()) podsByNs.remove(ns);
+		podCount += (after != null ? 1 : 0) - (before != null ? 1 : 0);
+
+		int oldMask = before != null ? before.mask : 0;
+		int newMask = after != null ? after.mask : 0;
+		if (oldMask != newMask) {
+			int[] c = counts(ns);
+			applyBit(c, C_RUNNING, oldMask, newMask, RUNNING);
+			applyBit(c, C_PENDING, oldMask, newMask, PENDING);
+			applyBit(c, C_ABNORMAL, oldMask, newMask, ABNORMAL);
+		}
+
+		Map<String, String> oldLabels = before != null ? before.labels : Map.of();
+		Map<String, String> newLabels = after != null ? after.labels : Map.of();
+		if (oldLabels.equals(newLabels)) return;
+
+		Set<ServiceState> candidates = new HashSet<>();
+		collectCandidates(ns, oldLabels, candidates);
+		collectCandidates(ns, newLabels, candidates);
+		for (ServiceState svc : candidates) {
+			boolean was = before != null && matches(svc.selector, oldLabels);
+			boolean is = after != null && matches(svc.selector, newLabels);
+			if (was == is) continue;
+			int prev = svc.matched;
+			svc.matched += is ? 1 : -1;
+			if (prev == 0 && svc.matched > 0) add(ns, C_ZERO, -1);
+			else if (prev > 0 && svc.matched == 0) add(ns, C_ZERO, 1);
+		}
+	}
+
+	private synchronized void onService(io.fabric8.kubernetes.api.model.Service svc, boolean deleted) {
+		ObjectMeta meta = svc.getMetadata();
+		if (meta == null || meta.getName() == null) return;
+		String ns = meta.getNamespace() != null ? meta.getNamespace() : "default";
+		String key = ns + '/' + meta.getName();
+		if (deleted) serviceKeys.remove(key);
+		else serviceKeys.add(key);
+
+		ServiceState before = services.remove(key);
+		if (before != null) {
+			Set<ServiceState> set = servicesByPair.get(before.pairKey);
+			if (set != null) {
+				set.remove(before);
+				if (set.isEmpty()) servicesByPair.remove(before.pairKey);
+			}
+			if (before.matched == 0) add(ns, C_ZERO, -1);
+		}
+		if (deleted) return;
+
+		Map<String, String> selector = svc.getSpec() != null ? svc.getSpec().getSelector() : null;
+		// services without a selector are not counted as zero-pod services
+		if (selector == null || selector.isEmpty()) return;
+
+		Map.Entry<String, String> first = new TreeMap<>(selector).firstEntry();
+		ServiceState after = new ServiceState(Map.copyOf(selector), pairKey(ns, first.getKey(), first.getValue()));
+		for (PodState p : podsByNs.getOrDefault(ns, Map.of()).values()) {
+			if (matches(after.selector, p.labels)) after.matched++;
+		}
+		services.put(key, after);
+		servicesByPair.computeIfAbsent(after.pairKey, k -> new HashSet<>()).add(after);
+		if (after.matched == 0) add(ns, C_ZERO, 1);
+	}
+
+	private void collectCandidates(String ns, Map<String, String> labels, Set<ServiceState> out) {
+		for (Map.Entry<String, String> e : labels.entrySet()) {
+			Set<ServiceState> set = servicesByPair.get(pairKey(ns, e.getKey(), e.getValue()));
+			if (set != null) out.addAll(set);
+		}
+	}
+
+	private void applyBit(int[] c, int idx, int oldMask, int newMask, int bit) {
+		int delta = ((newMask & bit) != 0 ? 1 : 0) - ((oldMask & bit) != 0 ? 1 : 0);
+		if (delta != 0) {
+			c[idx] += delta;
+			totals[idx] += delta;
+		}
+	}
+
+	private void add(String ns, int idx, int delta) {
+		counts(ns)[idx] += delta;
+		totals[idx] += delta;
+	}
+
+	private int[] counts(String ns) {
+		return countsByNs.computeIfAbsent(ns, k -> new int[4]);
+	}
+
+	private static boolean matches(Map<String, String> selector, Map<String, String> labels) {
+		for (Map.Entry<String, String> e : selector.entrySet()) {
+			if (!e.getValue().equals(labels.get(e.getKey()))) return false;
+		}
+		return true;
+	}
+
+	private static Map<String, String> labelsOf(ObjectMeta meta) {
+		return meta.getLabels() != null ? Map.copyOf(meta.getLabels()) : Map.of();
+	}
+
+	private static String pairKey(String ns, String key, String value) {
+		return ns + '\u0000' + key + '=' + value;
+	}
+
+	private static final class PodState {
+		final int mask;
+		final Map<String, String> labels;
+
+		PodState(int mask, Map<String, String> labels) {
+			this.mask = mask;
+			this.labels = labels;
+		}
+	}
+
+	// identity equality on purpose: one instance per live service
+	private static final class ServiceState {
+		final Map<String, String> selector;
+		final String pairKey;
+		int matched;
+
+		ServiceState(Map<String, String> selector, String pairKey) {
+			this.selector = selector;
+			this.pairKey = pairKey;
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package com.example.srvalidator.web;
+
+import com.example.srvalidator.service.ResultCache;
+import com.example.srvalidator.service.SchemaRegistry;
+import com.example.srvalidator.service.XmlValidatorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+public class ValidationController {
+
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+  private final XmlValidatorService service;
+  private final SchemaRegistry schemas;
+  private final ResultCache cache;
+  private final ObjectMapper mapper;
+  private final AsyncTaskExecutor executor;
+  private final long batchTimeoutMillis;
+
+  public ValidationController(XmlValidatorService service, SchemaRegistry schemas, ResultCache cache,
+                              ObjectMapper mapper,
+                              @Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor,
+                              @Value("${srvalidator.batchTimeoutSeconds:3600}") long batchTimeoutSeconds) {
+    this.service = service;
+    this.schemas = schemas;
+    this.cache = cache;
+    this.mapper = mapper;
+    this.executor = executor;
+    this.batchTimeoutMillis = batchTimeoutSeconds > 0 ? TimeUnit.SECONDS.toMillis(batchTimeoutSeconds) : -1L;
+  }
+
+  // known schemas; msgType may be any id, the short SR2025 names, or a namespace
+  @GetMapping(value="/schemas", produces=MediaType.APPLICATION_JSON_VALUE)
+  public List<Map<String,Object>> schemas() {
+    return schemas.list();
+  }
+
+  // result cache: size, hits, misses, evictions
+  @GetMapping(value="/validate/cache", produces=MediaType.APPLICATION_JSON_VALUE)
+  public Map<String,Object> cacheStats() {
+    return cache.stats();
+  }
+
+  @DeleteMapping(value="/validate/cache", produces=MediaType.APPLICATION_JSON_VALUE)
+  public Map<String,Object> clearCache() {
+    cache.clear();
+    return cache.stats();
+  }
+
+  @PostMapping(value="/validate", consumes=MediaType.APPLICATION_JSON_VALUE,
+               produces=MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Map<String,Object>> validate(@RequestBody Map<String,String> req) {
+    String msgType = req.get("msgType");
+    String xml     = req.get("xml");
+    String max     = req.get("maxErrors");
+    int maxErrors;
+    try {
+      maxErrors = max != null ? Integer.parseInt(max.trim()) : 1;
+    } catch (NumberFormatException e) {
+      return ResponseEntity.badRequest().body(Map.of("valid", false, "error", "maxErrors must be a number: " + max));
+    }
+    return ResponseEntity.ok(service.validate(msgType, xml, maxErrors));
+  }
+
+  // msgType omitted or "auto": detected from the root element namespace
+  // raw XML body, validated as it is read: curl --data-binary @stmt.xml -H 'Content-Type: application/xml'
+  @PostMapping(value="/validate/stream",
+               consumes={MediaType.APPLICATION_XML_VALUE, MediaType.TEXT_XML_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE},
+               produces=MediaType.APPLICATION_JSON_VALUE)
+  public Map<String,Object> validateStream(@RequestParam(required=false) String msgType,
+                                           @RequestParam(defaultValue="1") int maxErrors,
+                                           HttpServletRequest request) throws IOException {
+    try (InputStream xml = request.getInputStream()) {
+      return service.validate(msgType, xml, maxErrors);
+    }
+  }
+
+  // multipart upload (field "file"); large files need spring.servlet.multipart.max-file-size
+  // and max-request-size raised, parts beyond the threshold are spooled to disk, not memory
+  @PostMapping(value="/validate/stream", consumes=MediaType.MULTIPART_FORM_DATA_VALUE,
+               produces=MediaType.APPLICATION_JSON_VALUE)
+  public Map<String,Object> validateUpload(@RequestParam(required=false) String msgType,
+                                           @RequestParam(defaultValue="1") int maxErrors,
+                                           @RequestParam("file") MultipartFile file) throws IOException {
+    try (InputStream xml = file.getInputStream()) {
+      return service.validate(msgType, xml, maxErrors);
+    }
+  }
+
+  // many messages in one upload (zip, NDJSON or concatenated documents, see validateBatch);
+  // answers with one NDJSON result line per message as they finish, then a {"done":true,...} line.
+  // A batch can run far longer than spring.mvc.async.request-timeout, so it goes through an emitter
+  // with its own timeout, srvalidator.batchTimeoutSeconds (0 = none)
+  @PostMapping(value="/validate/batch", produces="application/x-ndjson")
+  public ResponseEntity<ResponseBodyEmitter> validateBatch(@RequestParam(required=false) String msgType,
+                                                           @RequestParam(required=false) String format,
+                                                           @RequestParam(defaultValue="1") int maxErrors,
+                                                           HttpServletRequest request) throws IOException {
+    XmlValidatorService.BatchFormat fmt = batchFormat(format, request.getContentType());
+    if (fmt == null) return ResponseEntity.badRequest().build();
+    InputStream in = request.getInputStream();
+    ResponseBodyEmitter emitter = new ResponseBodyEmitter(batchTimeoutMillis);
+    Future<?> task = executor.submit(() -> runBatch(emitter, msgType, in, fmt, maxErrors));
+    emitter.onTimeout(() -> task.cancel(true));
+    emitter.onError(e -> task.cancel(true));
+    return ResponseEntity.ok().contentType(NDJSON).body(emitter);
+  }
+
+  private void runBatch(ResponseBodyEmitter emitter, String msgType, InputStream in,
+                        XmlValidatorService.BatchFormat fmt, int maxErrors) {
+    try (in) {
+      Map<String,Object> totals = service.validateBatch(msgType, in, fmt, maxErrors, r -> writeLine(emitter, r));
+      writeLine(emitter, totals);
+      emitter.complete();
+    } catch (IOException | UncheckedIOException | IllegalStateException e) {
+      // client went away or the time is up (the emitter is already done); the container completes the request
+    } catch (RuntimeException e) {
+      emitter.completeWithError(e);
+    }
+  }
+
+  private void writeLine(ResponseBodyEmitter emitter, Map<String,Object> line) {
+    try {
+      byte[] json = mapper.writeValueAsBytes(line);
+      byte[] bytes = Arrays.copyOf(json, json.length + 1);
+      bytes[json.length] = '\n';
+      // each result goes out as soon as it is known
+      emitter.send(bytes, NDJSON);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // ?format= wins, else the content type: zip, x-ndjson, or xml for concatenated documents
+  private static XmlValidatorService.BatchFormat batchFormat(String format, String contentType) {
+    if (format != null) {
+      try {
+        return XmlValidatorService.BatchFormat.valueOf(format.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+    }
+    String ct = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+    if (ct.contains("zip")) return XmlValidatorService.BatchFormat.ZIP;
+    if (ct.contains("ndjson") || ct.contains("jsonl")) return XmlValidatorService.BatchFormat.NDJSON;
+    if (ct.contains("xml")) return XmlValidatorService.BatchFormat.MULTI;
+    return null;
+  }
+}
@@ -0,0 +1,555 @@
+package com.example.srvalidator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import javax.xml.stream.*;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.validation.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+@Service
+public class XmlValidatorService {
+
+  // compiled once and shared; see SchemaRegistry for where the XSDs come from
+  private final SchemaRegistry schemas;
+  // results of documents seen before, by content hash
+  private final ResultCache cache;
+
+  // StAX readers pull the document through the validator as it arrives, so memory does not
+  // grow with the message; no DTDs or external entities
+  private static final XMLInputFactory XML_INPUT = XMLInputFactory.newFactory();
+  static {
+    XML_INPUT.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    XML_INPUT.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+  }
+
+  /** How a batch upload holds its messages; see {@link #validateBatch}. */
+  public enum BatchFormat { ZIP, NDJSON, MULTI }
+
+  private final ObjectMapper mapper;
+  // batch validation: one worker per core by default, each using its own pooled Validator
+  private final ExecutorService batchPool;
+  private final int batchWorkers;
+  private final int maxMessageBytes;
+  private final int maxErrorsLimit;
+
+  public XmlValidatorService(SchemaRegistry schemas, ResultCache cache, ObjectMapper mapper,
+                             @Value("${srvalidator.batchWorkers:0}") int batchWorkers,
+                             @Value("${srvalidator.batchMaxMessageBytes:16777216}") int maxMessageBytes,
+                             @Value("${srvalidator.maxErrorsLimit:1000}") int maxErrorsLimit) {
+    this.schemas = schemas;
+    this.cache = cache;
+    this.mapper = mapper;
+    this.batchWorkers = batchWorkers > 0 ? batchWorkers : Runtime.getRuntime().availableProcessors();
+    this.maxMessageBytes = maxMessageBytes;
+    this.maxErrorsLimit = Math.max(1, maxErrorsLimit);
+    this.batchPool = Executors.newFixedThreadPool(this.batchWorkers, r -> {
+      Thread t = new Thread(r, "xml-batch");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  @PreDestroy
+  public void stop() {
+    batchPool.shutdownNow();
+  }
+
+  public Map<String, Object> validate(String msgType, String xmlContent) {
+    return validate(msgType, xmlContent, 1);
+  }
+
+  /** Validate, collecting up to maxErrors errors (see {@link #validate(String, InputStream, int)}). */
+  public Map<String, Object> validate(String msgType, String xmlContent, int maxErrors) {
+    if (xmlContent == null) return failure("xml required");
+    String hash = cache.isEnabled() ? ResultCache.hash(xmlContent) : null;
+    return validateCached(msgType, maxErrors, hash, () -> XML_INPUT.createXMLStreamReader(new StringReader(xmlContent)));
+  }
+
+  /** Validate a document held in memory (encoding from its declaration / BOM). */
+  public Map<String, Object> validate(String msgType, byte[] xml, int maxErrors) {
+    String hash = cache.isEnabled() ? ResultCache.hash(xml) : null;
+    return validateCached(msgType, maxErrors, hash, () -> XML_INPUT.createXMLStreamReader(new ByteArrayInputStream(xml)));
+  }
+
+  public Map<String, Object> validate(String msgType, InputStream xml) {
+    return validate(msgType, xml, 1);
+  }
+
+  /**
+   * Validate a document read straight from a stream (e.g. a request body or upload). The
+   * encoding comes from the XML declaration / BOM, UTF-8 by default. The stream is not closed.
+   *
+   * msgType may be omitted (or "auto"): the document's root element namespace is read first and
+   * matched to a schema's targetNamespace (see SchemaRegistry), and "msgType" in the result says
+   * which one was used. A given msgType whose schema namespace differs from the root's fails
+   * right away instead of reporting every element as an error.
+   *
+   * Validation goes on past an error until maxErrors (at most srvalidator.maxErrorsLimit) have
+   * been found, then stops. An invalid result has "error" (the first message) and "errors", each
+   * with severity, line, column, xpath and message; "truncated" says the limit cut the pass short.
+   *
+   * A document no larger than srvalidator.resultCacheMaxBytes is read whole first and answered
+   * from the result cache if the same bytes were validated recently ("cached": true).
+   */
+  public Map<String, Object> validate(String msgType, InputStream xml, int maxErrors) {
+    if (cache.isEnabled()) {
+      try {
+        byte[] head = xml.readNBytes(cache.maxBytes() + 1);
+        if (head.length <= cache.maxBytes()) return validate(msgType, head, maxErrors);
+        // too large to cache; validate what was read, then the rest as it arrives
+        xml = new SequenceInputStream(new ByteArrayInputStream(head), xml);
+      } catch (IOException e) {
+        return failure(e.getMessage());
+      }
+    }
+    try {
+      return validate(msgType, XML_INPUT.createXMLStreamReader(xml), maxErrors);
+    } catch (XMLStreamException e) {
+      return failure(e.getMessage());
+    }
+  }
+
+  private interface ReaderSource {
+    XMLStreamReader open() throws XMLStreamException;
+  }
+
+  // hash null: caching is off
+  private Map<String, Object> validateCached(String msgType, int maxErrors, String hash, ReaderSource source) {
+    String key = hash != null ? ResultCache.key(msgType, clampErrors(maxErrors), hash) : null;
+    Map<String,Object> hit = key != null ? cache.get(key) : null;
+    if (hit != null) return hit;
+    Map<String,Object> res;
+    try {
+      res = validate(msgType, source.open(), maxErrors);
+    } catch (XMLStreamException e) {
+      return failure(e.getMessage());
+    }
+    if (key != null) cache.put(key, res);
+    return res;
+  }
+
+  private int clampErrors(int maxErrors) {
+    return Math.max(1, Math.min(maxErrors, maxErrorsLimit));
+  }
+
+  private Map<String, Object> validate(String msgType, XMLStreamReader reader, int maxErrors) {
+    Map<String,Object> res = new LinkedHashMap<>();
+    boolean detect = msgType == null || msgType.isBlank() || "auto".equalsIgnoreCase(msgType);
+    String rootNs;
+    try {
+      // peek: only the prolog and the root start tag are read here
+      while (reader.getEventType() != XMLStreamConstants.START_ELEMENT && reader.hasNext()) reader.next();
+      if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+        closeQuietly(reader);
+        return failure("No root element");
+      }
+      rootNs = reader.getNamespaceURI();
+    } catch (XMLStreamException e) {
+      closeQuietly(reader);
+      return failure(e.getMessage());
+    }
+    if (detect) {
+      msgType = schemas.forNamespace(rootNs);
+      if (msgType == null) {
+        closeQuietly(reader);
+        return failure("No schema for root namespace: " + (rootNs == null || rootNs.isEmpty() ? "(none)" : rootNs));
+      }
+    } else {
+      String expected = schemas.namespaceOf(msgType);
+      if (expected != null && !expected.equals(rootNs)) {
+        closeQuietly(reader);
+        Map<String,Object> mismatch = failure("Root namespace " + rootNs + " does not match " + msgType + " (" + expected + ")");
+        String detected = schemas.forNamespace(rootNs);
+        if (detected != null) mismatch.put("detectedMsgType", detected);
+        return mismatch;
+      }
+    }
+    res.put("msgType", msgType);
+    if (detect) res.put("detected", true);
+
+    ElementPathReader tracked = new ElementPathReader(reader);
+    ErrorCollector errors = new ErrorCollector(clampErrors(maxErrors), tracked);
+    try {
+      SchemaRegistry.Compiled schema = schemas.get(msgType);
+      // which schema (id and version) the answer holds for; the result cache keys on it
+      res.put("schema", schema.msgType);
+      res.put("schemaVersion", schema.version);
+
+      Validator validator = schema.validator();
+      validator.setErrorHandler(errors);
+      try {
+        validator.validate(new StAXSource(tracked));
+        // the validator stops at the root's end tag; whatever follows must still be well-formed
+        while (reader.hasNext()) reader.next();
+      } catch (SAXException | IOException | XMLStreamException e) {
+        // the validator wraps what it got from the handler or the reader, e.g.
+        // SAXException(TransformerException(XMLStreamException(...))) for malformed input
+        Throwable cause = rootCause(e);
+        if (errors.capReached()) {
+          // enough errors; don't read the rest
+        } else if (cause instanceof SAXParseException) {
+          // fatal errors were recorded by the handler before being thrown
+          SAXParseException pe = (SAXParseException) cause;
+          if (errors.errors().isEmpty()) errors.addUnreported(message(pe), pe.getLineNumber(), pe.getColumnNumber());
+        } else {
+          // e.g. a StAX read error on malformed input
+          Location at = cause instanceof XMLStreamException && ((XMLStreamException) cause).getLocation() != null
+              ? ((XMLStreamException) cause).getLocation() : tracked.getLocation();
+          errors.addUnreported(message(cause), at != null ? at.getLineNumber() : -1, at != null ? at.getColumnNumber() : -1);
+        }
+      }
+
+      if (errors.errors().isEmpty()) {
+        res.put("valid", true);
+        res.put("details", "Validated against SR2025 schema: " + msgType);
+      } else {
+        res.put("valid", false);
+        res.put("error", errors.errors().get(0).get("message"));
+        res.put("errors", errors.errors());
+        if (errors.capReached()) res.put("truncated", true);
+      }
+    } catch (Exception e) {
+      res.put("valid", false);
+      res.put("error", message(rootCause(e)));
+    } finally {
+      closeQuietly(reader);
+    }
+    return res;
+  }
+
+  static Throwable rootCause(Throwable e) {
+    Throwable t = e;
+    while (t.getCause() != null && t.getCause() != t) t = t.getCause();
+    return t;
+  }
+
+  // the message without the "ParseError at [row,col]:[l,c]" prefix StAX puts before it
+  static String message(Throwable e) {
+    String m = e.getMessage();
+    if (m == null) return e.toString();
+    int i = m.indexOf("Message: ");
+    return i >= 0 ? m.substring(i + "Message: ".length()) : m;
+  }
+
+  private static void closeQuietly(XMLStreamReader reader) {
+    try { reader.close(); } catch (XMLStreamException ignored) {}
+  }
+
+  /**
+   * Validate many messages from one upload, in parallel. Formats:
+   * <ul>
+   * <li>ZIP - one message per entry, id = entry name</li>
+   * <li>NDJSON - one message per line, either {"id":..,"msgType":..,"xml":..} or raw single-line XML</li>
+   * <li>MULTI - concatenated documents, each starting with its own &lt;?xml ...?&gt; declaration</li>
+   * </ul>
+   * msgType applies to messages that don't name their own. Each message's result
+   * ({index, id, valid, error?, errors? (when maxErrors &gt; 1), millis}) goes to sink as soon as it is known, from a worker
+   * thread, in completion order; the totals are returned at the end. At most a few messages per
+   * worker are held in memory at a time, each at most batchMaxMessageBytes (larger ones are
+   * skipped as they are read and reported as too large). A message whose validation fails
+   * unexpectedly gets a failed result like any other; if sink throws, no further messages are started.
+   */
+  public Map<String, Object> validateBatch(String msgType, InputStream in, BatchFormat format, int maxErrors,
+                                           Consumer<Map<String,Object>> sink) throws IOException {
+    long start = System.nanoTime();
+    int window = batchWorkers * 4;
+    Semaphore inFlight = new Semaphore(window);
+    AtomicBoolean aborted = new AtomicBoolean();
+    BatchStats stats = new BatchStats();
+    AtomicLong index = new AtomicLong();
+
+    Consumer<BatchMessage> submit = m -> {
+      if (aborted.get()) throw new CancellationException("batch aborted");
+      inFlight.acquireUninterruptibly();
+      try {
+        batchPool.execute(() -> {
+          try {
+            Map<String,Object> r = validateOne(m, msgType, maxErrors);
+            stats.add(r);
+            if (!aborted.get()) sink.accept(r);
+          } catch (RuntimeException e) {
+            // only the sink throws here (validateOne reports its failures as results)
+            aborted.set(true);
+          } finally {
+            inFlight.release();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        inFlight.release();
+        throw e;
+      }
+    };
+
+    try {
+      switch (format) {
+        case ZIP:
+          readZip(in, index, submit);
+          break;
+        case NDJSON:
+          readNdjson(in, index, submit);
+          break;
+        default:
+          readMulti(in, index, submit);
+      }
+    } catch (CancellationException e) {
+      // sink failed (client went away); stop reading
+    } finally {
+      // wait for the messages still being validated
+      inFlight.acquireUninterruptibly(window);
+    }
+    return stats.toMap(System.nanoTime() - start, aborted.get());
+  }
+
+  private Map<String,Object> validateOne(BatchMessage m, String defaultType, int maxErrors) {
+    long t0 = System.nanoTime();
+    Map<String,Object> r = new LinkedHashMap<>();
+    r.put("index", m.index());
+    r.put("id", m.id());
+    Map<String,Object> v;
+    if (m.error() != null) {
+      v = failure(m.error());
+    } else {
+      String type = m.msgType() != null ? m.msgType() : defaultType;
+      try {
+        v = m.text() != null ? validate(type, m.text(), maxErrors) : validate(type, m.bytes(), maxErrors);
+      } catch (RuntimeException e) {
+        v = failure("validation failed: " + e);
+      }
+    }
+    r.put("valid", v.get("valid"));
+    if (v.containsKey("error")) r.put("error", v.get("error"));
+    if (maxErrors > 1 && v.containsKey("errors")) r.put("errors", v.get("errors"));
+    r.put("millis", (System.nanoTime() - t0) / 1_000_000.0);
+    return r;
+  }
+
+  private void readZip(InputStream in, AtomicLong index, Consumer<BatchMessage> submit) throws IOException {
+    ZipInputStream zip = new ZipInputStream(in);
+    ZipEntry e;
+    while ((e = zip.getNextEntry()) != null) {
+      if (e.isDirectory()) continue;
+      long i = index.incrementAndGet();
+      byte[] bytes = readCapped(zip);
+      submit.accept(bytes != null
+          ? new BatchMessage(i, e.getName(), null, bytes, null, null)
+          : new BatchMessage(i, e.getName(), null, null, null, tooLarge()));
+    }
+  }
+
+  private void readNdjson(InputStream in, AtomicLong index, Consumer<BatchMessage> submit) throws IOException {
+    LineReader lines = new LineReader(in, maxMessageBytes);
+    String line;
+    while ((line = lines.next()) != null) {
+      if (!lines.tooLong() && line.isBlank()) continue;
+      long i = index.incrementAndGet();
+      if (lines.tooLong()) {
+        submit.accept(new BatchMessage(i, String.valueOf(i), null, null, null, tooLarge()));
+      } else if (line.trim().startsWith("{")) {
+        JsonNode n;
+        try {
+          n = mapper.readTree(line);
+        } catch (JsonProcessingException ex) {
+          submit.accept(new BatchMessage(i, String.valueOf(i), null, null, null, "invalid JSON line: " + ex.getOriginalMessage()));
+          continue;
+        }
+        String id = n.hasNonNull("id") ? n.get("id").asText() : String.valueOf(i);
+        String type = n.hasNonNull("msgType") ? n.get("msgType").asText() : null;
+        String xml = n.hasNonNull("xml") ? n.get("xml").asText() : null;
+        submit.accept(new BatchMessage(i, id, type, null, xml, xml == null ? "xml required" : null));
+      } else {
+        submit.accept(new BatchMessage(i, String.valueOf(i), null, null, line, null));
+      }
+    }
+  }
+
+  private void readMulti(InputStream in, AtomicLong index, Consumer<BatchMessage> submit) throws IOException {
+    LineReader lines = new LineReader(in, maxMessageBytes);
+    StringBuilder doc = new StringBuilder();
+    long docBytes = 0;
+    boolean started = false;
+    boolean overflow = false;
+    String line;
+    while ((line = lines.next()) != null) {
+      String head = lines.tooLong() ? lines.head() : line;
+      if (started && head.stripLeading().startsWith("<?xml")) {
+        emitDoc(doc, overflow, index, submit);
+        doc.setLength(0);
+        docBytes = 0;
+        started = false;
+        overflow = false;
+      }
+      if (!started && !lines.tooLong() && line.isBlank()) continue;
+      started = true;
+      if (overflow) continue;
+      if (lines.tooLong() || docBytes + lines.bytes() + 1 > maxMessageBytes) {
+        // too large: drop what was kept, skip to the next declaration
+        overflow = true;
+        doc.setLength(0);
+        docBytes = 0;
+        continue;
+      }
+      doc.append(line).append('\n');
+      docBytes += lines.bytes() + 1;
+    }
+    if (started) emitDoc(doc, overflow, index, submit);
+  }
+
+  private void emitDoc(StringBuilder doc, boolean overflow, AtomicLong index, Consumer<BatchMessage> submit) {
+    long i = index.incrementAndGet();
+    submit.accept(overflow
+        ? new BatchMessage(i, String.valueOf(i), null, null, null, tooLarge())
+        : new BatchMessage(i, String.valueOf(i), null, null, doc.toString(), null));
+  }
+
+  // the rest of the stream, or null (and the rest skipped) if it exceeds maxMessageBytes
+  private byte[] readCapped(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buf = new byte[8192];
+    int n;
+    while ((n = in.read(buf)) > 0) {
+      if (out.size() + n > maxMessageBytes) {
+        while (in.read(buf) > 0) { /* skip */ }
+        return null;
+      }
+      out.write(buf, 0, n);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * UTF-8 lines of a stream, each kept only up to a byte limit: a longer line is read to its end
+   * without being kept (tooLong()), so no line costs more memory than the limit.
+   */
+  private static final class LineReader {
+    private static final int HEAD_BYTES = 64;
+    private final InputStream in;
+    private final int max;
+    private final byte[] buf = new byte[64 * 1024];
+    private int pos;
+    private int limit;
+    private byte[] line = new byte[8192];
+    private int len;
+    private boolean tooLong;
+
+    LineReader(InputStream in, int max) {
+      this.in = in;
+      this.max = Math.max(0, max);
+    }
+
+    /** The next line without its line break, or null at the end ("" when tooLong()). */
+    String next() throws IOException {
+      len = 0;
+      tooLong = false;
+      boolean any = false;
+      while (true) {
+        if (pos == limit) {
+          int n = in.read(buf);
+          if (n <= 0) return any ? text() : null;
+          pos = 0;
+          limit = n;
+        }
+        any = true;
+        int start = pos;
+        while (pos < limit && buf[pos] != '\n') pos++;
+        keep(start, pos);
+        if (pos < limit) {
+          pos++;
+          return text();
+        }
+      }
+    }
+
+    boolean tooLong() {
+      return tooLong;
+    }
+
+    /** Bytes of the current line (without its line break). */
+    int bytes() {
+      return len;
+    }
+
+    /** The start of the current line, also when it is too long. */
+    String head() {
+      return new String(line, 0, Math.min(len, HEAD_BYTES), StandardCharsets.UTF_8);
+    }
+
+    private void keep(int from, int to) {
+      int n = to - from;
+      if (tooLong) {
+        // keep just enough for head()
+        n = Math.min(n, Math.max(0, HEAD_BYTES - len));
+        if (n == 0) return;
+      } else if (len + n > max) {
+        tooLong = true;
+        n = Math.min(n, Math.max(0, HEAD_BYTES - len));
+      }
+      if (len + n > line.length) line = Arrays.copyOf(line, Math.max(len + n, Math.min(line.length * 2, max + 1)));
+      System.arraycopy(buf, from, line, len, n);
+      len += n;
+    }
+
+    private String text() {
+      if (tooLong) return "";
+      int n = len > 0 && line[len - 1] == '\r' ? len - 1 : len;
+      return new String(line, 0, n, StandardCharsets.UTF_8);
+    }
+  }
+
+  private String tooLarge() {
+    return "message larger than " + maxMessageBytes + " bytes";
+  }
+
+  private record BatchMessage(long index, String id, String msgType, byte[] bytes, String text, String error) {}
+
+  private static final class BatchStats {
+    final AtomicLong total = new AtomicLong();
+    final AtomicLong valid = new AtomicLong();
+    final AtomicLong nanos = new AtomicLong();
+    final AtomicLong maxNanos = new AtomicLong();
+
+    void add(Map<String,Object> r) {
+      total.incrementAndGet();
+      if (Boolean.TRUE.equals(r.get("valid"))) valid.incrementAndGet();
+      long n = (long) ((double) r.get("millis") * 1_000_000);
+      nanos.addAndGet(n);
+      maxNanos.accumulateAndGet(n, Math::max);
+    }
+
+    Map<String,Object> toMap(long elapsedNanos, boolean aborted) {
+      long t = total.get();
+      Map<String,Object> m = new LinkedHashMap<>();
+      m.put("done", true);
+      if (aborted) m.put("aborted", true);
+      m.put("total", t);
+      m.put("valid", valid.get());
+      m.put("invalid", t - valid.get());
+      m.put("millis", elapsedNanos / 1_000_000);
+      m.put("avgMillis", t == 0 ? 0 : nanos.get() / t / 1_000_000.0);
+      m.put("maxMillis", maxNanos.get() / 1_000_000.0);
+      m.put("messagesPerSecond", elapsedNanos == 0 ? 0 : Math.round(t * 1e9 / elapsedNanos));
+      return m;
+    }
+  }
+
+  private static Map<String, Object> failure(String error) {
+    Map<String,Object> res = new LinkedHashMap<>();
+    res.put("valid", false);
+    res.put("error", error);
+    return res;
+  }
+}
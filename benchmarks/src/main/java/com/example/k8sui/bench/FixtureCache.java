@@ -0,0 +1,59 @@
+package com.example.k8sui.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.k8sui.config.K8sProperties;
+import com.example.k8sui.service.K8sInformerCache;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+
+/**
+ * Informer cache stand-in that serves the fixtures from namespace-indexed lists, the same shape
+ * the real informer indexer returns, so K8sService runs its in-memory paths without a cluster.
+ */
+final class FixtureCache extends K8sInformerCache {
+
+	private final Map<String, List<Pod>> pods;
+	private final Map<String, List<Service>> services;
+	private final Map<String, List<Deployment>> deployments;
+	private final Map<String, Deployment> deploymentsByKey = new HashMap<>();
+
+	FixtureCache(Fixtures f) {
+		super(null, new K8sProperties());
+		this.pods = byNamespace(f.pods);
+		this.services = byNamespace(f.services);
+		this.deployments = byNamespace(f.deployments);
+		f.deployments.forEach(d -> deploymentsByKey.put(d.getMetadata().getNamespace() + "/" + d.getMetadata().getName(), d));
+	}
+
+	@Override public boolean isEnabled() { return true; }
+	@Override public boolean isReady() { return true; }
+
+	@Override public List<Pod> listPods(String namespace) { return scoped(pods, namespace); }
+	@Override public List<Service> listServices(String namespace) { return scoped(services, namespace); }
+	@Override public List<Deployment> listDeployments(String namespace) { return scoped(deployments, namespace); }
+
+	@Override
+	public Deployment getDeployment(String namespace, String name) {
+		return deploymentsByKey.get(namespace + "/" + name);
+	}
+
+	private static <T extends HasMetadata> Map<String, List<T>> byNamespace(List<T> items) {
+		Map<String, List<T>> m = new HashMap<>();
+		m.put("", items);
+		items.forEach(i -> m.computeIfAbsent(i.getMetadata().getNamespace(), k -> new ArrayList<>()).add(i));
+		return m;
+	}
+
+	// copies like the informer store does
+	private static <T> List<T> scoped(Map<String, List<T>> m, String namespace) {
+		String key = (namespace == null || namespace.isBlank() || "all".equalsIgnoreCase(namespace)) ? "" : namespace;
+		return new ArrayList<>(m.getOrDefault(key, List.of()));
+	}
+}
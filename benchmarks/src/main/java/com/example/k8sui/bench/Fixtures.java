@@ -0,0 +1,104 @@
+package com.example.k8sui.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.model.ContainerStatusBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+
+/**
+ * Synthetic cluster: pods spread over NAMESPACES namespaces, one service per APP label and one
+ * deployment per service. Roughly one service in eight has no pods, and pod states are a mix of
+ * running, pending, crash-looping and restarted so every summary branch is exercised.
+ */
+final class Fixtures {
+
+	static final int NAMESPACES = 20;
+	static final int PODS_PER_APP = 4;
+
+	final List<Pod> pods = new ArrayList<>();
+	final List<Service> services = new ArrayList<>();
+	final List<Deployment> deployments = new ArrayList<>();
+
+	Fixtures(int podCount) {
+		int apps = Math.max(1, podCount / PODS_PER_APP);
+		for (int a = 0; a < apps; a++) {
+			String ns = "ns-" + (a % NAMESPACES);
+			String app = "app-" + a;
+			Map<String, String> selector = Map.of("app", app, "tier", a % 2 == 0 ? "web" : "worker");
+
+			services.add(new ServiceBuilder()
+					.withNewMetadata().withName(app).withNamespace(ns).endMetadata()
+					.withNewSpec().withSelector(selector).endSpec()
+					.build());
+			deployments.add(deployment(ns, app, selector));
+
+			// every 8th app has no pods at all
+			if (a % 8 == 7) continue;
+			for (int p = 0; p < PODS_PER_APP && pods.size() < podCount; p++) {
+				pods.add(pod(ns, app + "-" + p, selector, pods.size()));
+			}
+		}
+	}
+
+	private static Pod pod(String ns, String name, Map<String, String> appLabels, int i) {
+		Map<String, String> labels = new HashMap<>(appLabels);
+		labels.put("pod-template-hash", Integer.toHexString(i * 0x9E3779B1));
+
+		String phase = "Running";
+		String waiting = null;
+		int restarts = 0;
+		switch (i % 16) {
+			case 0: phase = "Pending"; waiting = "ContainerCreating"; break;
+			case 1: waiting = "CrashLoopBackOff"; restarts = 7; break;
+			case 2: restarts = 1; break;
+			case 3: phase = "Failed"; break;
+			default: break;
+		}
+
+		ContainerStatusBuilder cs = new ContainerStatusBuilder()
+				.withName("main")
+				.withReady(waiting == null && "Running".equals(phase))
+				.withRestartCount(restarts);
+		if (waiting != null) {
+			cs.withNewState().withNewWaiting().withReason(waiting).endWaiting().endState();
+		} else {
+			cs.withNewState().withNewRunning().withStartedAt("2024-01-01T00:00:00Z").endRunning().endState();
+		}
+
+		return new PodBuilder()
+				.withNewMetadata()
+					.withName(name).withNamespace(ns).withLabels(labels)
+					.withCreationTimestamp("2024-01-01T00:00:00Z")
+					.withResourceVersion(String.valueOf(i))
+				.endMetadata()
+				.withNewSpec().addNewContainer().withName("main").withImage("registry.local/" + name + ":1.0").endContainer().endSpec()
+				.withNewStatus().withPhase(phase).withContainerStatuses(cs.build()).endStatus()
+				.build();
+	}
+
+	private static Deployment deployment(String ns, String app, Map<String, String> selector) {
+		return new DeploymentBuilder()
+				.withNewMetadata().withName(app).withNamespace(ns).withLabels(selector).endMetadata()
+				.withNewSpec()
+					.withReplicas(PODS_PER_APP)
+					.withNewSelector().withMatchLabels(selector).endSelector()
+					.withNewTemplate()
+						.withNewMetadata().withLabels(selector).endMetadata()
+						.withNewSpec().addNewContainer().withName("main").withImage("registry.local/" + app + ":1.0")
+							.addNewPort().withContainerPort(8080).endPort()
+							.addNewEnv().withName("APP").withValue(app).endEnv()
+						.endContainer().endSpec()
+					.endTemplate()
+				.endSpec()
+				.withNewStatus().withReplicas(PODS_PER_APP).withAvailableReplicas(PODS_PER_APP).endStatus()
+				.build();
+	}
+}
@@ -0,0 +1,152 @@
+package com.example.k8sui.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.k8sui.config.K8sProperties;
+import com.example.k8sui.model.PodView;
+import com.example.k8sui.model.Summary;
+import com.example.k8sui.service.K8sApiMetrics;
+import com.example.k8sui.service.K8sService;
+import com.example.k8sui.service.NamespaceAccess;
+import com.example.k8sui.service.PodSelectorIndex;
+import com.example.k8sui.service.SummaryTracker;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Hot paths of K8sService against in-memory fixtures of 1k / 10k / 100k pods.
+ *
+ * The summary tracker is reported as not ready, so getSummary recomputes from the pod and
+ * service lists on every call (the path used when the informer cache is off or syncing).
+ * zeroPodServicesLinearScan is the pre-index O(services x pods) algorithm, kept as a baseline,
+ * as is podsJsonFull (whole Fabric8 pods, what /api/pods used to return) next to podsJsonViews,
+ * and deploymentConvertValue (the ObjectMapper.convertValue to a Map that getDeployment did before
+ * it returned the typed Deployment) next to getDeployment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class K8sServiceBenchmark {
+
+	@Param({"1000", "10000", "100000"})
+	public int size;
+
+	private K8sService service;
+	private List<Pod> allPods;
+	private List<Pod> nsPods;
+	private List<Service> nsServices;
+	private Deployment deployment;
+	private final ObjectMapper mapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+	// a plain mapper, like the one getDeployment converted with
+	private final ObjectMapper convertMapper = new ObjectMapper();
+	private final ObjectWriter viewWriter = mapper.writerFor(PodView.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+	@Setup
+	public void setup() {
+		Fixtures f = new Fixtures(size);
+		FixtureCache cache = new FixtureCache(f);
+		SummaryTracker recompute = new SummaryTracker(cache) {
+			@Override public boolean isReady() { return false; }
+		};
+		K8sProperties props = new K8sProperties();
+		K8sApiMetrics metrics = new K8sApiMetrics(new SimpleMeterRegistry(), props);
+		service = new K8sService(null, cache, recompute, metrics, new NamespaceAccess(null, cache, metrics, props));
+		allPods = f.pods;
+		nsPods = cache.listPods("ns-0");
+		nsServices = cache.listServices("ns-0");
+		deployment = service.getDeployment("ns-0", "app-0");
+	}
+
+	@Benchmark
+	public Summary summaryAllNamespaces() {
+		return service.getSummary("all");
+	}
+
+	@Benchmark
+	public Summary summaryOneNamespace() {
+		return service.getSummary("ns-0");
+	}
+
+	@Benchmark
+	public List<String> zeroPodServices() {
+		return service.listServicesWithZeroPods("ns-0");
+	}
+
+	@Benchmark
+	public List<String> zeroPodServicesLinearScan() {
+		List<Map<String, String>> podLabels = nsPods.stream()
+				.map(p -> Optional.ofNullable(p.getMetadata()).map(m -> m.getLabels()).orElse(Map.of()))
+				.toList();
+		List<String> zero = new ArrayList<>();
+		for (Service svc : nsServices) {
+			Map<String, String> selector = svc.getSpec().getSelector();
+			boolean anyMatch = podLabels.stream().anyMatch(lbls -> {
+				for (var e : selector.entrySet()) {
+					if (!e.getValue().equals(lbls.get(e.getKey()))) return false;
+				}
+				return true;
+			});
+			if (!anyMatch) zero.add(svc.getMetadata().getName());
+		}
+		return zero;
+	}
+
+	@Benchmark
+	public PodSelectorIndex selectorIndexBuildAllPods() {
+		return PodSelectorIndex.build(allPods);
+	}
+
+	@Benchmark
+	public Deployment getDeployment() {
+		return service.getDeployment("ns-0", "app-0");
+	}
+
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public Map<String, Object> deploymentConvertValue() {
+		return convertMapper.convertValue(deployment, Map.class);
+	}
+
+	@Benchmark
+	public void podsJsonFull() throws IOException {
+		mapper.writeValue(OutputStream.nullOutputStream(), allPods);
+	}
+
+	@Benchmark
+	public void podsJsonViews() throws IOException {
+		try (JsonGenerator gen = mapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+			gen.writeStartArray();
+			for (Pod p : allPods) viewWriter.writeValue(gen, PodView.from(p));
+			gen.writeEndArray();
+		}
+	}
+}
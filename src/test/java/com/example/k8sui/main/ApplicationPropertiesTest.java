@@ -0,0 +1,50 @@
+package com.example.k8sui.main;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcProperties;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * The dashboard started with application.properties (no cluster is contacted at startup).
+ */
+@SpringBootTest(classes = K8sUiDashboardApplication.class)
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class ApplicationPropertiesTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private WebMvcProperties webMvc;
+
+    @Test
+    void prometheusEndpointIsExposed() throws Exception {
+        // one request, so http.server.requests has been recorded
+        mvc.perform(get("/actuator/health")).andExpect(status().isOk());
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("k8s_api_inflight")))
+                // percentiles-histogram.http.server.requests=true
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")));
+    }
+
+    @Test
+    void asyncRequestTimeoutIsSet() {
+        // bulk and log download responses; followed logs set their own (LogFollowService)
+        assertEquals(Duration.ofSeconds(120), webMvc.getAsync().getRequestTimeout());
+    }
+}
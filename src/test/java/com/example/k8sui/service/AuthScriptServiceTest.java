@@ -0,0 +1,229 @@
+package com.example.k8sui.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.k8sui.service.AuthScriptService.AuthScriptException;
+import com.example.k8sui.service.AuthScriptService.Job;
+import com.example.k8sui.service.AuthScriptService.JobListener;
+import com.example.k8sui.service.AuthScriptService.JobState;
+import com.example.k8sui.service.AuthScriptService.OutputLine;
+import com.example.k8sui.service.AuthScriptService.ScriptResult;
+
+class AuthScriptServiceTest {
+
+	// each run is recorded in runs-<ns>; wait-<ns> holds it until removed, bg-<ns> leaves a child
+	// holding stdout, ttl-<ns> is reported as the session TTL, fail-<ns> makes it fail
+	private static final String SCRIPT = """
+			#!/bin/sh
+			dir=$(dirname "$0")
+			echo run >> "$dir/runs-$1"
+			while [ -f "$dir/wait-$1" ]; do sleep 0.05; done
+			echo "hello $1"
+			[ -f "$dir/bg-$1" ] && sleep 5 &
+			[ -f "$dir/ttl-$1" ] && echo "K8S_SESSION_TTL=$(cat "$dir/ttl-$1")"
+			[ -f "$dir/fail-$1" ] && { echo oops >&2; exit 3; }
+			exit 0
+			""";
+
+	@TempDir
+	Path dir;
+	private Path script;
+	private AuthScriptService service;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		script = dir.resolve("login.sh");
+		Files.writeString(script, SCRIPT);
+		assertTrue(script.toFile().setExecutable(true));
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (service != null) service.stop();
+	}
+
+	private AuthScriptService service(int maxConcurrent, int queueSize) {
+		return new AuthScriptService(script.toString(), 30, maxConcurrent, queueSize, 2000, 10, 600, 30);
+	}
+
+	private AuthScriptService service(int sessionTtlSec) {
+		return new AuthScriptService(script.toString(), 30, 4, 16, 2000, 10, sessionTtlSec, 30);
+	}
+
+	private Job login(String ns, boolean force) throws Exception {
+		Job job = service.start(ns, force);
+		try {
+			job.result().get(10, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			// failed runs are part of some tests
+		}
+		return job;
+	}
+
+	private void flag(String name) throws IOException {
+		Files.writeString(dir.resolve(name), "");
+	}
+
+	private int runs(String ns) throws IOException {
+		Path runs = dir.resolve("runs-" + ns);
+		return Files.exists(runs) ? Files.readAllLines(runs, StandardCharsets.UTF_8).size() : 0;
+	}
+
+	private static void await(BooleanSupplier done) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!done.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) fail("timed out");
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	void startsForABusyNamespaceJoinItsJob() throws Exception {
+		service = service(4, 16);
+		flag("wait-a");
+		Job first = service.start("a");
+		await(() -> first.getState() == JobState.RUNNING);
+		Job second = service.start("a");
+		assertSame(first, second);
+
+		Files.delete(dir.resolve("wait-a"));
+		ScriptResult r = first.result().get(10, TimeUnit.SECONDS);
+		assertEquals(0, r.exitCode);
+		assertEquals("hello a\n", r.stdout);
+		assertEquals(1, runs("a"));
+		assertEquals(JobState.SUCCEEDED, service.getJob(first.id).getState());
+	}
+
+	@Test
+	void listenersGetTheOutputThenTheEnd() throws Exception {
+		service = service(4, 16);
+		flag("fail-b");
+		Job job = service.start("b");
+		List<OutputLine> lines = new CopyOnWriteArrayList<>();
+		CountDownLatch done = new CountDownLatch(1);
+		job.subscribe(new JobListener() {
+			@Override public void line(OutputLine line) { lines.add(line); }
+			@Override public void done(Job j) { done.countDown(); }
+		});
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertEquals(JobState.FAILED, job.getState());
+		assertTrue(lines.contains(new OutputLine("stdout", "hello b")), lines.toString());
+		assertTrue(lines.contains(new OutputLine("stderr", "oops")), lines.toString());
+		assertEquals(3, job.toStatus().get("exitCode"));
+	}
+
+	@Test
+	void aChildKeepingThePipeOpenDoesNotHoldUpTheJob() throws Exception {
+		service = service(4, 16);
+		flag("bg-c");
+		long start = System.nanoTime();
+		ScriptResult r = service.start("c").result().get(10, TimeUnit.SECONDS);
+		long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertEquals(0, r.exitCode);
+		// the child sleeps 5s; the job ends after the pipe grace period
+		assertTrue(millis < 4500, millis + " ms");
+	}
+
+	@Test
+	void aFullQueueIsRefused() throws Exception {
+		service = service(1, 1);
+		flag("wait-d");
+		flag("wait-e");
+		Job running = service.start("d");
+		await(() -> running.getState() == JobState.RUNNING);
+		service.start("e");
+
+		assertThrows(AuthScriptException.class, () -> service.start("f"));
+		Files.delete(dir.resolve("wait-d"));
+		Files.delete(dir.resolve("wait-e"));
+	}
+
+	@Test
+	void namespacesAreValidated() {
+		service = service(4, 16);
+		assertThrows(IllegalArgumentException.class, () -> service.start("a; rm -rf /"));
+		assertThrows(IllegalArgumentException.class, () -> service.start(""));
+	}
+
+	@Test
+	void aSuccessfulLoginIsReusedUntilForced() throws Exception {
+		service = service(600);
+		Job first = login("s1", false);
+		assertSame(first, login("s1", false));
+		assertEquals(1, runs("s1"));
+		assertTrue(service.getSessions().containsKey("s1"));
+
+		Job forced = login("s1", true);
+		assertNotSame(first, forced);
+		assertEquals(2, runs("s1"));
+		assertSame(forced, login("s1", false));
+	}
+
+	@Test
+	void theTtlTheScriptReportsWins() throws Exception {
+		service = service(600);
+		// reported 10s, within the 30s refresh skew: renewed on the next start
+		Files.writeString(dir.resolve("ttl-s2"), "10");
+		Job first = login("s2", false);
+		assertEquals(JobState.SUCCEEDED, first.getState());
+		assertFalse(service.getSessions().containsKey("s2"));
+		assertNotSame(first, login("s2", false));
+		assertEquals(2, runs("s2"));
+
+		Files.writeString(dir.resolve("ttl-s2"), "3600");
+		Job kept = login("s2", true);
+		long expiresAt = service.getSessions().get("s2");
+		assertTrue(expiresAt > System.currentTimeMillis() + 3_000_000L, String.valueOf(expiresAt));
+		assertSame(kept, login("s2", false));
+	}
+
+	@Test
+	void aFailedRunOrInvalidateDropsTheSession() throws Exception {
+		service = service(600);
+		login("s3", false);
+		flag("fail-s3");
+		Job failed = login("s3", true);
+		assertEquals(JobState.FAILED, failed.getState());
+		assertFalse(service.getSessions().containsKey("s3"));
+
+		Files.delete(dir.resolve("fail-s3"));
+		Job ok = login("s3", false);
+		assertNotSame(failed, ok);
+		assertTrue(service.invalidateSession("s3"));
+		assertNotSame(ok, login("s3", false));
+		assertEquals(4, runs("s3"));
+	}
+
+	@Test
+	void withoutATtlNothingIsReused() throws Exception {
+		service = service(0);
+		Job first = login("s4", false);
+		assertNotSame(first, login("s4", false));
+		assertEquals(2, runs("s4"));
+		assertTrue(service.getSessions().isEmpty());
+	}
+}
@@ -0,0 +1,213 @@
+package com.example.k8sui.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.k8sui.config.K8sProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.OwnerReference;
+
+class ConfigMapHistoryServiceTest {
+
+	private static final String NS = "ns";
+	private static final String NAME = "app-config";
+
+	private final K8sProperties props = new K8sProperties();
+	private final Map<String, ConfigMap> store = new HashMap<>();
+	private final AtomicInteger writes = new AtomicInteger();
+	private K8sService k8s;
+	private ConfigMapHistoryService history;
+
+	@BeforeEach
+	void setUp() {
+		// a ConfigMap store instead of an apiserver; the history is written from a background thread
+		k8s = mock(K8sService.class);
+		when(k8s.findConfigMap(anyString(), anyString())).thenAnswer(inv -> {
+			synchronized (store) {
+				return store.get(inv.getArgument(1));
+			}
+		});
+		when(k8s.createConfigMap(anyString(), any(ConfigMap.class))).thenAnswer(inv -> save(inv.getArgument(1)));
+		when(k8s.updateConfigMap(anyString(), any(ConfigMap.class))).thenAnswer(inv -> save(inv.getArgument(1)));
+		history = new ConfigMapHistoryService(props, new ObjectMapper());
+	}
+
+	@AfterEach
+	void tearDown() {
+		history.stop();
+	}
+
+	private ConfigMap save(ConfigMap cm) {
+		synchronized (store) {
+			store.put(cm.getMetadata().getName(), cm);
+		}
+		writes.incrementAndGet();
+		return cm;
+	}
+
+	private static ConfigMap configMap(String rv, Map<String, String> data) {
+		return new ConfigMapBuilder()
+				.withNewMetadata().withNamespace(NS).withName(NAME).withUid("uid-1").withResourceVersion(rv).endMetadata()
+				.withData(data)
+				.build();
+	}
+
+	// record a replaced version and wait until it is written
+	private void record(String rv, Map<String, String> data) {
+		int before = writes.get();
+		history.record(k8s, configMap(rv, data));
+		await(() -> writes.get() > before);
+	}
+
+	private static void await(BooleanSupplier done) {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!done.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) fail("timed out");
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				fail("interrupted");
+			}
+		}
+	}
+
+	private int revisionNumber(Map<String, Object> entry) {
+		return (Integer) entry.get("revision");
+	}
+
+	@Test
+	void firstRecordCreatesAHistoryOwnedByTheConfigMap() {
+		record("10", Map.of("a", "1"));
+
+		ConfigMap hist = store.get(ConfigMapHistoryService.historyName(NAME));
+		assertNotNull(hist);
+		assertEquals("true", hist.getMetadata().getLabels().get(ConfigMapHistoryService.HISTORY_LABEL));
+		List<OwnerReference> owners = hist.getMetadata().getOwnerReferences();
+		assertEquals(1, owners.size());
+		assertEquals("ConfigMap", owners.get(0).getKind());
+		assertEquals(NAME, owners.get(0).getName());
+		assertEquals("uid-1", owners.get(0).getUid());
+
+		assertEquals(Map.of("a", "1"), history.revision(k8s, NS, NAME, 1));
+	}
+
+	@Test
+	void unchangedContentIsNotRecordedTwice() {
+		record("10", Map.of("a", "1"));
+		history.record(k8s, configMap("11", Map.of("a", "1")));
+		// the second record is a no-op: the writer is idle again once a third one is written
+		record("12", Map.of("a", "2"));
+
+		List<Map<String, Object>> revs = history.list(k8s, NS, NAME);
+		assertEquals(2, revs.size());
+		assertEquals("12", revs.get(1).get("resourceVersion"));
+	}
+
+	@Test
+	void diffsReplayToEveryRevision() {
+		props.setConfigMapHistorySnapshotEvery(3);
+		Map<String, String> v1 = Map.of("a", "1", "b", "big value that stays the same", "c", "3");
+		Map<String, String> v2 = Map.of("a", "2", "b", "big value that stays the same", "c", "3");
+		Map<String, String> v3 = Map.of("a", "2", "b", "big value that stays the same");
+		Map<String, String> v4 = Map.of("a", "4", "b", "big value that stays the same", "d", "new");
+		record("1", v1);
+		record("2", v2);
+		record("3", v3);
+		record("4", v4);
+
+		assertEquals(v1, history.revision(k8s, NS, NAME, 1));
+		assertEquals(v2, history.revision(k8s, NS, NAME, 2));
+		assertEquals(v3, history.revision(k8s, NS, NAME, 3));
+		assertEquals(v4, history.revision(k8s, NS, NAME, 4));
+
+		List<Map<String, Object>> revs = history.list(k8s, NS, NAME);
+		assertEquals(1, revs.get(1).get("changedKeys"));
+		assertEquals(1, revs.get(2).get("changedKeys"));
+		assertEquals(2, revs.get(3).get("changedKeys"));
+	}
+
+	@Test
+	void pruningRebasesOntoAFullSnapshot() {
+		props.setConfigMapHistorySnapshotEvery(100);
+		props.setConfigMapHistoryMaxRevisions(3);
+		for (int i = 1; i <= 6; i++) {
+			record(String.valueOf(i), Map.of("k", "value " + i, "fixed", "a long value that never changes"));
+		}
+
+		List<Map<String, Object>> revs = history.list(k8s, NS, NAME);
+		assertEquals(List.of(4, 5, 6), revs.stream().map(this::revisionNumber).toList());
+		assertNull(history.revision(k8s, NS, NAME, 3));
+		// revision 4 was a diff against 3, which is gone
+		assertEquals(Map.of("k", "value 4", "fixed", "a long value that never changes"), history.revision(k8s, NS, NAME, 4));
+		assertEquals(Map.of("k", "value 6", "fixed", "a long value that never changes"), history.revision(k8s, NS, NAME, 6));
+	}
+
+	@Test
+	void diffBetweenRevisions() {
+		record("1", Map.of("a", "1", "b", "2"));
+		record("2", Map.of("a", "1", "b", "3", "c", "4"));
+
+		Map<String, Object> diff = history.diff(k8s, NS, NAME, 1, 2);
+		assertEquals(Map.of("c", "4"), diff.get("added"));
+		assertEquals(Map.of(), diff.get("removed"));
+		assertEquals(Map.of("b", Map.of("from", "2", "to", "3")), diff.get("changed"));
+
+		Map<String, Object> back = history.diff(k8s, NS, NAME, 2, 1);
+		assertEquals(Map.of("c", "4"), back.get("removed"));
+		assertNull(history.diff(k8s, NS, NAME, 1, 9));
+	}
+
+	@Test
+	void sizeIsCountedInUtf8Bytes() {
+		assertEquals(3, ConfigMapHistoryService.utf8Length("abc"));
+		assertEquals(2, ConfigMapHistoryService.utf8Length("é"));
+		assertEquals(3, ConfigMapHistoryService.utf8Length("€"));
+		assertEquals(4, ConfigMapHistoryService.utf8Length("😀"));
+		assertEquals(1 + 6, ConfigMapHistoryService.size(Map.of("k", "€€")));
+	}
+
+	@Test
+	void olderRevisionsGiveWayToTheByteBudget() {
+		// about 600 KB each in UTF-8 but only 200k chars: two of them only fit when counted as chars
+		record("1", Map.of("k", "€".repeat(200_000)));
+		record("2", Map.of("k", "£".repeat(300_000)));
+
+		List<Map<String, Object>> revs = history.list(k8s, NS, NAME);
+		assertEquals(List.of(2), revs.stream().map(this::revisionNumber).toList());
+		assertNull(history.lastError(k8s, NS, NAME));
+	}
+
+	@Test
+	void aRevisionTooLargeForTheHistoryIsReported() {
+		history.record(k8s, configMap("1", Map.of("k", "€".repeat(350_000))));
+		await(() -> history.lastError(k8s, NS, NAME) != null);
+
+		assertTrue(history.lastError(k8s, NS, NAME).contains("too large"));
+		assertNull(store.get(ConfigMapHistoryService.historyName(NAME)));
+
+		// a later revision that fits clears it (right after it is written)
+		record("2", Map.of("k", "small"));
+		await(() -> history.lastError(k8s, NS, NAME) == null);
+	}
+}
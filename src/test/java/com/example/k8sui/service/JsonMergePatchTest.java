@@ -0,0 +1,76 @@
+package com.example.k8sui.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+class JsonMergePatchTest {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private JsonNode json(String s) throws Exception {
+		return mapper.readTree(s.replace('\'', '"'));
+	}
+
+	@Test
+	void equalObjectsGiveAnEmptyPatch() throws Exception {
+		JsonNode a = json("{'spec':{'replicas':2,'template':{'x':[1,2]}}}");
+		assertTrue(JsonMergePatch.diff(a, a.deepCopy()).isEmpty());
+	}
+
+	@Test
+	void onlyChangedFieldsOfNestedObjectsAreSent() throws Exception {
+		ObjectNode patch = JsonMergePatch.diff(
+				json("{'spec':{'replicas':2,'paused':false},'metadata':{'name':'a'}}"),
+				json("{'spec':{'replicas':3,'paused':false},'metadata':{'name':'a'}}"));
+		assertEquals(json("{'spec':{'replicas':3}}"), patch);
+	}
+
+	@Test
+	void removedFieldsBecomeNull() throws Exception {
+		ObjectNode patch = JsonMergePatch.diff(
+				json("{'metadata':{'labels':{'a':'1','b':'2'}}}"),
+				json("{'metadata':{'labels':{'a':'1'}}}"));
+		assertEquals(json("{'metadata':{'labels':{'b':null}}}"), patch);
+	}
+
+	@Test
+	void explicitNullOnlyDeletesWhatExists() throws Exception {
+		assertEquals(json("{'a':null}"), JsonMergePatch.diff(json("{'a':1}"), json("{'a':null}")));
+		assertTrue(JsonMergePatch.diff(json("{}"), json("{'a':null}")).isEmpty());
+		assertTrue(JsonMergePatch.diff(json("{'a':null}"), json("{}")).isEmpty());
+	}
+
+	@Test
+	void arraysAreReplacedWhole() throws Exception {
+		ObjectNode patch = JsonMergePatch.diff(
+				json("{'containers':[{'name':'a','image':'x:1'},{'name':'b'}]}"),
+				json("{'containers':[{'name':'a','image':'x:2'},{'name':'b'}]}"));
+		assertEquals(json("{'containers':[{'name':'a','image':'x:2'},{'name':'b'}]}"), patch);
+	}
+
+	@Test
+	void objectReplacedByScalarAndBack() throws Exception {
+		assertEquals(json("{'a':1}"), JsonMergePatch.diff(json("{'a':{'b':1}}"), json("{'a':1}")));
+		assertEquals(json("{'a':{'b':1}}"), JsonMergePatch.diff(json("{'a':1}"), json("{'a':{'b':1}}")));
+	}
+
+	@Test
+	void serverFieldsAreLeftOutOfTheDiff() throws Exception {
+		JsonNode live = json("{'metadata':{'name':'a','resourceVersion':'7','uid':'u','generation':3,"
+				+ "'labels':{'app':'a'}},'spec':{'replicas':1},'status':{'replicas':1}}");
+		JsonNode edited = json("{'metadata':{'name':'a','resourceVersion':'5','labels':{'app':'a'}},'spec':{'replicas':1}}");
+		ObjectNode stripped = JsonMergePatch.withoutServerFields(live);
+		assertFalse(stripped.has("status"));
+		assertFalse(stripped.get("metadata").has("resourceVersion"));
+		assertEquals("a", stripped.get("metadata").get("labels").get("app").asText());
+		assertTrue(live.has("status"), "the original is not modified");
+		assertTrue(JsonMergePatch.diff(stripped, JsonMergePatch.withoutServerFields(edited)).isEmpty());
+	}
+}
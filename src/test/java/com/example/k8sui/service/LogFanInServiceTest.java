@@ -0,0 +1,83 @@
+package com.example.k8sui.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.k8sui.config.K8sProperties;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.dsl.Loggable;
+
+class LogFanInServiceTest {
+
+	private final K8sProperties props = new K8sProperties();
+	private final K8sService k8s = mock(K8sService.class);
+	private LogFanInService fanIn;
+
+	@AfterEach
+	void tearDown() {
+		if (fanIn != null) fanIn.stop();
+	}
+
+	private static Pod pod(String name) {
+		return new PodBuilder().withNewMetadata().withName(name).endMetadata().build();
+	}
+
+	private void log(String pod, String text) {
+		Loggable log = mock(Loggable.class);
+		when(log.getLogInputStream()).thenAnswer(inv -> new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+		when(k8s.logSource(anyString(), eq(pod), any(), anyBoolean(), any(), any(), anyBoolean())).thenReturn(log);
+	}
+
+	private String merge(List<Pod> pods, String grep) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		fanIn.stream(k8s, "ns", pods, null, null, null, false, LogFanInService.lineFilter(grep, null), out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void linesAreMergedByTimestampAndFiltered() throws Exception {
+		fanIn = new LogFanInService(props);
+		log("a", "2024-05-01T10:00:00Z start a\n2024-05-01T10:00:02Z error a\n");
+		log("b", "2024-05-01T10:00:01Z error b\n2024-05-01T10:00:03Z done b\n");
+
+		assertEquals("[a] 2024-05-01T10:00:00Z start a\n"
+				+ "[b] 2024-05-01T10:00:01Z error b\n"
+				+ "[a] 2024-05-01T10:00:02Z error a\n"
+				+ "[b] 2024-05-01T10:00:03Z done b\n", merge(List.of(pod("a"), pod("b")), null));
+		assertEquals("[b] 2024-05-01T10:00:01Z error b\n"
+				+ "[a] 2024-05-01T10:00:02Z error a\n", merge(List.of(pod("a"), pod("b")), "error"));
+	}
+
+	@Test
+	void podsBeyondTheOpenLogLimitAreNotOpened() throws Exception {
+		props.setLogFanInMaxPods(2);
+		props.setLogFanInMaxOpenLogs(2);
+		fanIn = new LogFanInService(props);
+
+		assertEquals("[fan-in] too many pod logs open, try again later\n", merge(List.of(pod("a"), pod("b"), pod("c")), null));
+		verify(k8s, never()).logSource(anyString(), anyString(), any(), anyBoolean(), any(), any(), anyBoolean());
+
+		// the permits of a finished merge are given back
+		log("a", "2024-05-01T10:00:00Z x\n");
+		log("b", "2024-05-01T10:00:01Z y\n");
+		assertEquals("[a] 2024-05-01T10:00:00Z x\n[b] 2024-05-01T10:00:01Z y\n", merge(List.of(pod("a"), pod("b")), null));
+		assertEquals("[a] 2024-05-01T10:00:00Z x\n[b] 2024-05-01T10:00:01Z y\n", merge(List.of(pod("a"), pod("b")), null));
+	}
+}
@@ -0,0 +1,168 @@
+package com.example.k8sui.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.k8sui.config.K8sProperties;
+
+import io.fabric8.kubernetes.api.model.Namespace;
+import io.fabric8.kubernetes.api.model.NamespaceBuilder;
+import io.fabric8.kubernetes.api.model.NamespaceListBuilder;
+import io.fabric8.kubernetes.api.model.authorization.v1.SelfSubjectAccessReview;
+import io.fabric8.kubernetes.api.model.authorization.v1.SelfSubjectAccessReviewBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.InOutCreateable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class NamespaceAccessTest {
+
+	private final K8sProperties props = new K8sProperties();
+	private final KubernetesClient client = mock(KubernetesClient.class, RETURNS_DEEP_STUBS);
+	private final K8sInformerCache cache = mock(K8sInformerCache.class);
+	// namespace -> allowed; a missing namespace makes the review itself fail
+	private final Map<String, Boolean> allowed = new ConcurrentHashMap<>();
+	private final Map<String, AtomicInteger> reviewsOf = new ConcurrentHashMap<>();
+	private volatile CountDownLatch reviewGate = new CountDownLatch(0);
+	private final ExecutorService callers = Executors.newFixedThreadPool(2);
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		props.setNamespaceAccessReview(true);
+		props.setNamespaceAccessReviewSeconds(60);
+		when(cache.isReady()).thenReturn(true);
+		when(cache.listNamespaces()).thenReturn(List.of(namespace("a"), namespace("b"), namespace("c")));
+
+		InOutCreateable<SelfSubjectAccessReview, SelfSubjectAccessReview> reviews = mock(InOutCreateable.class);
+		when(client.authorization().v1().selfSubjectAccessReview()).thenReturn(reviews);
+		when(reviews.create(any(SelfSubjectAccessReview.class))).thenAnswer(inv -> {
+			SelfSubjectAccessReview review = inv.getArgument(0);
+			String ns = review.getSpec().getResourceAttributes().getNamespace();
+			reviewsOf.computeIfAbsent(ns, k -> new AtomicInteger()).incrementAndGet();
+			reviewGate.await(5, TimeUnit.SECONDS);
+			Boolean ok = allowed.get(ns);
+			if (ok == null) throw new KubernetesClientException("forbidden", 403, null);
+			return new SelfSubjectAccessReviewBuilder(review).withNewStatus().withAllowed(ok).endStatus().build();
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		callers.shutdownNow();
+	}
+
+	private static Namespace namespace(String name) {
+		return new NamespaceBuilder().withNewMetadata().withName(name).endMetadata().build();
+	}
+
+	private NamespaceAccess access() {
+		return new NamespaceAccess(client, cache, new K8sApiMetrics(new SimpleMeterRegistry(), props), props);
+	}
+
+	private int reviews(String ns) {
+		AtomicInteger n = reviewsOf.get(ns);
+		return n != null ? n.get() : 0;
+	}
+
+	@Test
+	void withoutReviewsEveryNamespaceIsListed() {
+		props.setNamespaceAccessReview(false);
+		assertEquals(List.of("a", "b", "c"), access().listNamespaces());
+		assertTrue(reviewsOf.isEmpty());
+	}
+
+	@Test
+	void oneReviewWhenPodsMayBeListedEverywhere() {
+		allowed.put("", true);
+		assertEquals(List.of("a", "b", "c"), access().listNamespaces());
+		assertEquals(Set.of(""), reviewsOf.keySet());
+	}
+
+	@Test
+	void deniedNamespacesAreLeftOutAndAnswersAreKept() {
+		allowed.put("", false);
+		allowed.put("a", true);
+		allowed.put("b", false);
+		// no entry for c: a failing review hides nothing
+		NamespaceAccess access = access();
+
+		assertEquals(List.of("a", "c"), access.listNamespaces());
+		assertEquals(List.of("a", "c"), access.listNamespaces());
+		assertEquals(1, reviews(""));
+		assertEquals(1, reviews("a"));
+		assertEquals(1, reviews("b"));
+
+		// kept answers go with invalidate(); failed reviews were never kept
+		access.invalidate();
+		allowed.put("b", true);
+		assertEquals(List.of("a", "b", "c"), access.listNamespaces());
+		assertEquals(2, reviews("a"));
+		assertEquals(2, reviews("b"));
+	}
+
+	@Test
+	void concurrentCallersShareTheRunningReviews() throws Exception {
+		allowed.put("", false);
+		allowed.put("a", true);
+		allowed.put("b", true);
+		allowed.put("c", false);
+		NamespaceAccess access = access();
+		reviewGate = new CountDownLatch(1);
+
+		Future<List<String>> first = callers.submit(access::listNamespaces);
+		Future<List<String>> second = callers.submit(access::listNamespaces);
+		long deadline = System.currentTimeMillis() + 5000;
+		while (reviews("") == 0 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+		Thread.sleep(50);
+		reviewGate.countDown();
+
+		assertEquals(List.of("a", "b"), first.get(5, TimeUnit.SECONDS));
+		assertEquals(List.of("a", "b"), second.get(5, TimeUnit.SECONDS));
+		assertEquals(1, reviews(""));
+		assertEquals(1, reviews("a"));
+		assertEquals(1, reviews("b"));
+		assertEquals(1, reviews("c"));
+	}
+
+	@Test
+	void withoutTheCacheOneListIsSharedAndAForbiddenListOffersTheOwnNamespace() {
+		props.setNamespaceAccessReview(false);
+		props.setNamespaceCacheSeconds(60);
+		when(cache.isReady()).thenReturn(false);
+		AtomicInteger lists = new AtomicInteger();
+		when(client.namespaces().list()).thenAnswer(inv -> {
+			lists.incrementAndGet();
+			return new NamespaceListBuilder().withItems(namespace("x"), namespace("y")).build();
+		});
+		NamespaceAccess access = access();
+
+		assertEquals(List.of("x", "y"), access.listNamespaces());
+		assertEquals(List.of("x", "y"), access.listNamespaces());
+		assertEquals(1, lists.get());
+
+		access.invalidate();
+		when(client.namespaces().list()).thenThrow(new KubernetesClientException("forbidden", 403, null));
+		when(client.getNamespace()).thenReturn("mine");
+		assertEquals(List.of("mine"), access.listNamespaces());
+	}
+}
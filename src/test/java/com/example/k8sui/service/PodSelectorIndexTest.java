@@ -0,0 +1,83 @@
+package com.example.k8sui.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+
+class PodSelectorIndexTest {
+
+	private static Pod pod(String ns, String name, Map<String, String> labels) {
+		return new PodBuilder().withNewMetadata().withNamespace(ns).withName(name).withLabels(labels).endMetadata().build();
+	}
+
+	private final PodSelectorIndex index = PodSelectorIndex.build(List.of(
+			pod("a", "web-1", Map.of("app", "web", "tier", "front")),
+			pod("a", "web-2", Map.of("app", "web", "tier", "back")),
+			pod("a", "db-1", Map.of("app", "db", "tier", "back")),
+			pod("b", "web-1", Map.of("app", "web", "tier", "front")),
+			pod(null, "plain", Map.of("app", "web")),
+			new Pod()));
+
+	@Test
+	void everyPairOfTheSelectorMustMatch() {
+		assertEquals(2, index.countMatches("a", Map.of("app", "web")));
+		assertEquals(1, index.countMatches("a", Map.of("app", "web", "tier", "back")));
+		assertEquals(2, index.countMatches("a", Map.of("tier", "back")));
+		assertEquals(0, index.countMatches("a", Map.of("app", "db", "tier", "front")));
+		assertEquals(0, index.countMatches("a", Map.of("app", "web", "zone", "x")));
+		assertTrue(index.matchesAny("a", Map.of("app", "db")));
+		assertFalse(index.matchesAny("a", Map.of("app", "cache")));
+	}
+
+	@Test
+	void namespacesAreKeptApart() {
+		assertEquals(1, index.countMatches("b", Map.of("app", "web")));
+		assertEquals(0, index.countMatches("b", Map.of("app", "db")));
+		// no namespace means "default", for pods and for selectors
+		assertEquals(1, index.countMatches("default", Map.of("app", "web")));
+		assertEquals(1, index.countMatches(null, Map.of("app", "web")));
+		assertEquals(3, index.podCount("a"));
+		assertEquals(1, index.podCount("default"));
+		assertEquals(0, index.podCount("c"));
+	}
+
+	@Test
+	void anEmptySelectorMatchesNothing() {
+		assertEquals(0, index.countMatches("a", Map.of()));
+		assertEquals(0, index.countMatches("a", null));
+		assertFalse(index.matchesAny("a", null));
+	}
+
+	@Test
+	void intersectionsAgreeWithAPlainScan() {
+		Random rnd = new Random(42);
+		List<Pod> pods = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			pods.add(pod("ns", "p" + i, Map.of(
+					"a", "v" + rnd.nextInt(3), "b", "v" + rnd.nextInt(5), "c", "v" + rnd.nextInt(40))));
+		}
+		PodSelectorIndex big = PodSelectorIndex.build(pods);
+		for (int t = 0; t < 200; t++) {
+			Map<String, String> selector = switch (t % 3) {
+				case 0 -> Map.of("a", "v" + rnd.nextInt(3), "b", "v" + rnd.nextInt(5));
+				case 1 -> Map.of("b", "v" + rnd.nextInt(5), "c", "v" + rnd.nextInt(40));
+				default -> Map.of("a", "v" + rnd.nextInt(3), "b", "v" + rnd.nextInt(5), "c", "v" + rnd.nextInt(40));
+			};
+			long expected = pods.stream()
+					.filter(p -> p.getMetadata().getLabels().entrySet().containsAll(selector.entrySet()))
+					.count();
+			assertEquals(expected, big.countMatches("ns", selector), selector.toString());
+			assertEquals(expected > 0, big.matchesAny("ns", selector), selector.toString());
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package com.example.k8sui.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.example.k8sui.model.Summary;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Indexer;
+
+class SummaryTrackerTest {
+
+	private final K8sInformerCache cache = mock(K8sInformerCache.class);
+	private final List<Pod> podStore = new ArrayList<>();
+	private final List<Service> serviceStore = new ArrayList<>();
+	private SummaryTracker tracker;
+	private ResourceEventHandler<Pod> pods;
+	private ResourceEventHandler<Service> services;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		SharedIndexInformer<Pod> podInformer = mock(SharedIndexInformer.class);
+		SharedIndexInformer<Service> serviceInformer = mock(SharedIndexInformer.class);
+		Indexer<Pod> podIndexer = mock(Indexer.class);
+		Indexer<Service> serviceIndexer = mock(Indexer.class);
+		when(podIndexer.list()).thenAnswer(inv -> List.copyOf(podStore));
+		when(serviceIndexer.list()).thenAnswer(inv -> List.copyOf(serviceStore));
+		when(podInformer.getStore()).thenReturn(podIndexer);
+		when(serviceInformer.getStore()).thenReturn(serviceIndexer);
+		when(cache.isEnabled()).thenReturn(true);
+		when(cache.getPodInformer()).thenReturn(podInformer);
+		when(cache.getServiceInformer()).thenReturn(serviceInformer);
+
+		tracker = new SummaryTracker(cache);
+		tracker.register();
+
+		ArgumentCaptor<ResourceEventHandler<Pod>> podHandler = ArgumentCaptor.forClass(ResourceEventHandler.class);
+		ArgumentCaptor<ResourceEventHandler<Service>> serviceHandler = ArgumentCaptor.forClass(ResourceEventHandler.class);
+		verify(podInformer).addEventHandler(podHandler.capture());
+		verify(serviceInformer).addEventHandler(serviceHandler.capture());
+		pods = podHandler.getValue();
+		services = serviceHandler.getValue();
+	}
+
+	private static Pod pod(String ns, String name, String phase, boolean ready, int restarts, Map<String, String> labels) {
+		return new PodBuilder()
+				.withNewMetadata().withNamespace(ns).withName(name).withLabels(labels).endMetadata()
+				.withNewStatus().withPhase(phase)
+				.addNewContainerStatus().withName("c").withReady(ready).withRestartCount(restarts).endContainerStatus()
+				.endStatus()
+				.build();
+	}
+
+	private static Service service(String ns, String name, Map<String, String> selector) {
+		return new ServiceBuilder()
+				.withNewMetadata().withNamespace(ns).withName(name).endMetadata()
+				.withNewSpec().withSelector(selector).endSpec()
+				.build();
+	}
+
+	@Test
+	void podEventsMoveOnlyTheCountersThatChanged() {
+		Pod starting = pod("a", "web-1", "Pending", false, 0, Map.of("app", "web"));
+		pods.onAdd(starting);
+		pods.onAdd(pod("b", "db-1", "Running", true, 0, Map.of("app", "db")));
+		assertEquals(new Summary(0, 1, 0, 0), tracker.getSummary("a"));
+		assertEquals(new Summary(1, 1, 0, 0), tracker.getSummary("all"));
+
+		Pod running = pod("a", "web-1", "Running", true, 0, Map.of("app", "web"));
+		pods.onUpdate(starting, running);
+		assertEquals(new Summary(1, 0, 0, 0), tracker.getSummary("a"));
+
+		// a restart makes it abnormal as well as running
+		Pod restarted = pod("a", "web-1", "Running", true, 2, Map.of("app", "web"));
+		pods.onUpdate(running, restarted);
+		assertEquals(new Summary(1, 0, 1, 0), tracker.getSummary("a"));
+		assertEquals(new Summary(2, 0, 1, 0), tracker.getSummary(null));
+
+		pods.onDelete(restarted, false);
+		assertEquals(new Summary(0, 0, 0, 0), tracker.getSummary("a"));
+		assertEquals(new Summary(1, 0, 0, 0), tracker.getSummary("all"));
+	}
+
+	@Test
+	void aServiceCountsAsZeroPodUntilAPodMatchesItsSelector() {
+		services.onAdd(service("a", "web", Map.of("app", "web")));
+		services.onAdd(service("a", "headless", null));
+		assertEquals(1, tracker.getSummary("a").getServicesWithZeroPods());
+
+		Pod other = pod("a", "web-1", "Running", true, 0, Map.of("app", "other"));
+		pods.onAdd(other);
+		assertEquals(1, tracker.getSummary("a").getServicesWithZeroPods());
+
+		// relabelled into the selector, then a second match: only the first one counts
+		Pod web = pod("a", "web-1", "Running", true, 0, Map.of("app", "web"));
+		pods.onUpdate(other, web);
+		pods.onAdd(pod("a", "web-2", "Running", true, 0, Map.of("app", "web")));
+		assertEquals(0, tracker.getSummary("a").getServicesWithZeroPods());
+
+		pods.onDelete(web, false);
+		assertEquals(0, tracker.getSummary("a").getServicesWithZeroPods());
+		pods.onDelete(pod("a", "web-2", "Running", true, 0, Map.of("app", "web")), false);
+		assertEquals(1, tracker.getSummary("a").getServicesWithZeroPods());
+
+		services.onDelete(service("a", "web", Map.of("app", "web")), false);
+		assertEquals(0, tracker.getSummary("all").getServicesWithZeroPods());
+	}
+
+	@Test
+	void notReadyUntilTheHandlersHaveSeenTheWholeStore() {
+		Pod p1 = pod("a", "p1", "Running", true, 0, Map.of());
+		Pod p2 = pod("a", "p2", "Running", true, 0, Map.of());
+		Service s1 = service("a", "s1", null);
+		podStore.addAll(List.of(p1, p2));
+		serviceStore.add(s1);
+
+		when(cache.isReady()).thenReturn(false);
+		assertFalse(tracker.isReady());
+
+		// synced, but the initial list is still being replayed to the handlers
+		when(cache.isReady()).thenReturn(true);
+		pods.onAdd(p1);
+		services.onAdd(s1);
+		assertFalse(tracker.isReady());
+
+		pods.onAdd(p2);
+		assertTrue(tracker.isReady());
+		assertEquals(new Summary(2, 0, 0, 0), tracker.getSummary("a"));
+
+		// latched: later store changes do not take it back
+		podStore.add(pod("a", "p3", "Running", true, 0, Map.of()));
+		assertTrue(tracker.isReady());
+	}
+
+	@Test
+	void nothingIsRegisteredWithoutTheCache() {
+		K8sInformerCache off = mock(K8sInformerCache.class);
+		SummaryTracker t = new SummaryTracker(off);
+		t.register();
+		assertFalse(t.isReady());
+		assertEquals(new Summary(0, 0, 0, 0), t.getSummary("all"));
+	}
+
+	@Test
+	void unknownNamespacesAreEmpty() {
+		pods.onAdd(pod("a", "p1", "Failed", false, 0, Map.of()));
+		assertEquals(new Summary(0, 0, 1, 0), tracker.getSummary("a"));
+		assertEquals(new Summary(0, 0, 0, 0), tracker.getSummary("nope"));
+	}
+}
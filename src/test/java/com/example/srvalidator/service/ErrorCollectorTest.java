@@ -0,0 +1,92 @@
+package com.example.srvalidator.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorCollectorTest {
+
+  private static final String XSD =
+      "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'>"
+    + "<xs:element name='r'><xs:complexType><xs:sequence>"
+    + "<xs:element name='n' type='xs:int' maxOccurs='unbounded'/>"
+    + "</xs:sequence></xs:complexType></xs:element></xs:schema>";
+
+  private final Schema schema;
+
+  ErrorCollectorTest() throws Exception {
+    schema = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(new StreamSource(new StringReader(XSD)));
+  }
+
+  // validates like XmlValidatorService: a StAX reader pulled through the JDK validator
+  private Exception validate(String xml, ErrorCollector[] out, int cap) throws Exception {
+    ElementPathReader reader = new ElementPathReader(XMLInputFactory.newFactory().createXMLStreamReader(new StringReader(xml)));
+    ErrorCollector errors = new ErrorCollector(cap, reader);
+    out[0] = errors;
+    Validator validator = schema.newValidator();
+    validator.setErrorHandler(errors);
+    try {
+      validator.validate(new StAXSource(reader));
+      return null;
+    } catch (Exception e) {
+      return e;
+    }
+  }
+
+  @Test
+  void collectsErrorsBelowTheCap() throws Exception {
+    ErrorCollector[] errors = new ErrorCollector[1];
+    assertNull(validate("<r><n>x</n><n>1</n><n>y</n></r>", errors, 10));
+    assertFalse(errors[0].capReached());
+    // both bad values, each where it was found
+    assertTrue(errors[0].errors().stream().anyMatch(e -> String.valueOf(e.get("message")).contains("'x'")
+        && "/r/n".equals(e.get("xpath"))), errors[0].errors().toString());
+    assertTrue(errors[0].errors().stream().anyMatch(e -> String.valueOf(e.get("message")).contains("'y'")
+        && "/r/n[3]".equals(e.get("xpath"))), errors[0].errors().toString());
+  }
+
+  @Test
+  void capIsRecordedEvenWhenTheValidatorWrapsTheException() throws Exception {
+    ErrorCollector[] errors = new ErrorCollector[1];
+    Exception e = validate("<r><n>a</n><n>b</n><n>c</n><n>d</n></r>", errors, 2);
+
+    assertNotNull(e);
+    // the JDK hands CapReached back inside other exceptions, not as itself
+    assertFalse(e instanceof ErrorCollector.CapReached);
+    assertTrue(errors[0].capReached());
+    assertEquals(2, errors[0].errors().size());
+    assertEquals("/r/n", errors[0].errors().get(0).get("xpath"));
+  }
+
+  @Test
+  void addUnreportedKeepsTheCap() throws Exception {
+    ErrorCollector[] errors = new ErrorCollector[1];
+    validate("<r><n>a</n></r>", errors, 1);
+    errors[0].addUnreported("later", 1, 1);
+    assertEquals(1, errors[0].errors().size());
+  }
+
+  @Test
+  void malformedInputIsReportedWithItsRootCause() throws Exception {
+    ErrorCollector[] errors = new ErrorCollector[1];
+    Exception e = validate("<r><n>1</n><n>2</r>", errors, 10);
+
+    assertNotNull(e);
+    assertFalse(errors[0].capReached());
+    Throwable root = XmlValidatorService.rootCause(e);
+    assertInstanceOf(XMLStreamException.class, root);
+    String message = XmlValidatorService.message(root);
+    assertFalse(message.contains("ParseError"), message);
+    assertTrue(message.contains("must be terminated"), message);
+  }
+}
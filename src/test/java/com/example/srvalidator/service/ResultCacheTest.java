@@ -0,0 +1,120 @@
+package com.example.srvalidator.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ResultCacheTest {
+
+  private final SchemaRegistry schemas = mock(SchemaRegistry.class);
+  private Consumer<String> reload;
+
+  @SuppressWarnings("unchecked")
+  private ResultCache cache(int size) {
+    ResultCache cache = new ResultCache(schemas, mock(ObjectProvider.class), size, 600, 1 << 20);
+    ArgumentCaptor<Consumer<String>> listener = ArgumentCaptor.forClass(Consumer.class);
+    verify(schemas, atLeastOnce()).addReloadListener(listener.capture());
+    reload = listener.getValue();
+    return cache;
+  }
+
+  private static Map<String,Object> valid(String schema, int version) {
+    return Map.of("valid", true, "schema", schema, "schemaVersion", version);
+  }
+
+  @Test
+  void aStoredResultIsAnsweredAsACachedCopy() {
+    when(schemas.compiledVersion("camt.053")).thenReturn(1);
+    ResultCache cache = cache(10);
+    String key = ResultCache.key("camt.053", 1, ResultCache.hash("<doc/>"));
+
+    assertNull(cache.get(key));
+    cache.put(key, valid("camt.053", 1));
+    Map<String,Object> hit = cache.get(key);
+    assertEquals(Boolean.TRUE, hit.get("cached"));
+    assertEquals(Boolean.TRUE, hit.get("valid"));
+
+    // other options or content are other keys
+    assertNull(cache.get(ResultCache.key("camt.053", 5, ResultCache.hash("<doc/>"))));
+    assertNull(cache.get(ResultCache.key(null, 1, ResultCache.hash("<doc/>"))));
+    assertEquals(1L, cache.stats().get("hits"));
+    assertEquals(3L, cache.stats().get("misses"));
+  }
+
+  @Test
+  void reloadingASchemaDropsOnlyItsResults() {
+    when(schemas.compiledVersion(anyString())).thenReturn(1);
+    ResultCache cache = cache(10);
+    cache.put("a", valid("camt.053", 1));
+    cache.put("b", valid("camt.053", 1));
+    cache.put("c", valid("pain.001", 1));
+
+    reload.accept("camt.053");
+    assertEquals(1, cache.size());
+    assertNull(cache.get("a"));
+    assertNotNull(cache.get("c"));
+  }
+
+  @Test
+  void aResultFromAnOlderSchemaVersionIsAMiss() {
+    when(schemas.compiledVersion("camt.053")).thenReturn(1);
+    ResultCache cache = cache(10);
+    cache.put("a", valid("camt.053", 1));
+    assertNotNull(cache.get("a"));
+
+    when(schemas.compiledVersion("camt.053")).thenReturn(2);
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void onlyDefinitiveResultsAreKept() {
+    when(schemas.compiledVersion(anyString())).thenReturn(1);
+    ResultCache cache = cache(10);
+    cache.put("failed", Map.of("valid", false, "error", "no schema", "schema", "x", "schemaVersion", 1));
+    cache.put("unversioned", Map.of("valid", true, "schema", "x"));
+    cache.put("errors", Map.of("valid", false, "errors", List.of("e1"), "schema", "x", "schemaVersion", 1));
+    assertEquals(1, cache.size());
+    assertNotNull(cache.get("errors"));
+  }
+
+  @Test
+  void theLeastRecentlyUsedGoesFirst() {
+    when(schemas.compiledVersion(anyString())).thenReturn(1);
+    ResultCache cache = cache(2);
+    cache.put("a", valid("x", 1));
+    cache.put("b", valid("x", 1));
+    cache.get("a");
+    cache.put("c", valid("x", 1));
+
+    assertNotNull(cache.get("a"));
+    assertNull(cache.get("b"));
+    assertNotNull(cache.get("c"));
+    assertEquals(1L, cache.stats().get("evictions"));
+  }
+
+  @Test
+  void sizeZeroCachesNothing() {
+    ResultCache cache = cache(0);
+    cache.put("a", valid("x", 1));
+    assertFalse(cache.isEnabled());
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void textIsHashedAsItsUtf8Bytes() {
+    // long enough for several slices, with surrogate pairs across the slice boundaries
+    String text = "<n>é😀</n>".repeat(3000);
+    assertEquals(ResultCache.hash(text.getBytes(StandardCharsets.UTF_8)), ResultCache.hash(text));
+    assertNotEquals(ResultCache.hash(text), ResultCache.hash(text + " "));
+  }
+}
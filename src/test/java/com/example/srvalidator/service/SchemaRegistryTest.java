@@ -0,0 +1,123 @@
+package com.example.srvalidator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SchemaRegistryTest {
+
+  private static final String ISO = "urn:iso:std:iso:20022:tech:xsd:";
+
+  @TempDir
+  Path dir;
+  private SchemaRegistry registry;
+  private final List<String> reloaded = new CopyOnWriteArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    // checked on every call, so files show up (and go) right away
+    registry = new SchemaRegistry(0, dir.toString());
+    registry.addReloadListener(reloaded::add);
+    registry.compileAll();
+  }
+
+  private static String xsd(String targetNamespace, String element) {
+    String tns = targetNamespace != null ? " targetNamespace='" + targetNamespace + "' elementFormDefault='qualified'" : "";
+    return "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'" + tns + ">"
+        + "<xs:element name='" + element + "' type='xs:string'/></xs:schema>";
+  }
+
+  private Path write(String name, String content, long modified) throws IOException {
+    Path f = dir.resolve(name);
+    Files.writeString(f, content);
+    assertTrue(f.toFile().setLastModified(modified));
+    return f;
+  }
+
+  @Test
+  void anIsoSchemaIsFoundByMessageIdAndByNamespace() throws Exception {
+    write("camt.053.001.13.xsd", xsd(ISO + "camt.053.001.13", "Document"), 1_000_000L);
+
+    assertEquals("camt.053.001.13", registry.forNamespace(ISO + "camt.053.001.13"));
+    assertEquals(ISO + "camt.053.001.13", registry.namespaceOf("camt.053.001.13"));
+    assertTrue(registry.messageTypes().contains("camt.053.001.13"));
+    assertEquals(1, registry.get("camt.053.001.13").version);
+    assertSame(registry.get("camt.053.001.13"), registry.get(ISO + "camt.053.001.13"));
+  }
+
+  @Test
+  void otherSchemasGoByNamespaceOrFileName() throws Exception {
+    write("orders.xsd", xsd("http://example.com/orders", "order"), 1_000_000L);
+    write("plain.xsd", xsd(null, "plain"), 1_000_000L);
+
+    assertEquals("http://example.com/orders", registry.forNamespace("http://example.com/orders"));
+    assertNotNull(registry.get("plain").schema);
+    assertNull(registry.forNamespace("http://example.com/unknown"));
+    assertNull(registry.forNamespace(""));
+    assertNull(registry.forNamespace(null));
+    assertThrows(IllegalArgumentException.class, () -> registry.get("nope"));
+  }
+
+  @Test
+  void aChangedSchemaIsRecompiledAndListenersAreTold() throws Exception {
+    Path f = write("pain.001.001.12.xsd", xsd(ISO + "pain.001.001.12", "Document"), 1_000_000L);
+    assertEquals(1, registry.get("pain.001.001.12").version);
+    assertEquals(1, registry.compiledVersion("pain.001.001.12"));
+
+    write("pain.001.001.12.xsd", xsd(ISO + "pain.001.001.12", "Doc"), 2_000_000L);
+    assertEquals(2, registry.get("pain.001.001.12").version);
+    assertEquals(List.of("pain.001.001.12"), reloaded);
+
+    // a broken edit keeps the schema that works
+    write(f.getFileName().toString(), "<xs:schema", 3_000_000L);
+    assertEquals(2, registry.get("pain.001.001.12").version);
+  }
+
+  @Test
+  void aRemovedSchemaIsForgotten() throws Exception {
+    Path f = write("pacs.008.001.13.xsd", xsd(ISO + "pacs.008.001.13", "Document"), 1_000_000L);
+    registry.get("pacs.008.001.13");
+
+    Files.delete(f);
+    assertNull(registry.forNamespace(ISO + "pacs.008.001.13"));
+    assertEquals(-1, registry.compiledVersion("pacs.008.001.13"));
+    assertEquals(List.of("pacs.008.001.13"), reloaded);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void documentsAreMatchedToSchemasByTheirRootNamespace() throws Exception {
+    write("camt.053.001.13.xsd", xsd(ISO + "camt.053.001.13", "Document"), 1_000_000L);
+    write("pain.001.001.12.xsd", xsd(ISO + "pain.001.001.12", "Document"), 1_000_000L);
+    ResultCache off = new ResultCache(registry, mock(ObjectProvider.class), 0, 600, 0);
+    XmlValidatorService validator = new XmlValidatorService(registry, off, new ObjectMapper(), 1, 1 << 20, 10);
+    try {
+      String camt = "<?xml version='1.0'?><Document xmlns='" + ISO + "camt.053.001.13'>x</Document>";
+      Map<String,Object> detected = validator.validate("auto", camt, 1);
+      assertEquals(true, detected.get("valid"));
+      assertEquals("camt.053.001.13", detected.get("msgType"));
+      assertEquals(true, detected.get("detected"));
+
+      Map<String,Object> mismatch = validator.validate("pain.001.001.12", camt, 1);
+      assertEquals(false, mismatch.get("valid"));
+      assertEquals("camt.053.001.13", mismatch.get("detectedMsgType"));
+
+      Map<String,Object> unknown = validator.validate(null, "<Document xmlns='urn:other'/>", 1);
+      assertEquals(false, unknown.get("valid"));
+    } finally {
+      validator.stop();
+    }
+  }
+}